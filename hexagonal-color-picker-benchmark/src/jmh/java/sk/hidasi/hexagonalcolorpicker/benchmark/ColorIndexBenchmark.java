@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import sk.hidasi.hexagonalcolorpicker.core.ColorIndex;
+import sk.hidasi.hexagonalcolorpicker.core.HexGrid;
+import sk.hidasi.hexagonalcolorpicker.core.HexPalette;
+
+/**
+ * Color to swatch index resolution (exact palette colors and arbitrary colors) per palette radius.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ColorIndexBenchmark {
+
+    // Number of colors resolved per invocation.
+    private static final int COLORS = 1024;
+
+    @Param({"1", "2", "3", "5", "10", "20", "30", "50"})
+    public int radius;
+
+    private ColorIndex index;
+    private final int[] paletteColors = new int[COLORS];
+    private final int[] randomColors = new int[COLORS];
+
+    @Setup
+    public void setup() {
+        final int count = HexGrid.getSwatchCount(radius);
+        final int[] colors = new int[count];
+        HexPalette.fillColors(radius, colors);
+        index = new ColorIndex(colors, count);
+
+        final Random random = new Random(42);
+        for (int i = 0; i < COLORS; i++) {
+            paletteColors[i] = colors[random.nextInt(count)];
+            randomColors[i] = 0xFF000000 | random.nextInt();
+        }
+    }
+
+    @Benchmark
+    public ColorIndex build() {
+        final int count = HexGrid.getSwatchCount(radius);
+        final int[] colors = new int[count];
+        HexPalette.fillColors(radius, colors);
+        return new ColorIndex(colors, count);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COLORS)
+    public int findExact() {
+        int hash = 0;
+        for (int i = 0; i < COLORS; i++) {
+            hash += index.findExact(paletteColors[i]);
+        }
+        return hash;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COLORS)
+    public int findNearest() {
+        int hash = 0;
+        for (int i = 0; i < COLORS; i++) {
+            hash += index.findNearest(randomColors[i]);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import sk.hidasi.hexagonalcolorpicker.core.HexGrid;
+
+/**
+ * Touch point to swatch index resolution per palette radius.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HitTestBenchmark {
+
+    // Number of touch points resolved per invocation.
+    private static final int POINTS = 1024;
+
+    @Param({"1", "2", "3", "5", "10", "20", "30", "50"})
+    public int radius;
+
+    private final float[] pointX = new float[POINTS];
+    private final float[] pointY = new float[POINTS];
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            pointX[i] = random.nextFloat() * 2.0f - 1.0f;
+            pointY[i] = random.nextFloat() * 2.0f - 1.0f;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public int findSwatch() {
+        int hash = 0;
+        for (int i = 0; i < POINTS; i++) {
+            hash += HexGrid.findSwatchIndexAt(radius, pointX[i], pointY[i]);
+        }
+        return hash;
+    }
+}
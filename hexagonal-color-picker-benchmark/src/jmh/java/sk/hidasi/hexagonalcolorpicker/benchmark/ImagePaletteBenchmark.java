@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import sk.hidasi.hexagonalcolorpicker.core.FixedPaletteGenerator;
+import sk.hidasi.hexagonalcolorpicker.core.ImagePalette;
+
+/**
+ * Dominant color extraction from a photo sized image (sequential and on all cores) and its palette layout.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ImagePaletteBenchmark {
+
+    // Palette radius 3
+    private static final int MAX_COLORS = 37;
+
+    @Param({"1000x750", "4000x3000"})
+    public String size;
+
+    private int width;
+    private int height;
+    private int[] pixels;
+    private int[] colors;
+
+    @Setup
+    public void setup() {
+        final int separator = size.indexOf('x');
+        width = Integer.parseInt(size.substring(0, separator));
+        height = Integer.parseInt(size.substring(separator + 1));
+        pixels = new int[width * height];
+        // smooth gradients with noise, like a photo
+        final Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final int red = (255 * x / width + random.nextInt(16)) & 0xFF;
+                final int green = (255 * y / height + random.nextInt(16)) & 0xFF;
+                final int blue = (128 + random.nextInt(64)) & 0xFF;
+                pixels[y * width + x] = 0xFF000000 | (red << 16) | (green << 8) | blue;
+            }
+        }
+        colors = ImagePalette.extractColors(pixels, 0, width, width, height, MAX_COLORS);
+    }
+
+    @Benchmark
+    public int[] extract() {
+        return ImagePalette.extractColors(pixels, 0, width, width, height, MAX_COLORS);
+    }
+
+    @Benchmark
+    public int[] extractParallel() {
+        return ImagePalette.extractColors(pixels, 0, width, width, height, MAX_COLORS, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public FixedPaletteGenerator layout() {
+        return ImagePalette.createPalette(colors);
+    }
+}
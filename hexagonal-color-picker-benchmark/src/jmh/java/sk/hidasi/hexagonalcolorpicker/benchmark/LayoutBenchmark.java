@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import sk.hidasi.hexagonalcolorpicker.core.HexGrid;
+
+/**
+ * Swatch position computation (relative and pixel positions) per palette radius.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LayoutBenchmark {
+
+    // Palette size in pixels (4:3 like the picker view).
+    private static final float SCALE_X = 1080.0f;
+    private static final float SCALE_Y = 810.0f;
+
+    @Param({"1", "2", "3", "5", "10", "20", "30", "50"})
+    public int radius;
+
+    private float[] positionX;
+    private float[] positionY;
+    private int[] left;
+    private int[] top;
+
+    @Setup
+    public void setup() {
+        final int swatchCount = HexGrid.getSwatchCount(radius);
+        positionX = new float[swatchCount];
+        positionY = new float[swatchCount];
+        left = new int[swatchCount];
+        top = new int[swatchCount];
+    }
+
+    @Benchmark
+    public float[] relativePositions() {
+        HexGrid.fillPositions(radius, positionX, positionY);
+        return positionY;
+    }
+
+    @Benchmark
+    public int[] pixelPositions() {
+        HexGrid.fillPixelPositions(radius, SCALE_X * 0.5f, SCALE_Y * 0.5f, SCALE_X, SCALE_Y, left, top);
+        return top;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import sk.hidasi.hexagonalcolorpicker.core.HexGrid;
+import sk.hidasi.hexagonalcolorpicker.core.HexPalette;
+import sk.hidasi.hexagonalcolorpicker.core.HsvPaletteGenerator;
+import sk.hidasi.hexagonalcolorpicker.core.OklchPaletteGenerator;
+import sk.hidasi.hexagonalcolorpicker.core.PaletteGenerator;
+
+/**
+ * Palette generation (swatch colors and stroke colors) per palette generator and radius.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PaletteBenchmark {
+
+    @Param({"1", "2", "3", "5", "10", "20", "30", "50"})
+    public int radius;
+
+    @Param({"hsv", "oklch"})
+    public String palette;
+
+    private PaletteGenerator generator;
+    private int[] colors;
+    private int[] strokeColors;
+
+    @Setup
+    public void setup() {
+        final int swatchCount = HexGrid.getSwatchCount(radius);
+        colors = new int[swatchCount];
+        strokeColors = new int[swatchCount];
+        generator = "oklch".equals(palette) ? OklchPaletteGenerator.INSTANCE : HsvPaletteGenerator.INSTANCE;
+    }
+
+    @Benchmark
+    public int[] colors() {
+        HexPalette.fillColors(generator, radius, colors);
+        return colors;
+    }
+
+    @Benchmark
+    public int[] colorsAndStrokes() {
+        final int count = HexPalette.fillColors(generator, radius, colors);
+        HexPalette.fillStrokeColors(colors, strokeColors, count);
+        return strokeColors;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import sk.hidasi.hexagonalcolorpicker.core.PaletteLibrary;
+import sk.hidasi.hexagonalcolorpicker.core.PaletteLibraryWriter;
+
+/**
+ * Opening of a memory mapped palette library and its name prefix and nearest color lookups per library size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PaletteLibraryBenchmark {
+
+    // Number of lookups per invocation.
+    private static final int QUERIES = 256;
+    private static final String[] WORDS = {"Red", "Blue", "Brand", "Green", "Ocean", "Sky", "Sand", "Stone"};
+
+    @Param({"1000", "50000"})
+    public int colors;
+
+    private File file;
+    private PaletteLibrary library;
+    private final int[] queryColors = new int[QUERIES];
+    private final String[] queryPrefixes = new String[QUERIES];
+    private final int[] matches = new int[64];
+
+    @Setup
+    public void setup() throws IOException {
+        final Random random = new Random(42);
+        final PaletteLibraryWriter writer = new PaletteLibraryWriter();
+        for (int i = 0; i < colors; i++) {
+            writer.add(0xFF000000 | random.nextInt(), WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(10000));
+        }
+        file = File.createTempFile("palette", ".hxpl");
+        writer.write(file);
+        library = PaletteLibrary.open(file);
+        for (int i = 0; i < QUERIES; i++) {
+            queryColors[i] = 0xFF000000 | random.nextInt();
+            queryPrefixes[i] = WORDS[random.nextInt(WORDS.length)].toLowerCase() + " " + random.nextInt(100);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public PaletteLibrary open() throws IOException {
+        return PaletteLibrary.open(file);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int findNearest() {
+        int hash = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            hash += library.findNearest(queryColors[i]);
+        }
+        return hash;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int findByPrefix() {
+        int hash = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            hash += library.findByPrefix(queryPrefixes[i], matches);
+        }
+        return hash;
+    }
+}
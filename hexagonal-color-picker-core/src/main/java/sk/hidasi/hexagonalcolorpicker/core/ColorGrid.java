@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+/**
+ * Uniform grid over the OKLab coordinates of palette colors and the nearest color search on it,
+ * shared by {@link ColorIndex} (arrays) and {@link PaletteLibrary} (mapped file).
+ * Subclasses only provide access to the cell contents.
+ */
+abstract class ColorGrid {
+
+    // OKLab coordinates of the query color, per thread (grids are shared by threads)
+    private static final ThreadLocal<float[]> sQuery = new ThreadLocal<float[]>() {
+        @Override
+        protected float[] initialValue() {
+            return new float[3];
+        }
+    };
+
+    // Grid origin, cell size and dimensions
+    final float mMinL;
+    final float mMinA;
+    final float mMinB;
+    final float mCellSize;
+    final int mSizeL;
+    final int mSizeA;
+    final int mSizeB;
+
+    ColorGrid(final float minL, final float minA, final float minB, final float cellSize,
+              final int sizeL, final int sizeA, final int sizeB) {
+        mMinL = minL;
+        mMinA = minA;
+        mMinB = minB;
+        mCellSize = cellSize;
+        mSizeL = sizeL;
+        mSizeA = sizeA;
+        mSizeB = sizeB;
+    }
+
+    /**
+     * Gets the start of a cell in the cell items, cell c owns items [start(c) .. start(c + 1)).
+     *
+     * @param cell Cell index (0 .. cell count, inclusive)
+     * @return Position in the cell items
+     */
+    abstract int getCellStart(int cell);
+
+    /**
+     * Gets a swatch index from the cell items.
+     *
+     * @param position Position in the cell items
+     * @return Swatch index
+     */
+    abstract int getCellItem(int position);
+
+    /**
+     * Gets an OKLab coordinate of a swatch.
+     *
+     * @param index     Swatch index
+     * @param component 0 (L), 1 (a) or 2 (b)
+     * @return Coordinate
+     */
+    abstract float getLab(int index, int component);
+
+    /**
+     * Gets the number of cells.
+     *
+     * @return Cell count
+     */
+    final int getCellCount() {
+        return mSizeL * mSizeA * mSizeB;
+    }
+
+    /**
+     * Finds the perceptually nearest swatch (OKLab distance). The grid is searched in growing shells
+     * around the query cell until no closer swatch can exist, ties are resolved by the lower index.
+     *
+     * @param color Color (alpha is ignored)
+     * @return Swatch index or -1 (empty grid)
+     */
+    final int findNearest(final int color) {
+        if (getCellStart(getCellCount()) == 0) {
+            return -1;
+        }
+        final float[] query = sQuery.get();
+        Oklab.fromColor(color, query, 0);
+        final float ql = query[0];
+        final float qa = query[1];
+        final float qb = query[2];
+        final int cl = cell(ql, mMinL, mSizeL);
+        final int ca = cell(qa, mMinA, mSizeA);
+        final int cb = cell(qb, mMinB, mSizeB);
+        final int maxShell = Math.max(mSizeL, Math.max(mSizeA, mSizeB));
+
+        int best = -1;
+        float bestDistance = Float.MAX_VALUE;
+        for (int shell = 0; shell < maxShell; shell++) {
+            for (int l = Math.max(cl - shell, 0); l <= Math.min(cl + shell, mSizeL - 1); l++) {
+                for (int a = Math.max(ca - shell, 0); a <= Math.min(ca + shell, mSizeA - 1); a++) {
+                    final boolean onShell = Math.abs(l - cl) == shell || Math.abs(a - ca) == shell;
+                    // inner cells were searched by the previous shells => only the two faces of the shell
+                    final int step = onShell ? 1 : Math.max(shell * 2, 1);
+                    for (int b = cb - shell; b <= cb + shell; b += step) {
+                        if (b < 0 || b >= mSizeB) {
+                            continue;
+                        }
+                        final int c = cell(l, a, b);
+                        final int end = getCellStart(c + 1);
+                        for (int k = getCellStart(c); k < end; k++) {
+                            final int i = getCellItem(k);
+                            final float dl = getLab(i, 0) - ql;
+                            final float da = getLab(i, 1) - qa;
+                            final float db = getLab(i, 2) - qb;
+                            final float distance = dl * dl + da * da + db * db;
+                            if (distance < bestDistance || (distance == bestDistance && i < best)) {
+                                best = i;
+                                bestDistance = distance;
+                            }
+                        }
+                    }
+                }
+            }
+            // every swatch beyond this shell is at least shell * cellSize away
+            final float bound = shell * mCellSize;
+            if (best >= 0 && bestDistance <= bound * bound) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the cell of OKLab coordinates.
+     *
+     * @param l L coordinate
+     * @param a a coordinate
+     * @param b b coordinate
+     * @return Cell index
+     */
+    final int cellOf(final float l, final float a, final float b) {
+        return cell(cell(l, mMinL, mSizeL), cell(a, mMinA, mSizeA), cell(b, mMinB, mSizeB));
+    }
+
+    private int cell(final int l, final int a, final int b) {
+        return (l * mSizeA + a) * mSizeB + b;
+    }
+
+    private int cell(final float value, final float min, final int size) {
+        return Math.max(0, Math.min((int) Math.floor((value - min) / mCellSize), size - 1));
+    }
+}
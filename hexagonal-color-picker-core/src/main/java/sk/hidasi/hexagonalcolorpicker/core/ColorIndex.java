@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Immutable color to swatch index lookup.
+ * <p>
+ * Exact colors are found through a primitive hash map. Other colors are mapped to the perceptually
+ * nearest swatch (OKLab distance) using a uniform grid over the palette colors, which is searched
+ * in growing shells around the query cell until no closer swatch can exist.
+ * Empty swatches (alpha 0, e.g. the padding of library palettes) are never found.
+ */
+public final class ColorIndex {
+
+    // Target number of grid cells along the longest axis.
+    private static final int GRID_SIZE = 16;
+
+    private final IntIntMap mExact;
+    private final ArrayGrid mGrid;
+
+    /**
+     * Builds the index.
+     *
+     * @param colors Swatch colors (the first occurrence wins for duplicated colors)
+     * @param count  Number of swatches
+     */
+    public ColorIndex(final int[] colors, final int count) {
+        mExact = new IntIntMap(count);
+        // OKLab coordinates of the swatches (L, a, b interleaved)
+        final float[] lab = new float[count * 3];
+
+        float minL = Float.MAX_VALUE, minA = Float.MAX_VALUE, minB = Float.MAX_VALUE;
+        float maxL = -Float.MAX_VALUE, maxA = -Float.MAX_VALUE, maxB = -Float.MAX_VALUE;
+        int itemCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (ColorMath.isEmpty(colors[i])) {
+                continue;
+            }
+            itemCount++;
+            mExact.putIfAbsent(colors[i], i);
+            Oklab.fromColor(colors[i], lab, i * 3);
+            minL = Math.min(minL, lab[i * 3]);
+            maxL = Math.max(maxL, lab[i * 3]);
+            minA = Math.min(minA, lab[i * 3 + 1]);
+            maxA = Math.max(maxA, lab[i * 3 + 1]);
+            minB = Math.min(minB, lab[i * 3 + 2]);
+            maxB = Math.max(maxB, lab[i * 3 + 2]);
+        }
+        if (itemCount == 0) {
+            minL = minA = minB = maxL = maxA = maxB = 0.0f;
+        }
+
+        final float extent = Math.max(maxL - minL, Math.max(maxA - minA, maxB - minB));
+        final float cellSize = extent > 0.0f ? extent / GRID_SIZE : 1.0f;
+        final int sizeL = cellCount(maxL - minL, cellSize);
+        final int sizeA = cellCount(maxA - minA, cellSize);
+        final int sizeB = cellCount(maxB - minB, cellSize);
+        final int[] cellStart = new int[sizeL * sizeA * sizeB + 1];
+        final int[] cellItems = new int[itemCount];
+        mGrid = new ArrayGrid(minL, minA, minB, cellSize, sizeL, sizeA, sizeB, cellStart, cellItems, lab);
+
+        // counting sort of the swatches by cell
+        final int[] cells = new int[count];
+        for (int i = 0; i < count; i++) {
+            if (ColorMath.isEmpty(colors[i])) {
+                cells[i] = -1;
+                continue;
+            }
+            cells[i] = mGrid.cellOf(lab[i * 3], lab[i * 3 + 1], lab[i * 3 + 2]);
+            cellStart[cells[i] + 1]++;
+        }
+        for (int c = 1; c < cellStart.length; c++) {
+            cellStart[c] += cellStart[c - 1];
+        }
+        final int[] fill = new int[cellStart.length - 1];
+        for (int i = 0; i < count; i++) {
+            if (cells[i] >= 0) {
+                cellItems[cellStart[cells[i]] + fill[cells[i]]++] = i;
+            }
+        }
+    }
+
+    /**
+     * Writes the grid (see {@link PaletteLibrary} for the layout, the exact map is not written).
+     *
+     * @param out Output
+     * @throws IOException if writing fails
+     */
+    void writeGrid(final DataOutput out) throws IOException {
+        out.writeFloat(mGrid.mMinL);
+        out.writeFloat(mGrid.mMinA);
+        out.writeFloat(mGrid.mMinB);
+        out.writeFloat(mGrid.mCellSize);
+        out.writeInt(mGrid.mSizeL);
+        out.writeInt(mGrid.mSizeA);
+        out.writeInt(mGrid.mSizeB);
+        for (final int start : mGrid.mCellStart) {
+            out.writeInt(start);
+        }
+        for (final int item : mGrid.mCellItems) {
+            out.writeInt(item);
+        }
+        for (final float value : mGrid.mLab) {
+            out.writeFloat(value);
+        }
+    }
+
+    /**
+     * Finds the swatch with exactly the given color.
+     *
+     * @param color Color
+     * @return Swatch index or -1
+     */
+    public int findExact(final int color) {
+        return mExact.get(color);
+    }
+
+    /**
+     * Finds the swatch with the given color or the perceptually nearest one.
+     *
+     * @param color Color (alpha is ignored for the nearest match)
+     * @return Swatch index or -1 (empty palette)
+     */
+    public int findNearest(final int color) {
+        final int exact = mExact.get(color);
+        if (exact >= 0) {
+            return exact;
+        }
+        return mGrid.findNearest(color);
+    }
+
+    private static int cellCount(final float extent, final float cellSize) {
+        return Math.max(1, Math.min(GRID_SIZE, (int) (extent / cellSize) + 1));
+    }
+
+    /**
+     * Grid with the cell contents in arrays.
+     */
+    private static final class ArrayGrid extends ColorGrid {
+
+        // Swatch indices sorted by cell
+        final int[] mCellStart;
+        final int[] mCellItems;
+        final float[] mLab;
+
+        ArrayGrid(final float minL, final float minA, final float minB, final float cellSize,
+                  final int sizeL, final int sizeA, final int sizeB,
+                  final int[] cellStart, final int[] cellItems, final float[] lab) {
+            super(minL, minA, minB, cellSize, sizeL, sizeA, sizeB);
+            mCellStart = cellStart;
+            mCellItems = cellItems;
+            mLab = lab;
+        }
+
+        @Override
+        int getCellStart(final int cell) {
+            return mCellStart[cell];
+        }
+
+        @Override
+        int getCellItem(final int position) {
+            return mCellItems[position];
+        }
+
+        @Override
+        float getLab(final int index, final int component) {
+            return mLab[index * 3 + component];
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+/**
+ * Pure Java color math working on primitives (packed ARGB ints and HSV floats).
+ * The HSV conversions follow the framework implementation (Skia SkHSVToColor / SkRGBToHSV)
+ * step by step in single precision, so the results are bit-identical to
+ * {@code Color.HSVToColor} and {@code Color.colorToHSV}, without JNI calls and temporary arrays.
+ */
+public final class ColorMath {
+
+    // Saturation below this value is treated as zero (SK_ScalarNearlyZero).
+    private static final float NEARLY_ZERO = 1.0f / (1 << 12);
+
+    private ColorMath() {
+    }
+
+    /**
+     * Converts HSV components to an opaque ARGB color.
+     *
+     * @param hue        Hue [0 .. 360)
+     * @param saturation Saturation [0 .. 1]
+     * @param value      Value [0 .. 1]
+     * @return ARGB color
+     */
+    public static int hsvToColor(final float hue, final float saturation, final float value) {
+        return hsvToColor(0xFF, hue, saturation, value);
+    }
+
+    /**
+     * Converts HSV components to an ARGB color.
+     *
+     * @param alpha      Alpha [0 .. 255]
+     * @param hue        Hue [0 .. 360)
+     * @param saturation Saturation [0 .. 1]
+     * @param value      Value [0 .. 1]
+     * @return ARGB color
+     */
+    public static int hsvToColor(final int alpha, final float hue, final float saturation, final float value) {
+        final float s = pin(saturation);
+        final float v = pin(value);
+        final int vByte = round(v * 255);
+
+        if (Math.abs(s) <= NEARLY_ZERO) {
+            // shade of gray
+            return argb(alpha, vByte, vByte, vByte);
+        }
+
+        final float hx = (hue < 0 || hue >= 360.0f) ? 0 : hue;
+        final float w = hx / 60;
+        final float i = (float) Math.floor(w);
+        final float f = w - i;
+        final int p = round((1.0f - s) * v * 255);
+        final int q = round((1.0f - (s * f)) * v * 255);
+        final int t = round((1.0f - (s * (1.0f - f))) * v * 255);
+
+        switch ((int) i) {
+            case 0:
+                return argb(alpha, vByte, t, p);
+            case 1:
+                return argb(alpha, q, vByte, p);
+            case 2:
+                return argb(alpha, p, vByte, t);
+            case 3:
+                return argb(alpha, p, q, vByte);
+            case 4:
+                return argb(alpha, t, p, vByte);
+            default:
+                return argb(alpha, vByte, p, q);
+        }
+    }
+
+    /**
+     * Gets the HSV hue of a color.
+     *
+     * @param color ARGB color
+     * @return Hue [0 .. 360)
+     */
+    public static float hue(final int color) {
+        final int r = (color >> 16) & 0xFF;
+        final int g = (color >> 8) & 0xFF;
+        final int b = color & 0xFF;
+        final int max = Math.max(r, Math.max(g, b));
+        final int delta = max - Math.min(r, Math.min(g, b));
+        if (delta == 0) {
+            return 0.0f;
+        }
+        float h;
+        if (r == max) {
+            h = (float) (g - b) / delta;
+        } else if (g == max) {
+            h = 2.0f + (float) (b - r) / delta;
+        } else {
+            h = 4.0f + (float) (r - g) / delta;
+        }
+        h *= 60;
+        if (h < 0) {
+            h += 360.0f;
+        }
+        return h;
+    }
+
+    /**
+     * Gets the HSV saturation of a color.
+     *
+     * @param color ARGB color
+     * @return Saturation [0 .. 1]
+     */
+    public static float saturation(final int color) {
+        final int r = (color >> 16) & 0xFF;
+        final int g = (color >> 8) & 0xFF;
+        final int b = color & 0xFF;
+        final int max = Math.max(r, Math.max(g, b));
+        final int delta = max - Math.min(r, Math.min(g, b));
+        if (delta == 0) {
+            return 0.0f;
+        }
+        return (float) delta / max;
+    }
+
+    /**
+     * Gets the HSV value of a color.
+     *
+     * @param color ARGB color
+     * @return Value [0 .. 1]
+     */
+    public static float value(final int color) {
+        final int r = (color >> 16) & 0xFF;
+        final int g = (color >> 8) & 0xFF;
+        final int b = color & 0xFF;
+        return (float) Math.max(r, Math.max(g, b)) / 255;
+    }
+
+    /**
+     * Converts a color to HSV components (same output as {@code Color.colorToHSV}).
+     *
+     * @param color ARGB color
+     * @param hsv   Output array (hue, saturation, value)
+     */
+    public static void colorToHsv(final int color, final float[] hsv) {
+        hsv[0] = hue(color);
+        hsv[1] = saturation(color);
+        hsv[2] = value(color);
+    }
+
+    /**
+     * Calculates the stroke color for a color swatch (half of the color components).
+     *
+     * @param color Color of the swatch
+     * @return The stroke color (opaque)
+     */
+    public static int strokeColor(final int color) {
+        return 0xFF000000 | ((color >> 1) & 0x7F7F7F);
+    }
+
+    /**
+     * Checks whether a swatch color is empty (fully transparent, e.g. the padding of library palettes).
+     * Empty swatches are neither drawn nor selectable.
+     *
+     * @param color Color of the swatch
+     * @return True if the swatch is empty
+     */
+    public static boolean isEmpty(final int color) {
+        return (color >>> 24) == 0;
+    }
+
+    /**
+     * Packs color components.
+     */
+    private static int argb(final int alpha, final int red, final int green, final int blue) {
+        return (alpha << 24) | (red << 16) | (green << 8) | blue;
+    }
+
+    /**
+     * Rounds like sk_float_round2int (floor of x + 0.5 in single precision).
+     */
+    private static int round(final float x) {
+        return (int) Math.floor(x + 0.5f);
+    }
+
+    /**
+     * Pins the value to [0 .. 1] like SkTPin (NaN is pinned to 0).
+     */
+    private static float pin(final float x) {
+        final float min = (1.0f < x) ? 1.0f : x;
+        return (0.0f < min) ? min : 0.0f;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+/**
+ * Palette of given colors (e.g. extracted from an image by {@link ImagePalette}).
+ * The colors are stored in swatch index order for one palette radius (see {@link HexGrid}).
+ * Palettes of another radius are sampled from it at the same relative positions.
+ */
+public final class FixedPaletteGenerator implements PaletteGenerator {
+
+    private final int mRadius;
+    private final int[] mColors;
+
+    /**
+     * Constructor.
+     *
+     * @param radius Palette radius of the colors
+     * @param colors Swatch colors (getSwatchCount(radius) items, the array is copied)
+     */
+    public FixedPaletteGenerator(final int radius, final int[] colors) {
+        if (radius < 0 || colors.length < HexGrid.getSwatchCount(radius)) {
+            throw new IllegalArgumentException("Palette of radius " + radius + " needs "
+                    + HexGrid.getSwatchCount(radius) + " colors: " + colors.length);
+        }
+        mRadius = radius;
+        mColors = new int[HexGrid.getSwatchCount(radius)];
+        System.arraycopy(colors, 0, mColors, 0, mColors.length);
+    }
+
+    /**
+     * Gets the palette radius of the colors (the palette is shown unscaled with this radius).
+     *
+     * @return Palette radius
+     */
+    public int getRadius() {
+        return mRadius;
+    }
+
+    /**
+     * Gets the color of a swatch.
+     *
+     * @param index Swatch index
+     * @return Color
+     */
+    public int getColor(final int index) {
+        return mColors[index];
+    }
+
+    @Override
+    public int calculateColor(final int radius, final int x, final int y) {
+        if (radius == mRadius) {
+            final int index = HexGrid.getSwatchIndex(radius, (x - y / 2) / 2, y / 2);
+            if (index >= 0) {
+                return mColors[index];
+            }
+        }
+        if (radius == 0) {
+            return mColors[HexGrid.getSwatchIndex(mRadius, 0, 0)];
+        }
+        // axial coordinates scaled to our radius
+        final float scale = (float) mRadius / radius;
+        final float r = 0.5f * y;
+        final float q = 0.5f * (x - r);
+        return mColors[findNearestIndex(q * scale, r * scale)];
+    }
+
+    /**
+     * Finds the swatch nearest to fractional axial coordinates. Points outside of the palette
+     * (e.g. the rim of a gradient) are projected to the palette border first.
+     *
+     * @param q Axial q coordinate
+     * @param r Axial r coordinate
+     * @return Swatch index
+     */
+    private int findNearestIndex(float q, float r) {
+        final float distance = Math.max(Math.abs(q), Math.max(Math.abs(r), Math.abs(q + r)));
+        if (distance > mRadius) {
+            // rounding moves a point by at most 2/3 of a cell, so points on the border stay inside
+            final float scale = mRadius / distance;
+            q *= scale;
+            r *= scale;
+        }
+        final int index = HexGrid.findSwatchIndex(mRadius, q, r);
+        return index >= 0 ? index : HexGrid.getSwatchIndex(mRadius, 0, 0);
+    }
+}
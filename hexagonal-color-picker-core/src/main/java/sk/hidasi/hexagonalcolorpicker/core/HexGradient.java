@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Continuous (gradient) hexagonal palette rendered into a packed ARGB pixel buffer.
+ * <p>
+ * Every pixel is mapped to fractional layout coordinates (see {@link HexGrid}) and colored by the
+ * palette generator, so the gradient matches the discrete swatches at their centers. The generator
+ * is sampled on a finer grid of the same shape: the coordinates and the radius are multiplied by
+ * {@link #SUBDIVISION}, which keeps the angle and the relative distance (both built-in generators
+ * depend only on them). Pixels outside of the hexagon are transparent.
+ * <p>
+ * Rows are independent, so the buffer can be filled in horizontal stripes in parallel
+ * ({@link #fill(int[], ForkJoinPool)}).
+ */
+public final class HexGradient {
+
+    // Layout coordinates are sampled with this resolution (per half swatch).
+    public static final int SUBDIVISION = 64;
+    // Stripes with fewer rows are not split any further.
+    private static final int MIN_STRIPE_ROWS = 8;
+
+    private final PaletteGenerator mGenerator;
+    private final int mRadius;
+    private final float mValue;
+    private final int mWidth;
+    private final int mHeight;
+    // Palette center (pixels)
+    private final float mCenterX;
+    private final float mCenterY;
+    // Layout coordinates per pixel
+    private final float mUnitX;
+    private final float mUnitY;
+
+    /**
+     * Constructor. The geometry is the same as for the swatches: a pixel at (px, py) has the relative
+     * position ((px - centerX) / (scaleX / 2), (py - centerY) / (scaleY / 2)).
+     *
+     * @param generator Palette generator
+     * @param radius    Palette radius
+     * @param value     Value (brightness) multiplier of the colors (0 .. 1)
+     * @param width     Buffer width (pixels)
+     * @param height    Buffer height (pixels)
+     * @param centerX   Palette center X (pixels)
+     * @param centerY   Palette center Y (pixels)
+     * @param scaleX    Palette width (pixels)
+     * @param scaleY    Palette height (pixels)
+     */
+    public HexGradient(final PaletteGenerator generator, final int radius, final float value, final int width, final int height,
+                       final float centerX, final float centerY, final float scaleX, final float scaleY) {
+        if (width <= 0 || height <= 0 || scaleX <= 0.0f || scaleY <= 0.0f) {
+            throw new IllegalArgumentException("Gradient size must be positive.");
+        }
+        mGenerator = generator;
+        mRadius = radius;
+        mValue = Math.max(0.0f, Math.min(value, 1.0f));
+        mWidth = width;
+        mHeight = height;
+        mCenterX = centerX;
+        mCenterY = centerY;
+        final int diameter = radius * 2 + 1;
+        mUnitX = diameter / (0.5f * scaleX);
+        mUnitY = diameter / (0.5f * scaleY);
+    }
+
+    /**
+     * Gets buffer width.
+     *
+     * @return Width in pixels
+     */
+    public int getWidth() {
+        return mWidth;
+    }
+
+    /**
+     * Gets buffer height.
+     *
+     * @return Height in pixels
+     */
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * Fills the whole buffer on the calling thread.
+     *
+     * @param pixels Output pixels (width * height items, row by row)
+     */
+    public void fill(final int[] pixels) {
+        fillRows(pixels, 0, mHeight);
+    }
+
+    /**
+     * Fills the whole buffer in row stripes on the given pool (the call returns when all rows are filled).
+     *
+     * @param pixels Output pixels (width * height items, row by row)
+     * @param pool   Fork/join pool
+     */
+    public void fill(final int[] pixels, final ForkJoinPool pool) {
+        final int stripeRows = Math.max(MIN_STRIPE_ROWS, mHeight / (pool.getParallelism() * 4));
+        pool.invoke(new StripeTask(pixels, 0, mHeight, stripeRows));
+    }
+
+    /**
+     * Fills a range of rows.
+     *
+     * @param pixels  Output pixels (width * height items, row by row)
+     * @param rowFrom First row
+     * @param rowTo   End of the row range (exclusive)
+     */
+    public void fillRows(final int[] pixels, final int rowFrom, final int rowTo) {
+        fillRows(pixels, rowFrom * mWidth, rowFrom, rowTo);
+    }
+
+    /**
+     * Fills a range of rows into a buffer which holds only a band of the rows (e.g. for streaming encoders).
+     *
+     * @param pixels  Output pixels (row by row)
+     * @param offset  Offset of the first row in the buffer
+     * @param rowFrom First row
+     * @param rowTo   End of the row range (exclusive)
+     */
+    public void fillRows(final int[] pixels, final int offset, final int rowFrom, final int rowTo) {
+        final PaletteGenerator generator = mGenerator;
+        final int width = mWidth;
+        final int radius = mRadius * SUBDIVISION;
+        // the hexagon around the outer swatch centers (half a swatch further)
+        final float limit = mRadius + 0.5f;
+        // value layer: scaling of the RGB channels keeps hue and saturation (fixed point 8.8)
+        final int value = (int) (mValue * 256.0f + 0.5f);
+        for (int py = rowFrom; py < rowTo; py++) {
+            final float y = (py + 0.5f - mCenterY) * mUnitY;
+            final float r = 0.5f * y;
+            final int sampleY = Math.round(y * SUBDIVISION);
+            int index = offset + (py - rowFrom) * width;
+            for (int px = 0; px < width; px++, index++) {
+                final float x = (px + 0.5f - mCenterX) * mUnitX;
+                final float q = 0.5f * (x - r);
+                if (Math.abs(q) > limit || Math.abs(r) > limit || Math.abs(q + r) > limit) {
+                    pixels[index] = 0;
+                    continue;
+                }
+                final int color = generator.calculateColor(radius, Math.round(x * SUBDIVISION), sampleY);
+                if (value >= 256) {
+                    pixels[index] = color;
+                } else {
+                    pixels[index] = (color & 0xFF000000)
+                            | ((((color >> 16) & 0xFF) * value >> 8) << 16)
+                            | ((((color >> 8) & 0xFF) * value >> 8) << 8)
+                            | ((color & 0xFF) * value >> 8);
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits the row range in halves until the stripes are small enough.
+     */
+    private final class StripeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] mPixels;
+        private final int mRowFrom;
+        private final int mRowTo;
+        private final int mStripeRows;
+
+        StripeTask(final int[] pixels, final int rowFrom, final int rowTo, final int stripeRows) {
+            mPixels = pixels;
+            mRowFrom = rowFrom;
+            mRowTo = rowTo;
+            mStripeRows = stripeRows;
+        }
+
+        @Override
+        protected void compute() {
+            if (mRowTo - mRowFrom <= mStripeRows) {
+                fillRows(mPixels, mRowFrom, mRowTo);
+                return;
+            }
+            final int middle = (mRowFrom + mRowTo) >>> 1;
+            invokeAll(new StripeTask(mPixels, mRowFrom, middle, mStripeRows),
+                    new StripeTask(mPixels, middle, mRowTo, mStripeRows));
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+/**
+ * Geometry of the hexagonal palette.
+ * <p>
+ * Swatches are ordered row by row (top to bottom), from left to right within a row.
+ * A swatch has integer layout coordinates (x, y): y is the doubled row (-2R .. 2R, step 2)
+ * and x is the doubled column (step 2, shifted by one on odd rows). Its relative position
+ * (from -1.0 to 1.0) is (x / (2R + 1), y / (2R + 1)). Axial coordinates are q = (x - y / 2) / 2
+ * and r = y / 2, the third cube coordinate is s = -q - r.
+ */
+public final class HexGrid {
+
+    private HexGrid() {
+    }
+
+    /**
+     * Calculates the count of color swatches per palette radius.
+     *
+     * @param radius Palette radius
+     * @return color swatches count
+     */
+    public static int getSwatchCount(final int radius) {
+        return 3 * radius * (radius + 1) + 1;
+    }
+
+    /**
+     * Calculates the smallest palette radius with at least the given number of swatches.
+     *
+     * @param swatchCount Number of swatches
+     * @return Palette radius
+     */
+    public static int getRadiusFor(final int swatchCount) {
+        int radius = 0;
+        while (getSwatchCount(radius) < swatchCount) {
+            radius++;
+        }
+        return radius;
+    }
+
+    /**
+     * Calculates the number of swatches in a row.
+     *
+     * @param radius Palette radius
+     * @param r      Axial r coordinate (row)
+     * @return Swatch count of the row
+     */
+    public static int getRowSize(final int radius, final int r) {
+        return 2 * radius + 1 - Math.abs(r);
+    }
+
+    /**
+     * Calculates the index of the first swatch in a row.
+     *
+     * @param radius Palette radius
+     * @param r      Axial r coordinate (row)
+     * @return Swatch index
+     */
+    public static int getRowStart(final int radius, final int r) {
+        if (r <= 0) {
+            final int rows = r + radius;
+            return rows * (radius + 1) + rows * (rows - 1) / 2;
+        }
+        return radius * (radius + 1) + radius * (radius - 1) / 2 + r * (2 * radius + 1) - r * (r - 1) / 2;
+    }
+
+    /**
+     * Calculates the minimal axial q coordinate in a row.
+     *
+     * @param radius Palette radius
+     * @param r      Axial r coordinate (row)
+     * @return Axial q coordinate of the first swatch in the row
+     */
+    public static int getRowMinQ(final int radius, final int r) {
+        return Math.max(-radius, -radius - r);
+    }
+
+    /**
+     * Checks whether the axial coordinates are inside of the palette.
+     *
+     * @param radius Palette radius
+     * @param q      Axial q coordinate
+     * @param r      Axial r coordinate
+     * @return True if the cell is a palette swatch
+     */
+    public static boolean contains(final int radius, final int q, final int r) {
+        return Math.abs(q) <= radius && Math.abs(r) <= radius && Math.abs(q + r) <= radius;
+    }
+
+    /**
+     * Calculates the swatch index from axial coordinates.
+     *
+     * @param radius Palette radius
+     * @param q      Axial q coordinate
+     * @param r      Axial r coordinate
+     * @return Swatch index or -1 (outside of the palette)
+     */
+    public static int getSwatchIndex(final int radius, final int q, final int r) {
+        if (!contains(radius, q, r)) {
+            return -1;
+        }
+        return getRowStart(radius, r) + q - getRowMinQ(radius, r);
+    }
+
+    /**
+     * Finds the swatch nearest to the given fractional axial coordinates (cube rounding).
+     *
+     * @param radius Palette radius
+     * @param q      Axial q coordinate
+     * @param r      Axial r coordinate
+     * @return Swatch index or -1 (outside of the palette)
+     */
+    public static int findSwatchIndex(final int radius, final float q, final float r) {
+        final float s = -q - r;
+        int rq = Math.round(q);
+        int rr = Math.round(r);
+        final int rs = Math.round(s);
+        final float dq = Math.abs(rq - q);
+        final float dr = Math.abs(rr - r);
+        final float ds = Math.abs(rs - s);
+        if (dq > dr && dq > ds) {
+            rq = -rr - rs;
+        } else if (dr > ds) {
+            rr = -rq - rs;
+        }
+        return getSwatchIndex(radius, rq, rr);
+    }
+
+    /**
+     * Finds the swatch nearest to the given relative position (from -1.0 to 1.0).
+     *
+     * @param radius    Palette radius
+     * @param positionX Relative X position
+     * @param positionY Relative Y position
+     * @return Swatch index or -1 (outside of the palette)
+     */
+    public static int findSwatchIndexAt(final int radius, final float positionX, final float positionY) {
+        final int diameter = radius * 2 + 1;
+        final float column = positionX * diameter;
+        final float row = positionY * diameter * 0.5f;
+        return findSwatchIndex(radius, 0.5f * (column - row), row);
+    }
+
+    /**
+     * Calculates the axial r coordinate (row) of a swatch.
+     *
+     * @param radius Palette radius
+     * @param index  Swatch index
+     * @return Axial r coordinate
+     */
+    public static int getSwatchR(final int radius, final int index) {
+        // rows above the middle one grow, rows below shrink => binary search over row starts
+        int low = -radius;
+        int high = radius;
+        while (low < high) {
+            final int mid = (low + high + 1) >> 1;
+            if (getRowStart(radius, mid) <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Calculates the axial q coordinate of a swatch.
+     *
+     * @param radius Palette radius
+     * @param index  Swatch index
+     * @return Axial q coordinate
+     */
+    public static int getSwatchQ(final int radius, final int index) {
+        final int r = getSwatchR(radius, index);
+        return getRowMinQ(radius, r) + index - getRowStart(radius, r);
+    }
+
+    /**
+     * Fills relative positions (from -1.0 to 1.0) of all swatches.
+     *
+     * @param radius    Palette radius
+     * @param positionX Output X positions (at least getSwatchCount(radius) items)
+     * @param positionY Output Y positions (at least getSwatchCount(radius) items)
+     * @return Number of swatches
+     */
+    public static int fillPositions(final int radius, final float[] positionX, final float[] positionY) {
+        final float diameter = radius * 2 + 1;
+        int index = 0;
+        for (int y = -radius * 2; y <= radius * 2; y += 2) {
+            final int rowSize = radius * 2 - Math.abs(y / 2);
+            for (int x = -rowSize; x <= rowSize; x += 2) {
+                positionX[index] = x / diameter;
+                positionY[index] = y / diameter;
+                index++;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Fills pixel positions of all swatches (top left corners of the swatch bounds).
+     *
+     * @param radius    Palette radius
+     * @param pivotX    Palette center X (pixels)
+     * @param pivotY    Palette center Y (pixels)
+     * @param scaleX    Palette width (pixels)
+     * @param scaleY    Palette height (pixels)
+     * @param left      Output X coordinates
+     * @param top       Output Y coordinates
+     * @return Number of swatches
+     */
+    public static int fillPixelPositions(final int radius, final float pivotX, final float pivotY,
+                                         final float scaleX, final float scaleY, final int[] left, final int[] top) {
+        final float diameter = radius * 2 + 1;
+        final float swatchRadius = getSwatchRadius(radius, scaleX);
+        int index = 0;
+        for (int y = -radius * 2; y <= radius * 2; y += 2) {
+            final int rowSize = radius * 2 - Math.abs(y / 2);
+            final int rowTop = (int) (pivotY + (y / diameter * 0.5f * scaleY) - swatchRadius);
+            for (int x = -rowSize; x <= rowSize; x += 2) {
+                left[index] = (int) (pivotX + (x / diameter * 0.5f * scaleX) - swatchRadius);
+                top[index] = rowTop;
+                index++;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Calculates the radius of a color swatch.
+     *
+     * @param radius Palette radius
+     * @param scaleX Palette width (pixels)
+     * @return Radius of a color swatch (pixels)
+     */
+    public static float getSwatchRadius(final int radius, final float scaleX) {
+        return 0.5f * scaleX / (radius * 2 + 1);
+    }
+}
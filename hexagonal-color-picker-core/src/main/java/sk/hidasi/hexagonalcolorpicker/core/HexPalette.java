@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+/**
+ * Palette generation (the default is {@link HsvPaletteGenerator}).
+ * Colors are written to packed ARGB arrays in swatch index order (see {@link HexGrid}).
+ */
+public final class HexPalette {
+
+    private HexPalette() {
+    }
+
+    /**
+     * Calculates the color of a color swatch of the default palette according to its layout coordinates.
+     *
+     * @param radius Palette radius
+     * @param x      X coordinate (doubled column)
+     * @param y      Y coordinate (doubled row)
+     * @return Color of the swatch
+     */
+    public static int calculateColor(final int radius, final int x, final int y) {
+        return HsvPaletteGenerator.INSTANCE.calculateColor(radius, x, y);
+    }
+
+    /**
+     * Fills colors of all swatches of the default palette.
+     *
+     * @param radius Palette radius
+     * @param colors Output colors (at least getSwatchCount(radius) items)
+     * @return Number of swatches
+     */
+    public static int fillColors(final int radius, final int[] colors) {
+        return fillColors(HsvPaletteGenerator.INSTANCE, radius, colors);
+    }
+
+    /**
+     * Fills colors of all swatches.
+     *
+     * @param generator Palette generator
+     * @param radius    Palette radius
+     * @param colors    Output colors (at least getSwatchCount(radius) items)
+     * @return Number of swatches
+     */
+    public static int fillColors(final PaletteGenerator generator, final int radius, final int[] colors) {
+        int index = 0;
+        for (int y = -radius * 2; y <= radius * 2; y += 2) {
+            final int rowSize = radius * 2 - Math.abs(y / 2);
+            for (int x = -rowSize; x <= rowSize; x += 2) {
+                colors[index++] = generator.calculateColor(radius, x, y);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Fills colors of a value (brightness) layer: the HSV value of every swatch color is multiplied.
+     *
+     * @param colors Swatch colors (full brightness layer)
+     * @param count  Number of swatches
+     * @param value  Value multiplier (0 .. 1)
+     * @param out    Output colors
+     */
+    public static void fillValueLayer(final int[] colors, final int count, final float value, final int[] out) {
+        final float[] hsv = new float[3];
+        for (int i = 0; i < count; i++) {
+            ColorMath.colorToHsv(colors[i], hsv);
+            out[i] = ColorMath.hsvToColor(colors[i] >>> 24, hsv[0], hsv[1], hsv[2] * value);
+        }
+    }
+
+    /**
+     * Calculates the value multiplier of a value layer (layer 0 is the full brightness one).
+     *
+     * @param layer      Layer index
+     * @param layerCount Number of layers
+     * @return Value multiplier
+     */
+    public static float getLayerValue(final int layer, final int layerCount) {
+        return (float) (layerCount - layer) / layerCount;
+    }
+
+    /**
+     * Finds the value layer closest to the brightness of a color.
+     *
+     * @param color      Color
+     * @param layerCount Number of layers
+     * @return Layer index
+     */
+    public static int findValueLayer(final int color, final int layerCount) {
+        final int layer = Math.round((1.0f - ColorMath.value(color)) * layerCount);
+        return Math.max(0, Math.min(layer, layerCount - 1));
+    }
+
+    /**
+     * Fills stroke colors for the given swatch colors.
+     *
+     * @param colors       Swatch colors
+     * @param strokeColors Output stroke colors
+     * @param count        Number of swatches
+     */
+    public static void fillStrokeColors(final int[] colors, final int[] strokeColors, final int count) {
+        for (int i = 0; i < count; i++) {
+            strokeColors[i] = ColorMath.strokeColor(colors[i]);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+/**
+ * The classic palette: hue from the angle, saturation from the distance to the center, full value.
+ */
+public final class HsvPaletteGenerator implements PaletteGenerator {
+
+    /**
+     * Shared instance (the default palette).
+     */
+    public static final HsvPaletteGenerator INSTANCE = new HsvPaletteGenerator();
+
+    private HsvPaletteGenerator() {
+    }
+
+    @Override
+    public int calculateColor(final int radius, final int x, final int y) {
+        final float distance = (float) (radius * 2);
+        return ColorMath.hsvToColor(
+                360.0f * (float) (0.5 + 0.5 * Math.atan2(y, x) / Math.PI),  // hue
+                (float) Math.sqrt(x * x + y * y) / distance,                // saturation
+                1.0f                                                        // value
+        );
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Dominant colors of an image laid out as a hexagonal palette.
+ * <p>
+ * The image is sampled on a regular grid of at most {@link #MAX_SAMPLES} pixels, the samples are
+ * counted in a histogram of 4096 bins (4 bits per channel) which also sums the channels, so every
+ * bin is represented by the mean color of its pixels. The bins are taken from the most frequent one,
+ * bins too close (in OKLab) to an already taken color are skipped, the distance limit is relaxed
+ * until enough colors are found. Mostly transparent pixels are ignored.
+ * <p>
+ * The histogram can be built in parallel over tiles (row bands of the samples), the tile
+ * histograms are then summed.
+ */
+public final class ImagePalette {
+
+    // Maximal number of sampled pixels (e.g. 12 MP images are sampled every 14th pixel in both directions).
+    public static final int MAX_SAMPLES = 256 * 256;
+    // Histogram bins (4 bits per channel) and ints per bin (count, red, green and blue sum)
+    private static final int BINS = 1 << 12;
+    private static final int BIN_INTS = 4;
+    // Tiles with fewer sample rows are not split any further.
+    private static final int MIN_TILE_ROWS = 16;
+    // OKLab distance of distinct colors (relaxed to a half in every round)
+    private static final float MIN_DISTANCE = 0.08f;
+    private static final int DISTANCE_ROUNDS = 4;
+    // Pixels with lower alpha are not counted
+    private static final int MIN_ALPHA = 0x80;
+
+    private ImagePalette() {
+    }
+
+    /**
+     * Calculates the sampling step of an image (the same in both directions).
+     *
+     * @param width  Image width
+     * @param height Image height
+     * @return Step in pixels (1 => every pixel)
+     */
+    public static int getSampleStep(final int width, final int height) {
+        final long pixels = (long) width * height;
+        int step = (int) Math.ceil(Math.sqrt((double) pixels / MAX_SAMPLES));
+        return Math.max(step, 1);
+    }
+
+    /**
+     * Extracts dominant colors on the calling thread.
+     *
+     * @param pixels    ARGB pixels
+     * @param offset    Index of the first pixel
+     * @param stride    Pixels per row in the array
+     * @param width     Image width
+     * @param height    Image height
+     * @param maxColors Maximal number of colors
+     * @return Colors ordered by dominance (at most maxColors, fewer for images with fewer distinct colors)
+     */
+    public static int[] extractColors(final int[] pixels, final int offset, final int stride, final int width, final int height,
+                                      final int maxColors) {
+        final Sampler sampler = new Sampler(pixels, offset, stride, width, height);
+        final int[] histogram = new int[BINS * BIN_INTS];
+        sampler.count(histogram, 0, sampler.mRows);
+        return selectColors(histogram, maxColors);
+    }
+
+    /**
+     * Extracts dominant colors, the histogram is built over tiles on the given pool.
+     *
+     * @param pixels    ARGB pixels
+     * @param offset    Index of the first pixel
+     * @param stride    Pixels per row in the array
+     * @param width     Image width
+     * @param height    Image height
+     * @param maxColors Maximal number of colors
+     * @param pool      Fork/join pool
+     * @return Colors ordered by dominance (at most maxColors, fewer for images with fewer distinct colors)
+     */
+    public static int[] extractColors(final int[] pixels, final int offset, final int stride, final int width, final int height,
+                                      final int maxColors, final ForkJoinPool pool) {
+        final Sampler sampler = new Sampler(pixels, offset, stride, width, height);
+        final int tileRows = Math.max(MIN_TILE_ROWS, sampler.mRows / pool.getParallelism());
+        final int[] histogram = pool.invoke(new TileTask(sampler, 0, sampler.mRows, tileRows));
+        return selectColors(histogram, maxColors);
+    }
+
+    /**
+     * Calculates the largest palette radius which can be filled with the given number of colors.
+     *
+     * @param colorCount Number of colors
+     * @return Palette radius
+     */
+    public static int getRadius(final int colorCount) {
+        int radius = 0;
+        while (HexGrid.getSwatchCount(radius + 1) <= colorCount) {
+            radius++;
+        }
+        return radius;
+    }
+
+    /**
+     * Lays dominant colors out as a hexagonal palette: the most dominant color is the center,
+     * the following ones fill the rings outwards. Within a ring the colors are ordered by hue
+     * along the angle, like in the default palette. Colors beyond the largest full palette are dropped.
+     *
+     * @param colors Colors ordered by dominance (at least one)
+     * @return Palette generator of radius {@link #getRadius(int)}
+     */
+    public static FixedPaletteGenerator createPalette(final int[] colors) {
+        if (colors.length == 0) {
+            throw new IllegalArgumentException("No colors.");
+        }
+        final int radius = getRadius(colors.length);
+        final int count = HexGrid.getSwatchCount(radius);
+        final float[] keys = new float[count];
+
+        // cells ordered by ring, then by angle (the same angle to hue mapping as HsvPaletteGenerator)
+        final int[] cells = new int[count];
+        for (int index = 0; index < count; index++) {
+            final int q = HexGrid.getSwatchQ(radius, index);
+            final int r = HexGrid.getSwatchR(radius, index);
+            final int ring = Math.max(Math.abs(q), Math.max(Math.abs(r), Math.abs(q + r)));
+            // the angle of pi is hue 360, i.e. hue 0 => it starts the ring
+            final double angle = Math.atan2(2 * r, 2 * q + r);
+            cells[index] = index;
+            keys[index] = ring * 8.0f + (float) (angle < Math.PI ? angle + Math.PI : 0.0);
+        }
+        sortByKeys(cells, keys, count);
+
+        // the same ring structure for the colors, ordered by hue within a ring
+        final int[] ordered = new int[count];
+        for (int i = 0; i < count; i++) {
+            // the smallest palette which contains the color
+            final int inner = getRadius(i);
+            final int ring = HexGrid.getSwatchCount(inner) > i ? inner : inner + 1;
+            ordered[i] = colors[i];
+            keys[i] = ring * 360.0f + ColorMath.hue(colors[i]);
+        }
+        sortByKeys(ordered, keys, count);
+
+        final int[] swatchColors = new int[count];
+        for (int i = 0; i < count; i++) {
+            swatchColors[cells[i]] = ordered[i];
+        }
+        return new FixedPaletteGenerator(radius, swatchColors);
+    }
+
+    /**
+     * Sorts values by their keys (insertion sort, palettes have only a few hundred swatches).
+     */
+    private static void sortByKeys(final int[] values, final float[] keys, final int count) {
+        for (int i = 1; i < count; i++) {
+            final int value = values[i];
+            final float key = keys[i];
+            int j = i - 1;
+            while (j >= 0 && keys[j] > key) {
+                values[j + 1] = values[j];
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            values[j + 1] = value;
+            keys[j + 1] = key;
+        }
+    }
+
+    /**
+     * Takes the most frequent bins which are distinct enough.
+     *
+     * @param histogram Histogram (count and channel sums per bin)
+     * @param maxColors Maximal number of colors
+     * @return Colors ordered by dominance
+     */
+    private static int[] selectColors(final int[] histogram, final int maxColors) {
+        // non-empty bins ordered by count (count in the high bits, bin in the low bits)
+        final long[] order = new long[BINS];
+        int binCount = 0;
+        for (int bin = 0; bin < BINS; bin++) {
+            final int count = histogram[bin * BIN_INTS];
+            if (count > 0) {
+                order[binCount++] = ((long) count << 32) | bin;
+            }
+        }
+        Arrays.sort(order, 0, binCount);
+
+        final int[] binColors = new int[binCount];
+        final float[] lab = new float[binCount * 3];
+        for (int i = 0; i < binCount; i++) {
+            // most frequent first
+            final int bin = (int) order[binCount - 1 - i];
+            final int base = bin * BIN_INTS;
+            final int count = histogram[base];
+            binColors[i] = 0xFF000000
+                    | ((histogram[base + 1] + count / 2) / count) << 16
+                    | ((histogram[base + 2] + count / 2) / count) << 8
+                    | ((histogram[base + 3] + count / 2) / count);
+            Oklab.fromColor(binColors[i], lab, i * 3);
+        }
+
+        final int limit = Math.min(maxColors, binCount);
+        final int[] selected = new int[limit];
+        final boolean[] taken = new boolean[binCount];
+        int selectedCount = 0;
+        float distance = MIN_DISTANCE;
+        for (int round = 0; round <= DISTANCE_ROUNDS && selectedCount < limit; round++) {
+            // the last round takes the remaining bins without a distance limit
+            final float minDistance2 = round == DISTANCE_ROUNDS ? 0.0f : distance * distance;
+            for (int i = 0; i < binCount && selectedCount < limit; i++) {
+                if (!taken[i] && isDistinct(lab, i, selected, selectedCount, minDistance2)) {
+                    taken[i] = true;
+                    selected[selectedCount++] = i;
+                }
+            }
+            distance *= 0.5f;
+        }
+        // selection order is the dominance order within a round, restore the overall one
+        Arrays.sort(selected, 0, selectedCount);
+        final int[] colors = new int[selectedCount];
+        for (int i = 0; i < selectedCount; i++) {
+            colors[i] = binColors[selected[i]];
+        }
+        return colors;
+    }
+
+    /**
+     * Checks whether a color is far enough from all selected colors.
+     *
+     * @param lab           OKLab components of all candidates
+     * @param candidate     Candidate index
+     * @param selected      Selected candidate indices
+     * @param selectedCount Number of selected candidates
+     * @param minDistance2  Squared minimal distance
+     * @return True if the candidate is distinct
+     */
+    private static boolean isDistinct(final float[] lab, final int candidate, final int[] selected, final int selectedCount,
+                                      final float minDistance2) {
+        if (minDistance2 <= 0.0f) {
+            return true;
+        }
+        final float l = lab[candidate * 3];
+        final float a = lab[candidate * 3 + 1];
+        final float b = lab[candidate * 3 + 2];
+        for (int i = 0; i < selectedCount; i++) {
+            final int other = selected[i] * 3;
+            final float dl = lab[other] - l;
+            final float da = lab[other + 1] - a;
+            final float db = lab[other + 2] - b;
+            if (dl * dl + da * da + db * db < minDistance2) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Grid of sampled pixels.
+     */
+    private static final class Sampler {
+
+        private final int[] mPixels;
+        private final int mOffset;
+        private final int mStride;
+        private final int mStep;
+        private final int mColumns;
+        private final int mRows;
+
+        Sampler(final int[] pixels, final int offset, final int stride, final int width, final int height) {
+            if (width <= 0 || height <= 0 || stride < width || offset < 0
+                    || offset + (long) (height - 1) * stride + width > pixels.length) {
+                throw new IllegalArgumentException("Invalid image " + width + "x" + height + " (stride " + stride + ").");
+            }
+            mPixels = pixels;
+            mOffset = offset;
+            mStride = stride;
+            mStep = getSampleStep(width, height);
+            mColumns = (width + mStep - 1) / mStep;
+            mRows = (height + mStep - 1) / mStep;
+        }
+
+        /**
+         * Counts the samples of a range of sample rows.
+         *
+         * @param histogram Output histogram
+         * @param rowFrom   First sample row
+         * @param rowTo     End of the row range (exclusive)
+         */
+        void count(final int[] histogram, final int rowFrom, final int rowTo) {
+            final int[] pixels = mPixels;
+            final int columns = mColumns;
+            final int step = mStep;
+            for (int row = rowFrom; row < rowTo; row++) {
+                int index = mOffset + row * step * mStride;
+                for (int column = 0; column < columns; column++, index += step) {
+                    final int color = pixels[index];
+                    if ((color >>> 24) < MIN_ALPHA) {
+                        continue;
+                    }
+                    final int red = (color >> 16) & 0xFF;
+                    final int green = (color >> 8) & 0xFF;
+                    final int blue = color & 0xFF;
+                    final int base = (((red >> 4) << 8) | ((green >> 4) << 4) | (blue >> 4)) * BIN_INTS;
+                    histogram[base]++;
+                    histogram[base + 1] += red;
+                    histogram[base + 2] += green;
+                    histogram[base + 3] += blue;
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts a tile of sample rows, larger tiles are split in halves and their histograms summed.
+     */
+    private static final class TileTask extends RecursiveTask<int[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Sampler mSampler;
+        private final int mRowFrom;
+        private final int mRowTo;
+        private final int mTileRows;
+
+        TileTask(final Sampler sampler, final int rowFrom, final int rowTo, final int tileRows) {
+            mSampler = sampler;
+            mRowFrom = rowFrom;
+            mRowTo = rowTo;
+            mTileRows = tileRows;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (mRowTo - mRowFrom <= mTileRows) {
+                final int[] histogram = new int[BINS * BIN_INTS];
+                mSampler.count(histogram, mRowFrom, mRowTo);
+                return histogram;
+            }
+            final int middle = (mRowFrom + mRowTo) >>> 1;
+            final TileTask bottom = new TileTask(mSampler, middle, mRowTo, mTileRows);
+            bottom.fork();
+            final int[] histogram = new TileTask(mSampler, mRowFrom, middle, mTileRows).compute();
+            final int[] other = bottom.join();
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += other[i];
+            }
+            return histogram;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+/**
+ * Open addressing hash map with primitive int keys and non-negative int values (no boxing).
+ * Used to look up swatch indices by their packed ARGB color.
+ */
+public final class IntIntMap {
+
+    // Golden ratio multiplier for hashing.
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+    private final int[] mKeys;
+    // Values + 1 (0 marks an empty slot)
+    private final int[] mValues;
+    private final int mMask;
+    private int mSize;
+
+    /**
+     * Constructor.
+     *
+     * @param expectedSize Expected number of entries (the map does not grow beyond twice of it)
+     */
+    public IntIntMap(final int expectedSize) {
+        int capacity = 4;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        mKeys = new int[capacity];
+        mValues = new int[capacity];
+        mMask = capacity - 1;
+    }
+
+    /**
+     * Inserts an entry if the key is not present yet (the first value wins).
+     *
+     * @param key   Key
+     * @param value Value (non-negative)
+     * @return True if the entry was inserted
+     */
+    public boolean putIfAbsent(final int key, final int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative: " + value);
+        }
+        int slot = slot(key);
+        while (mValues[slot] != 0) {
+            if (mKeys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mMask;
+        }
+        if (mSize >= mMask) {
+            throw new IllegalStateException("The map is full.");
+        }
+        mKeys[slot] = key;
+        mValues[slot] = value + 1;
+        mSize++;
+        return true;
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @param key Key
+     * @return Value or -1 (not found)
+     */
+    public int get(final int key) {
+        int slot = slot(key);
+        while (mValues[slot] != 0) {
+            if (mKeys[slot] == key) {
+                return mValues[slot] - 1;
+            }
+            slot = (slot + 1) & mMask;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return Size
+     */
+    public int size() {
+        return mSize;
+    }
+
+    private int slot(final int key) {
+        final int hash = key * HASH_MULTIPLIER;
+        return (hash ^ (hash >>> 16)) & mMask;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+/**
+ * Conversion between sRGB colors and the OKLab perceptual color space
+ * (Euclidean distances approximate perceived color differences).
+ * The sRGB transfer function is evaluated through precomputed tables in both directions.
+ */
+public final class Oklab {
+
+    // Resolution of the linear => sRGB table.
+    private static final int ENCODE_STEPS = 4096;
+
+    // sRGB component (0 .. 255) => linear component (0 .. 1)
+    private static final float[] LINEAR = new float[256];
+    // Linear component (0 .. 1 in ENCODE_STEPS steps) => sRGB component (0 .. 255)
+    private static final byte[] ENCODE = new byte[ENCODE_STEPS + 1];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            final double c = i / 255.0;
+            LINEAR[i] = (float) (c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4));
+        }
+        for (int i = 0; i <= ENCODE_STEPS; i++) {
+            final double c = (double) i / ENCODE_STEPS;
+            final double encoded = c <= 0.0031308 ? c * 12.92 : 1.055 * Math.pow(c, 1.0 / 2.4) - 0.055;
+            ENCODE[i] = (byte) Math.round(encoded * 255.0);
+        }
+    }
+
+    private Oklab() {
+    }
+
+    /**
+     * Converts a color to OKLab.
+     *
+     * @param color  ARGB color (alpha is ignored)
+     * @param out    Output array (L, a, b)
+     * @param offset Offset in the output array
+     */
+    public static void fromColor(final int color, final float[] out, final int offset) {
+        final float r = LINEAR[(color >> 16) & 0xFF];
+        final float g = LINEAR[(color >> 8) & 0xFF];
+        final float b = LINEAR[color & 0xFF];
+
+        final float l = (float) Math.cbrt(0.4122214708f * r + 0.5363325363f * g + 0.0514459929f * b);
+        final float m = (float) Math.cbrt(0.2119034982f * r + 0.6806995451f * g + 0.1073969566f * b);
+        final float s = (float) Math.cbrt(0.0883024619f * r + 0.2817188376f * g + 0.6299787005f * b);
+
+        out[offset] = 0.2104542553f * l + 0.7936177850f * m - 0.0040720468f * s;
+        out[offset + 1] = 1.9779984951f * l - 2.4285922050f * m + 0.4505937099f * s;
+        out[offset + 2] = 0.0259040371f * l + 0.7827717662f * m - 0.8086757660f * s;
+    }
+
+    /**
+     * Converts OKLab coordinates to linear sRGB.
+     *
+     * @param lightness L coordinate
+     * @param a         a coordinate
+     * @param b         b coordinate
+     * @param out       Output array (linear R, G, B; out of gamut values are not clamped)
+     * @param offset    Offset in the output array
+     */
+    public static void toLinear(final float lightness, final float a, final float b, final float[] out, final int offset) {
+        final float l = lightness + 0.3963377774f * a + 0.2158037573f * b;
+        final float m = lightness - 0.1055613458f * a - 0.0638541728f * b;
+        final float s = lightness - 0.0894841775f * a - 1.2914855480f * b;
+        final float l3 = l * l * l;
+        final float m3 = m * m * m;
+        final float s3 = s * s * s;
+
+        out[offset] = 4.0767416621f * l3 - 3.3077115913f * m3 + 0.2309699292f * s3;
+        out[offset + 1] = -1.2684380046f * l3 + 2.6097574011f * m3 - 0.3413193965f * s3;
+        out[offset + 2] = -0.0041960863f * l3 - 0.7034186147f * m3 + 1.7076147010f * s3;
+    }
+
+    /**
+     * Converts OKLab coordinates to an opaque color (out of gamut components are clamped).
+     *
+     * @param lightness L coordinate
+     * @param a         a coordinate
+     * @param b         b coordinate
+     * @return ARGB color
+     */
+    public static int toColor(final float lightness, final float a, final float b) {
+        final float l = lightness + 0.3963377774f * a + 0.2158037573f * b;
+        final float m = lightness - 0.1055613458f * a - 0.0638541728f * b;
+        final float s = lightness - 0.0894841775f * a - 1.2914855480f * b;
+        final float l3 = l * l * l;
+        final float m3 = m * m * m;
+        final float s3 = s * s * s;
+
+        return 0xFF000000
+                | encode(4.0767416621f * l3 - 3.3077115913f * m3 + 0.2309699292f * s3) << 16
+                | encode(-1.2684380046f * l3 + 2.6097574011f * m3 - 0.3413193965f * s3) << 8
+                | encode(-0.0041960863f * l3 - 0.7034186147f * m3 + 1.7076147010f * s3);
+    }
+
+    /**
+     * Encodes a linear component to sRGB.
+     *
+     * @param linear Linear component (clamped to 0 .. 1)
+     * @return sRGB component (0 .. 255)
+     */
+    public static int encode(final float linear) {
+        if (!(linear > 0.0f)) {
+            return 0;
+        }
+        if (linear >= 1.0f) {
+            return 255;
+        }
+        return ENCODE[(int) (linear * ENCODE_STEPS + 0.5f)] & 0xFF;
+    }
+}
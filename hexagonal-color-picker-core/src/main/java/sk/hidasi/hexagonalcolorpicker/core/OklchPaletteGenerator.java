@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+/**
+ * Perceptual palette in the OKLCH color space: hue from the angle, chroma from the distance to the center.
+ * Lightness changes only with the distance, so all swatches of a ring appear equally bright
+ * (unlike the HSV palette, where e.g. yellow is much brighter than blue).
+ * <p>
+ * Chroma is relative to the largest chroma which is still inside of the sRGB gamut for the given hue
+ * and lightness. The gamut limits are precomputed once into a hue x lightness table, the sRGB
+ * transfer function is table based too (see {@link Oklab}), so generating a palette costs only a few
+ * multiplications per swatch.
+ */
+public final class OklchPaletteGenerator implements PaletteGenerator {
+
+    /**
+     * Shared instance with the default lightness (white center, medium light edge).
+     */
+    public static final OklchPaletteGenerator INSTANCE = new OklchPaletteGenerator(1.0f, 0.7f);
+
+    // Lightness of the palette center
+    private final float mCenterLightness;
+    // Lightness of the palette edge
+    private final float mEdgeLightness;
+
+    /**
+     * Constructor (cached palettes are shared per generator instance, so reuse the instance).
+     *
+     * @param centerLightness OKLab lightness of the center swatch (0 .. 1)
+     * @param edgeLightness   OKLab lightness of the outer ring (0 .. 1)
+     */
+    public OklchPaletteGenerator(final float centerLightness, final float edgeLightness) {
+        if (!(centerLightness >= 0.0f && centerLightness <= 1.0f && edgeLightness >= 0.0f && edgeLightness <= 1.0f)) {
+            throw new IllegalArgumentException("Lightness must be from 0 to 1.");
+        }
+        mCenterLightness = centerLightness;
+        mEdgeLightness = edgeLightness;
+    }
+
+    @Override
+    public int calculateColor(final int radius, final int x, final int y) {
+        final float length = (float) Math.sqrt(x * x + y * y);
+        if (radius == 0 || length == 0.0f) {
+            return Oklab.toColor(mCenterLightness, 0.0f, 0.0f);
+        }
+        final float distance = Math.min(length / (radius * 2), 1.0f);
+        final float lightness = mCenterLightness + (mEdgeLightness - mCenterLightness) * distance;
+        // unit hue vector directly from the layout coordinates (screen y points down)
+        final float cos = x / length;
+        final float sin = -y / length;
+        final float hue = (float) (Math.atan2(sin, cos) / (2.0 * Math.PI));
+        final float chroma = distance * GamutTable.maxChroma(hue < 0.0f ? hue + 1.0f : hue, lightness);
+        return Oklab.toColor(lightness, chroma * cos, chroma * sin);
+    }
+
+    /**
+     * Largest in-gamut chroma per hue and lightness (built on first use).
+     */
+    private static final class GamutTable {
+
+        private static final int HUE_STEPS = 128;
+        private static final int LIGHTNESS_STEPS = 16;
+        private static final int BISECTION_STEPS = 16;
+        // Chroma of all sRGB colors is below this
+        private static final float CHROMA_LIMIT = 0.4f;
+
+        // [hue * (LIGHTNESS_STEPS + 1) + lightness]
+        private static final float[] MAX_CHROMA = new float[(HUE_STEPS + 1) * (LIGHTNESS_STEPS + 1)];
+
+        static {
+            final float[] rgb = new float[3];
+            for (int h = 0; h <= HUE_STEPS; h++) {
+                final double angle = 2.0 * Math.PI * h / HUE_STEPS;
+                final float cos = (float) Math.cos(angle);
+                final float sin = (float) Math.sin(angle);
+                for (int l = 0; l <= LIGHTNESS_STEPS; l++) {
+                    final float lightness = (float) l / LIGHTNESS_STEPS;
+                    float low = 0.0f;
+                    float high = CHROMA_LIMIT;
+                    for (int i = 0; i < BISECTION_STEPS; i++) {
+                        final float chroma = 0.5f * (low + high);
+                        Oklab.toLinear(lightness, chroma * cos, chroma * sin, rgb, 0);
+                        if (inGamut(rgb)) {
+                            low = chroma;
+                        } else {
+                            high = chroma;
+                        }
+                    }
+                    MAX_CHROMA[h * (LIGHTNESS_STEPS + 1) + l] = low;
+                }
+            }
+        }
+
+        private static boolean inGamut(final float[] rgb) {
+            final float epsilon = 1.0e-4f;
+            return rgb[0] >= -epsilon && rgb[0] <= 1.0f + epsilon
+                    && rgb[1] >= -epsilon && rgb[1] <= 1.0f + epsilon
+                    && rgb[2] >= -epsilon && rgb[2] <= 1.0f + epsilon;
+        }
+
+        /**
+         * Gets the largest in-gamut chroma (the smallest one of the surrounding table cells, so it stays in gamut).
+         *
+         * @param hue       Hue (0 .. 1)
+         * @param lightness Lightness (0 .. 1)
+         * @return Chroma
+         */
+        static float maxChroma(final float hue, final float lightness) {
+            final float hueIndex = hue * HUE_STEPS;
+            final float lightnessIndex = Math.max(0.0f, Math.min(lightness, 1.0f)) * LIGHTNESS_STEPS;
+            final int h = Math.min((int) hueIndex, HUE_STEPS - 1);
+            final int l = Math.min((int) lightnessIndex, LIGHTNESS_STEPS - 1);
+            final int row = LIGHTNESS_STEPS + 1;
+            return Math.min(
+                    Math.min(MAX_CHROMA[h * row + l], MAX_CHROMA[h * row + l + 1]),
+                    Math.min(MAX_CHROMA[(h + 1) * row + l], MAX_CHROMA[(h + 1) * row + l + 1]));
+        }
+    }
+}
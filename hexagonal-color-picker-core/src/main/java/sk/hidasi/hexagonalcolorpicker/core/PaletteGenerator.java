@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+/**
+ * Generates the color of a swatch from its position in the hexagonal palette.
+ * Implementations must be stateless (thread safe), generated palettes are cached per generator instance
+ * and palette radius, so the same instance should be reused.
+ */
+public interface PaletteGenerator {
+
+    /**
+     * Calculates the color of a color swatch according to its layout coordinates (see {@link HexGrid}).
+     *
+     * @param radius Palette radius
+     * @param x      X coordinate (doubled column)
+     * @param y      Y coordinate (doubled row)
+     * @return Color of the swatch
+     */
+    int calculateColor(final int radius, final int x, final int y);
+}
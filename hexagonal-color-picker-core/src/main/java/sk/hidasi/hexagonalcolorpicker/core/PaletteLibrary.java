@@ -0,0 +1,382 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Library of named colors in a compact binary file (written by {@link PaletteLibraryWriter}).
+ * <p>
+ * The file is memory mapped and read in place. Opening it reads only the header, so large libraries
+ * open in constant time, and the data is paged in by the OS as lookups touch it. All reads are
+ * absolute, so a library can be shared by threads.
+ * <p>
+ * File layout (big endian):
+ * <pre>
+ * header         int magic ("HXPL"), version, color count (n), name count (m),
+ *                offsets of the following sections (colors, name ids, prefix index,
+ *                name offsets, grid, name data)
+ * colors         int[n]     ARGB colors in palette order (swatch order, see {@link HexGrid})
+ * name ids       int[n]     interned name of every color
+ * prefix index   int[n]     color indices ordered by name
+ * name offsets   int[m + 1] start of every name in the name data
+ * grid           nearest color grid of {@link ColorIndex}: float min L, a, b, cell size,
+ *                int size L, a, b, int[cells + 1] cell starts, int[] cell items, float[3 n] OKLab
+ * name data      UTF-8 names ordered by their ASCII case folded bytes
+ * </pre>
+ */
+public final class PaletteLibrary {
+
+    // "HXPL"
+    public static final int MAGIC = 0x4858504C;
+    public static final int VERSION = 1;
+    // Header ints: magic, version, 2 counts, 6 section offsets
+    static final int HEADER_SIZE = 10 * 4;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final ByteBuffer mBuffer;
+    private final int mCount;
+    private final int mNameCount;
+    private final int mColorsOffset;
+    private final int mNameIdsOffset;
+    private final int mPrefixOffset;
+    private final int mNameOffsetsOffset;
+    private final int mNameDataOffset;
+    // Nearest color grid
+    private final BufferGrid mGrid;
+
+    /**
+     * Reads the header (use {@link #open(File)} or {@link #wrap(ByteBuffer)}).
+     *
+     * @param buffer Library data
+     * @throws IOException if the data is not a palette library
+     */
+    private PaletteLibrary(final ByteBuffer buffer) throws IOException {
+        mBuffer = buffer;
+        final int limit = buffer.limit();
+        if (limit < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a palette library.");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported palette library version: " + buffer.getInt(4));
+        }
+        mCount = buffer.getInt(8);
+        mNameCount = buffer.getInt(12);
+        mColorsOffset = buffer.getInt(16);
+        mNameIdsOffset = buffer.getInt(20);
+        mPrefixOffset = buffer.getInt(24);
+        mNameOffsetsOffset = buffer.getInt(28);
+        final int gridOffset = buffer.getInt(32);
+        mNameDataOffset = buffer.getInt(36);
+        if (mCount < 0 || mNameCount < 0
+                || !fits(mColorsOffset, mCount * 4L, limit) || !fits(mNameIdsOffset, mCount * 4L, limit)
+                || !fits(mPrefixOffset, mCount * 4L, limit) || !fits(mNameOffsetsOffset, (mNameCount + 1) * 4L, limit)
+                || !fits(gridOffset, 28, limit) || !fits(mNameDataOffset, 0, limit)) {
+            throw new IOException("Corrupted palette library header.");
+        }
+
+        final int sizeL = buffer.getInt(gridOffset + 16);
+        final int sizeA = buffer.getInt(gridOffset + 20);
+        final int sizeB = buffer.getInt(gridOffset + 24);
+        final int cellStartOffset = gridOffset + 28;
+        final long cells = (long) sizeL * sizeA * sizeB;
+        if (sizeL <= 0 || sizeA <= 0 || sizeB <= 0 || !fits(cellStartOffset, (cells + 1) * 4, limit)) {
+            throw new IOException("Corrupted palette library grid.");
+        }
+        final int cellItemsOffset = (int) (cellStartOffset + (cells + 1) * 4);
+        final int itemCount = buffer.getInt((int) (cellStartOffset + cells * 4));
+        final int labOffset = cellItemsOffset + itemCount * 4;
+        if (itemCount < 0 || itemCount > mCount || !fits(labOffset, mCount * 12L, limit)) {
+            throw new IOException("Corrupted palette library grid.");
+        }
+        mGrid = new BufferGrid(buffer, buffer.getFloat(gridOffset), buffer.getFloat(gridOffset + 4),
+                buffer.getFloat(gridOffset + 8), buffer.getFloat(gridOffset + 12), sizeL, sizeA, sizeB,
+                cellStartOffset, cellItemsOffset, labOffset);
+    }
+
+    private static boolean fits(final int offset, final long length, final int limit) {
+        return offset >= 0 && offset + length <= limit;
+    }
+
+    /**
+     * Opens a library file (the file is mapped, not read).
+     *
+     * @param file Library file
+     * @return Palette library
+     * @throws IOException if the file cannot be mapped or it is not a palette library
+     */
+    public static PaletteLibrary open(final File file) throws IOException {
+        final RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = input.getChannel();
+            // the mapping stays valid after the channel is closed
+            return open(channel, 0, channel.size());
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Opens a library stored in a part of a file (e.g. an uncompressed Android asset).
+     *
+     * @param channel File channel
+     * @param offset  Start of the library in the file
+     * @param length  Length of the library
+     * @return Palette library
+     * @throws IOException if the file cannot be mapped or it is not a palette library
+     */
+    public static PaletteLibrary open(final FileChannel channel, final long offset, final long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Palette library is too large: " + length);
+        }
+        return new PaletteLibrary(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+    }
+
+    /**
+     * Reads a library from a buffer (in place, starting at index 0).
+     *
+     * @param buffer Library data
+     * @return Palette library
+     * @throws IOException if the data is not a palette library
+     */
+    public static PaletteLibrary wrap(final ByteBuffer buffer) throws IOException {
+        return new PaletteLibrary(buffer.slice());
+    }
+
+    /**
+     * Gets the number of colors.
+     *
+     * @return Color count
+     */
+    public int size() {
+        return mCount;
+    }
+
+    /**
+     * Gets a color.
+     *
+     * @param index Color index
+     * @return ARGB color
+     */
+    public int getColor(final int index) {
+        checkIndex(index);
+        return mBuffer.getInt(mColorsOffset + index * 4);
+    }
+
+    /**
+     * Gets the name of a color (decoded on every call).
+     *
+     * @param index Color index
+     * @return Name
+     */
+    public String getName(final int index) {
+        checkIndex(index);
+        final int nameId = mBuffer.getInt(mNameIdsOffset + index * 4);
+        final int start = getNameStart(nameId);
+        final byte[] bytes = new byte[getNameStart(nameId + 1) - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = mBuffer.get(start + i);
+        }
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Finds the colors whose name starts with the given prefix (ASCII letters are case insensitive).
+     * The prefix index is binary searched twice, so the cost does not depend on the library size.
+     *
+     * @param prefix Name prefix
+     * @param out    Output color indices ordered by name (the matches which fit)
+     * @return Total number of matches (may be larger than out.length)
+     */
+    public int findByPrefix(final String prefix, final int[] out) {
+        final byte[] key = prefix.getBytes(UTF_8);
+        for (int i = 0; i < key.length; i++) {
+            key[i] = fold(key[i]);
+        }
+        // names are sorted, so the names with the prefix form the range [firstName, endName)
+        final int firstName = findName(key, false);
+        final int endName = findName(key, true);
+        final int first = findPrefixEntry(firstName);
+        final int end = findPrefixEntry(endName);
+        final int copied = Math.min(end - first, out.length);
+        for (int i = 0; i < copied; i++) {
+            out[i] = mBuffer.getInt(mPrefixOffset + (first + i) * 4);
+        }
+        return end - first;
+    }
+
+    /**
+     * Finds the perceptually nearest color (OKLab distance, the same grid search as {@link ColorIndex}).
+     *
+     * @param color Color (alpha is ignored)
+     * @return Color index or -1 (no colors)
+     */
+    public int findNearest(final int color) {
+        return mGrid.findNearest(color);
+    }
+
+    /**
+     * Creates a palette of all colors in the library order. The last ring is padded with
+     * empty (transparent) swatches, which are not shown by the picker.
+     *
+     * @return Palette generator, its radius is the radius of the palette
+     */
+    public FixedPaletteGenerator createPalette() {
+        final int[] colors = new int[HexGrid.getSwatchCount(HexGrid.getRadiusFor(mCount))];
+        for (int i = 0; i < mCount; i++) {
+            colors[i] = mBuffer.getInt(mColorsOffset + i * 4);
+        }
+        return new FixedPaletteGenerator(HexGrid.getRadiusFor(mCount), colors);
+    }
+
+    /**
+     * Creates a palette of selected colors (e.g. the result of {@link #findByPrefix}),
+     * padded with empty swatches like {@link #createPalette()}.
+     *
+     * @param indices Color indices
+     * @param count   Number of colors
+     * @return Palette generator, its radius is the radius of the palette
+     */
+    public FixedPaletteGenerator createPalette(final int[] indices, final int count) {
+        final int radius = HexGrid.getRadiusFor(count);
+        final int[] colors = new int[HexGrid.getSwatchCount(radius)];
+        for (int i = 0; i < count; i++) {
+            colors[i] = getColor(indices[i]);
+        }
+        return new FixedPaletteGenerator(radius, colors);
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= mCount) {
+            throw new IndexOutOfBoundsException("Color index " + index + " / " + mCount);
+        }
+    }
+
+    private int getNameStart(final int nameId) {
+        return mNameDataOffset + mBuffer.getInt(mNameOffsetsOffset + nameId * 4);
+    }
+
+    /**
+     * Binary search for the first name which is not before the key.
+     *
+     * @param key   Case folded prefix
+     * @param after True to skip also the names starting with the key
+     * @return Name id (mNameCount if there is none)
+     */
+    private int findName(final byte[] key, final boolean after) {
+        int low = 0;
+        int high = mNameCount;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            final int compare = comparePrefix(mid, key);
+            if (compare < 0 || (after && compare == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compares the beginning of a name with a key (case folded).
+     *
+     * @return Negative, zero (the name starts with the key) or positive
+     */
+    private int comparePrefix(final int nameId, final byte[] key) {
+        final int start = getNameStart(nameId);
+        final int length = getNameStart(nameId + 1) - start;
+        final int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            final int difference = (fold(mBuffer.get(start + i)) & 0xFF) - (key[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length < key.length ? -1 : 0;
+    }
+
+    /**
+     * Binary search for the first prefix index entry with at least the given name id.
+     */
+    private int findPrefixEntry(final int nameId) {
+        int low = 0;
+        int high = mCount;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            final int color = mBuffer.getInt(mPrefixOffset + mid * 4);
+            if (mBuffer.getInt(mNameIdsOffset + color * 4) < nameId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * ASCII case folding of a UTF-8 byte (other bytes are kept).
+     *
+     * @param b Byte
+     * @return Folded byte
+     */
+    static byte fold(final byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    /**
+     * Grid with the cell contents read in place from the library data.
+     */
+    private static final class BufferGrid extends ColorGrid {
+
+        private final ByteBuffer mBuffer;
+        private final int mCellStartOffset;
+        private final int mCellItemsOffset;
+        private final int mLabOffset;
+
+        BufferGrid(final ByteBuffer buffer, final float minL, final float minA, final float minB, final float cellSize,
+                   final int sizeL, final int sizeA, final int sizeB,
+                   final int cellStartOffset, final int cellItemsOffset, final int labOffset) {
+            super(minL, minA, minB, cellSize, sizeL, sizeA, sizeB);
+            mBuffer = buffer;
+            mCellStartOffset = cellStartOffset;
+            mCellItemsOffset = cellItemsOffset;
+            mLabOffset = labOffset;
+        }
+
+        @Override
+        int getCellStart(final int cell) {
+            return mBuffer.getInt(mCellStartOffset + cell * 4);
+        }
+
+        @Override
+        int getCellItem(final int position) {
+            return mBuffer.getInt(mCellItemsOffset + position * 4);
+        }
+
+        @Override
+        float getLab(final int index, final int component) {
+            return mBuffer.getFloat(mLabOffset + index * 12 + component * 4);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a palette library file (see {@link PaletteLibrary} for the format).
+ * Colors keep the order in which they are added, equal names are stored once.
+ */
+public final class PaletteLibraryWriter {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // Colors and their name ids (in the order of addition)
+    private int[] mColors = new int[64];
+    private int[] mNameIds = new int[64];
+    private int mCount;
+    // Interned names
+    private final Map<String, Integer> mNameIndex = new HashMap<String, Integer>();
+    private final List<byte[]> mNames = new ArrayList<byte[]>();
+
+    /**
+     * Adds a named color.
+     *
+     * @param color ARGB color
+     * @param name  Name
+     * @return This writer
+     */
+    public PaletteLibraryWriter add(final int color, final String name) {
+        Integer nameId = mNameIndex.get(name);
+        if (nameId == null) {
+            nameId = mNames.size();
+            mNameIndex.put(name, nameId);
+            mNames.add(name.getBytes(UTF_8));
+        }
+        if (mCount == mColors.length) {
+            mColors = Arrays.copyOf(mColors, mCount * 2);
+            mNameIds = Arrays.copyOf(mNameIds, mCount * 2);
+        }
+        mColors[mCount] = color;
+        mNameIds[mCount] = nameId;
+        mCount++;
+        return this;
+    }
+
+    /**
+     * Gets the number of added colors.
+     *
+     * @return Color count
+     */
+    public int size() {
+        return mCount;
+    }
+
+    /**
+     * Writes the library to a file.
+     *
+     * @param file Output file
+     * @throws IOException if writing fails
+     */
+    public void write(final File file) throws IOException {
+        final OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            write(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Writes the library to a stream (the stream is not closed).
+     *
+     * @param stream Output stream
+     * @throws IOException if writing fails
+     */
+    public void write(final OutputStream stream) throws IOException {
+        final int count = mCount;
+        final int nameCount = mNames.size();
+
+        // names sorted by their case folded bytes (the prefix search order)
+        final Integer[] order = new Integer[nameCount];
+        for (int i = 0; i < nameCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer first, Integer second) {
+                return compareNames(mNames.get(first), mNames.get(second));
+            }
+        });
+        final int[] sortedId = new int[nameCount];
+        final int[] nameOffsets = new int[nameCount + 1];
+        for (int i = 0; i < nameCount; i++) {
+            sortedId[order[i]] = i;
+            nameOffsets[i + 1] = nameOffsets[i] + mNames.get(order[i]).length;
+        }
+
+        // color indices ordered by name (counting sort, stable => library order within a name)
+        final int[] nameStart = new int[nameCount + 1];
+        for (int i = 0; i < count; i++) {
+            nameStart[sortedId[mNameIds[i]] + 1]++;
+        }
+        for (int i = 1; i <= nameCount; i++) {
+            nameStart[i] += nameStart[i - 1];
+        }
+        final int[] prefixIndex = new int[count];
+        for (int i = 0; i < count; i++) {
+            prefixIndex[nameStart[sortedId[mNameIds[i]]]++] = i;
+        }
+
+        final ByteArrayOutputStream grid = new ByteArrayOutputStream();
+        new ColorIndex(mColors, count).writeGrid(new DataOutputStream(grid));
+
+        final int colorsOffset = PaletteLibrary.HEADER_SIZE;
+        final int nameIdsOffset = colorsOffset + count * 4;
+        final int prefixOffset = nameIdsOffset + count * 4;
+        final int nameOffsetsOffset = prefixOffset + count * 4;
+        final int gridOffset = nameOffsetsOffset + (nameCount + 1) * 4;
+        final int nameDataOffset = gridOffset + grid.size();
+
+        final DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(PaletteLibrary.MAGIC);
+        out.writeInt(PaletteLibrary.VERSION);
+        out.writeInt(count);
+        out.writeInt(nameCount);
+        out.writeInt(colorsOffset);
+        out.writeInt(nameIdsOffset);
+        out.writeInt(prefixOffset);
+        out.writeInt(nameOffsetsOffset);
+        out.writeInt(gridOffset);
+        out.writeInt(nameDataOffset);
+        for (int i = 0; i < count; i++) {
+            out.writeInt(mColors[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeInt(sortedId[mNameIds[i]]);
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeInt(prefixIndex[i]);
+        }
+        for (int i = 0; i <= nameCount; i++) {
+            out.writeInt(nameOffsets[i]);
+        }
+        grid.writeTo(out);
+        for (int i = 0; i < nameCount; i++) {
+            out.write(mNames.get(order[i]));
+        }
+        out.flush();
+    }
+
+    /**
+     * Compares names by their case folded bytes (unsigned), then by the original bytes.
+     */
+    private static int compareNames(final byte[] first, final byte[] second) {
+        final int common = Math.min(first.length, second.length);
+        for (int i = 0; i < common; i++) {
+            final int difference = (PaletteLibrary.fold(first[i]) & 0xFF) - (PaletteLibrary.fold(second[i]) & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        if (first.length != second.length) {
+            return first.length - second.length;
+        }
+        for (int i = 0; i < common; i++) {
+            final int difference = (first[i] & 0xFF) - (second[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The HSV conversions are bit-identical to the framework ones (Skia SkHSVToColor / SkRGBToHSV).
+ */
+public class ColorMathTest {
+
+    /**
+     * Outputs of SkHSVToColor (hue, saturation, value => color), including out of range components.
+     */
+    private static final Object[][] HSV_TO_COLOR = {
+            {0.0f, 1.0f, 1.0f, 0xFFFF0000},
+            {60.0f, 1.0f, 1.0f, 0xFFFFFF00},
+            {120.0f, 1.0f, 1.0f, 0xFF00FF00},
+            {180.0f, 1.0f, 1.0f, 0xFF00FFFF},
+            {240.0f, 1.0f, 1.0f, 0xFF0000FF},
+            {300.0f, 1.0f, 1.0f, 0xFFFF00FF},
+            {30.0f, 1.0f, 1.0f, 0xFFFF8000},
+            {210.0f, 0.5f, 0.5f, 0xFF406080},
+            {0.0f, 0.0f, 0.5f, 0xFF808080},
+            {0.0f, 0.0f, 0.0f, 0xFF000000},
+            {0.0f, 0.0f, 1.0f, 0xFFFFFFFF},
+            {359.99f, 1.0f, 1.0f, 0xFFFF0000},
+            {360.0f, 1.0f, 1.0f, 0xFFFF0000},
+            {-10.0f, 1.0f, 1.0f, 0xFFFF0000},
+            {15.5f, 0.3f, 0.7f, 0xFFB38B7D},
+            {123.4f, 0.56f, 0.78f, 0xFF58C75E},
+            {271.8f, 0.91f, 0.33f, 0xFF300854},
+            {45.0f, 1.5f, -0.2f, 0xFF000000},
+            {90.0f, 0.0002f, 0.9f, 0xFFE6E6E6},
+            {330.0f, 0.25f, 0.004f, 0xFF010101},
+            {200.0f, 0.7f, 0.5f, 0xFF266280},
+    };
+
+    /**
+     * Outputs of SkRGBToHSV (color => hue, saturation, value).
+     */
+    private static final Object[][] COLOR_TO_HSV = {
+            {0xFFFF0000, 0.0f, 1.0f, 1.0f},
+            {0xFF00FF00, 120.0f, 1.0f, 1.0f},
+            {0xFF0000FF, 240.0f, 1.0f, 1.0f},
+            {0xFF808080, 0.0f, 0.0f, 0.501960813999176f},
+            {0xFF123456, 210.0f, 0.7906976938247681f, 0.33725491166114807f},
+            {0xFFFEDCBA, 30.0f, 0.26771652698516846f, 0.9960784316062927f},
+            {0xFF00FF80, 150.11764526367188f, 1.0f, 1.0f},
+            {0xFF7F007F, 300.0f, 1.0f, 0.49803921580314636f},
+            {0xFF010203, 210.0f, 0.6666666865348816f, 0.0117647061124444f},
+            {0xFFC0FFEE, 163.8095245361328f, 0.24705882370471954f, 1.0f},
+    };
+
+    @Test
+    public void hsvToColorMatchesFramework() {
+        for (final Object[] row : HSV_TO_COLOR) {
+            final int color = ColorMath.hsvToColor((Float) row[0], (Float) row[1], (Float) row[2]);
+            assertEquals(String.format("HSV(%s, %s, %s)", row[0], row[1], row[2]),
+                    Integer.toHexString((Integer) row[3]), Integer.toHexString(color));
+        }
+    }
+
+    @Test
+    public void hsvToColorKeepsAlpha() {
+        assertEquals(0x80406080, ColorMath.hsvToColor(0x80, 210.0f, 0.5f, 0.5f));
+        assertEquals(0x00FFFFFF, ColorMath.hsvToColor(0x00, 0.0f, 0.0f, 1.0f));
+    }
+
+    @Test
+    public void colorToHsvMatchesFramework() {
+        final float[] hsv = new float[3];
+        for (final Object[] row : COLOR_TO_HSV) {
+            final int color = (Integer) row[0];
+            final String name = Integer.toHexString(color);
+            ColorMath.colorToHsv(color, hsv);
+            // bit-identical floats
+            assertEquals(name + " hue", Float.floatToIntBits((Float) row[1]), Float.floatToIntBits(hsv[0]));
+            assertEquals(name + " saturation", Float.floatToIntBits((Float) row[2]), Float.floatToIntBits(hsv[1]));
+            assertEquals(name + " value", Float.floatToIntBits((Float) row[3]), Float.floatToIntBits(hsv[2]));
+            assertEquals(name + " hue()", hsv[0], ColorMath.hue(color), 0.0f);
+            assertEquals(name + " saturation()", hsv[1], ColorMath.saturation(color), 0.0f);
+            assertEquals(name + " value()", hsv[2], ColorMath.value(color), 0.0f);
+        }
+    }
+
+    /**
+     * Corners of the hue sectors (full and zero saturation) for every 8-bit value.
+     */
+    @Test
+    public void hueSectorCornersRoundTrip() {
+        final float[] hsv = new float[3];
+        for (int sector = 0; sector < 6; sector++) {
+            final float hue = sector * 60.0f;
+            for (int v = 1; v < 256; v++) {
+                final float value = v / 255.0f;
+                final int color = ColorMath.hsvToColor(hue, 1.0f, value);
+                ColorMath.colorToHsv(color, hsv);
+                final String name = "HSV(" + hue + ", 1, " + v + "/255)";
+                assertEquals(name + " hue", hue, hsv[0], 0.0f);
+                assertEquals(name + " saturation", 1.0f, hsv[1], 0.0f);
+                assertEquals(name + " value", value, hsv[2], 0.0f);
+
+                final int gray = ColorMath.hsvToColor(hue, 0.0f, value);
+                assertEquals(name + " gray", 0xFF000000 | v * 0x010101, gray);
+            }
+        }
+    }
+
+    /**
+     * Every opaque 8-bit color is converted to HSV and back without a change.
+     */
+    @Test
+    public void allColorsRoundTrip() {
+        for (int rgb = 0; rgb <= 0xFFFFFF; rgb++) {
+            final int color = 0xFF000000 | rgb;
+            final int converted = ColorMath.hsvToColor(ColorMath.hue(color), ColorMath.saturation(color), ColorMath.value(color));
+            if (converted != color) {
+                assertEquals("round trip", Integer.toHexString(color), Integer.toHexString(converted));
+            }
+        }
+    }
+
+    @Test
+    public void strokeColorAndEmpty() {
+        assertEquals(0xFF7F0000, ColorMath.strokeColor(0xFFFF0000));
+        assertEquals(0xFF3F3F3F, ColorMath.strokeColor(0x807F7F7F));
+        assertEquals(true, ColorMath.isEmpty(0x00FFFFFF));
+        assertEquals(false, ColorMath.isEmpty(0x01000000));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FixedPaletteGeneratorTest {
+
+    private static final int RADIUS = 3;
+
+    @Test
+    public void exactColorsAtOwnRadius() {
+        final int[] colors = createColors(RADIUS);
+        final FixedPaletteGenerator generator = new FixedPaletteGenerator(RADIUS, colors);
+        final int[] out = new int[colors.length];
+        assertEquals(colors.length, HexPalette.fillColors(generator, RADIUS, out));
+        assertArrayEquals(colors, out);
+        for (int i = 0; i < colors.length; i++) {
+            assertEquals(colors[i], generator.getColor(i));
+        }
+    }
+
+    @Test
+    public void colorsAreCopied() {
+        final int[] colors = createColors(RADIUS);
+        final FixedPaletteGenerator generator = new FixedPaletteGenerator(RADIUS, colors);
+        colors[0] = 0;
+        assertEquals(index(0), generator.getColor(0));
+    }
+
+    @Test
+    public void centerAtRadiusZero() {
+        final FixedPaletteGenerator generator = new FixedPaletteGenerator(RADIUS, createColors(RADIUS));
+        assertEquals(index(HexGrid.getSwatchIndex(RADIUS, 0, 0)), generator.calculateColor(0, 0, 0));
+    }
+
+    @Test
+    public void scaledToLargerRadius() {
+        final FixedPaletteGenerator generator = new FixedPaletteGenerator(RADIUS, createColors(RADIUS));
+        final int radius = RADIUS * 2;
+        final int[] out = new int[HexGrid.getSwatchCount(radius)];
+        HexPalette.fillColors(generator, radius, out);
+        for (int index = 0; index < out.length; index++) {
+            final int q = HexGrid.getSwatchQ(radius, index);
+            final int r = HexGrid.getSwatchR(radius, index);
+            final int source = out[index] & 0xFFFF;
+            // never further than half of a cell (rounded) from the scaled position
+            assertTrue(getDistance(HexGrid.getSwatchQ(RADIUS, source) * 2 - q, HexGrid.getSwatchR(RADIUS, source) * 2 - r) <= 1);
+            if (q % 2 == 0 && r % 2 == 0) {
+                assertEquals(index(HexGrid.getSwatchIndex(RADIUS, q / 2, r / 2)), out[index]);
+            }
+        }
+    }
+
+    @Test
+    public void scaledToSmallerRadius() {
+        final int sourceRadius = RADIUS * 2;
+        final FixedPaletteGenerator generator = new FixedPaletteGenerator(sourceRadius, createColors(sourceRadius));
+        final int[] out = new int[HexGrid.getSwatchCount(RADIUS)];
+        HexPalette.fillColors(generator, RADIUS, out);
+        for (int index = 0; index < out.length; index++) {
+            final int q = HexGrid.getSwatchQ(RADIUS, index);
+            final int r = HexGrid.getSwatchR(RADIUS, index);
+            assertEquals(index(HexGrid.getSwatchIndex(sourceRadius, q * 2, r * 2)), out[index]);
+        }
+    }
+
+    /**
+     * Points outside of the palette (e.g. the rim of a gradient) get the nearest border color.
+     */
+    @Test
+    public void clampedOutsideOfPalette() {
+        final FixedPaletteGenerator generator = new FixedPaletteGenerator(RADIUS, createColors(RADIUS));
+        // the six corners, far away in their direction
+        final int[][] corners = {{1, 0}, {0, 1}, {-1, 1}, {-1, 0}, {0, -1}, {1, -1}};
+        for (final int[] corner : corners) {
+            for (final int distance : new int[]{RADIUS + 1, RADIUS * 5}) {
+                final int q = corner[0] * distance;
+                final int r = corner[1] * distance;
+                final int expected = index(HexGrid.getSwatchIndex(RADIUS, corner[0] * RADIUS, corner[1] * RADIUS));
+                assertEquals(expected, generator.calculateColor(RADIUS, 2 * q + r, 2 * r));
+            }
+            // at another radius, the point is scaled first (to 2.5 * RADIUS)
+            assertEquals(index(HexGrid.getSwatchIndex(RADIUS, corner[0] * RADIUS, corner[1] * RADIUS)),
+                    generator.calculateColor(RADIUS * 2, corner[0] * RADIUS * 10 + corner[1] * RADIUS * 5, corner[1] * RADIUS * 10));
+        }
+        // any direction (a square around the palette) => a border swatch
+        for (int i = -40; i <= 40; i++) {
+            for (final int side : new int[]{-40, 40}) {
+                assertOnBorder(generator.calculateColor(RADIUS, i, side));
+                assertOnBorder(generator.calculateColor(RADIUS, side, i));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTooFewColors() {
+        new FixedPaletteGenerator(RADIUS, new int[HexGrid.getSwatchCount(RADIUS) - 1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeRadius() {
+        new FixedPaletteGenerator(-1, new int[1]);
+    }
+
+    private static void assertOnBorder(final int color) {
+        final int source = color & 0xFFFF;
+        assertEquals(RADIUS, getDistance(HexGrid.getSwatchQ(RADIUS, source), HexGrid.getSwatchR(RADIUS, source)));
+    }
+
+    /**
+     * Colors with the swatch index in the low bits.
+     */
+    private static int[] createColors(final int radius) {
+        final int[] colors = new int[HexGrid.getSwatchCount(radius)];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = index(i);
+        }
+        return colors;
+    }
+
+    private static int index(final int index) {
+        return 0xFF000000 | index;
+    }
+
+    private static int getDistance(final int q, final int r) {
+        return Math.max(Math.abs(q), Math.max(Math.abs(r), Math.abs(q + r)));
+    }
+}
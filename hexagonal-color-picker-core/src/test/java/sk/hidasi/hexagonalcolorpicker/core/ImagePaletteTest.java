@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ImagePaletteTest {
+
+    private static final int RED = 0xFFE01010;
+    private static final int GREEN = 0xFF10C020;
+    private static final int BLUE = 0xFF1020E0;
+
+    @Test
+    public void colorsOrderedByDominance() {
+        // 50 % blue, 30 % red, 20 % green
+        final int[] pixels = fill(10, 10, new int[]{BLUE, RED, GREEN}, new int[]{50, 30, 20});
+        assertArrayEquals(new int[]{BLUE, RED, GREEN}, ImagePalette.extractColors(pixels, 0, 10, 10, 10, 16));
+        assertArrayEquals(new int[]{BLUE, RED}, ImagePalette.extractColors(pixels, 0, 10, 10, 10, 2));
+    }
+
+    @Test
+    public void binsAreMeanColors() {
+        // the same 4 bit bin => one color, the rounded mean of the pixels
+        final int[] pixels = fill(4, 4, new int[]{0xFF102030, 0xFF132333}, new int[]{8, 8});
+        assertArrayEquals(new int[]{0xFF122232}, ImagePalette.extractColors(pixels, 0, 4, 4, 4, 16));
+    }
+
+    @Test
+    public void transparentPixelsIgnored() {
+        final int[] pixels = fill(10, 10, new int[]{0x7FE01010, 0x00000000, GREEN, 0x80FFFFFF}, new int[]{60, 20, 15, 5});
+        assertArrayEquals(new int[]{GREEN, 0xFFFFFFFF}, ImagePalette.extractColors(pixels, 0, 10, 10, 10, 16));
+        assertEquals(0, ImagePalette.extractColors(new int[16], 0, 4, 4, 4, 16).length);
+    }
+
+    @Test
+    public void similarColorsTakenLast() {
+        // the light gray is in another bin, but close to the dominant gray (OKLab distance ~0.05)
+        final int[] pixels = fill(10, 10, new int[]{0xFF808080, 0xFF909090, BLUE}, new int[]{50, 30, 20});
+        assertArrayEquals(new int[]{0xFF808080, BLUE}, ImagePalette.extractColors(pixels, 0, 10, 10, 10, 2));
+        // with room for all, the dominance order is kept
+        assertArrayEquals(new int[]{0xFF808080, 0xFF909090, BLUE}, ImagePalette.extractColors(pixels, 0, 10, 10, 10, 3));
+    }
+
+    @Test
+    public void strideAndOffset() {
+        final int[] image = fill(10, 10, new int[]{BLUE, RED, GREEN}, new int[]{50, 30, 20});
+        // the image in the middle of a larger one filled with another color
+        final int[] pixels = new int[20 * 30];
+        Arrays.fill(pixels, 0xFFFFFFFF);
+        for (int y = 0; y < 10; y++) {
+            System.arraycopy(image, y * 10, pixels, 105 + y * 20, 10);
+        }
+        assertArrayEquals(new int[]{BLUE, RED, GREEN}, ImagePalette.extractColors(pixels, 105, 20, 10, 10, 16));
+    }
+
+    @Test
+    public void tilesMatchSingleThread() {
+        // large enough to be sampled (step 4) and split into tiles
+        final int width = 1000;
+        final int height = 700;
+        final int[] pixels = new int[width * height];
+        final Random random = new Random(3);
+        for (int i = 0; i < pixels.length; i++) {
+            // smooth gradient with noise, many bins
+            final int x = i % width;
+            final int y = i / width;
+            pixels[i] = 0xFF000000 | (x * 255 / width) << 16 | (y * 255 / height) << 8 | random.nextInt(64);
+        }
+        assertEquals(4, ImagePalette.getSampleStep(width, height));
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (final int maxColors : new int[]{1, 7, 37, 200}) {
+                final int[] expected = ImagePalette.extractColors(pixels, 0, width, width, height, maxColors);
+                assertEquals(maxColors, expected.length);
+                assertArrayEquals(expected, ImagePalette.extractColors(pixels, 0, width, width, height, maxColors, pool));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void sampleStep() {
+        assertEquals(1, ImagePalette.getSampleStep(1, 1));
+        assertEquals(1, ImagePalette.getSampleStep(256, 256));
+        assertEquals(2, ImagePalette.getSampleStep(257, 256));
+        assertEquals(14, ImagePalette.getSampleStep(4000, 3000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsShortPixelArray() {
+        ImagePalette.extractColors(new int[99], 0, 10, 10, 10, 16);
+    }
+
+    @Test
+    public void radiusOfFullPalettes() {
+        assertEquals(0, ImagePalette.getRadius(1));
+        assertEquals(0, ImagePalette.getRadius(6));
+        assertEquals(1, ImagePalette.getRadius(7));
+        assertEquals(1, ImagePalette.getRadius(18));
+        assertEquals(2, ImagePalette.getRadius(19));
+    }
+
+    /**
+     * The default palette, given ring by ring in a shuffled order, is laid out as the default palette.
+     */
+    @Test
+    public void createPaletteUsesDefaultLayout() {
+        final Random random = new Random(5);
+        for (int radius = 1; radius <= 5; radius++) {
+            final int count = HexGrid.getSwatchCount(radius);
+            final int[] expected = new int[count];
+            HexPalette.fillColors(radius, expected);
+
+            final List<Integer> colors = new ArrayList<Integer>();
+            for (int ring = 0; ring <= radius; ring++) {
+                final List<Integer> ringColors = new ArrayList<Integer>();
+                for (int index = 0; index < count; index++) {
+                    if (getRing(radius, index) == ring) {
+                        ringColors.add(expected[index]);
+                    }
+                }
+                Collections.shuffle(ringColors, random);
+                colors.addAll(ringColors);
+            }
+            // one more color does not fill the next ring => dropped
+            colors.add(0xFF000000);
+
+            final FixedPaletteGenerator palette = ImagePalette.createPalette(toArray(colors));
+            assertEquals(radius, palette.getRadius());
+            for (int index = 0; index < count; index++) {
+                assertEquals("radius " + radius + " swatch " + index, Integer.toHexString(expected[index]),
+                        Integer.toHexString(palette.getColor(index)));
+            }
+        }
+    }
+
+    /**
+     * The more dominant colors are closer to the center.
+     */
+    @Test
+    public void createPaletteFillsRingsByDominance() {
+        final int radius = 3;
+        final int count = HexGrid.getSwatchCount(radius);
+        final int[] colors = new int[count];
+        for (int i = 0; i < count; i++) {
+            // unique colors, the dominance rank is in the blue channel
+            colors[i] = ColorMath.hsvToColor(i * 137.5f % 360.0f, 1.0f, 1.0f) & 0xFFFFFF00 | i;
+        }
+        final FixedPaletteGenerator palette = ImagePalette.createPalette(colors);
+        assertEquals(colors[0], palette.getColor(HexGrid.getSwatchIndex(radius, 0, 0)));
+        for (int index = 0; index < count; index++) {
+            final int rank = palette.getColor(index) & 0xFF;
+            // the smallest palette which contains the rank
+            assertEquals(HexGrid.getRadiusFor(rank + 1), getRing(radius, index));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createPaletteRejectsNoColors() {
+        ImagePalette.createPalette(new int[0]);
+    }
+
+    private static int getRing(final int radius, final int index) {
+        final int q = HexGrid.getSwatchQ(radius, index);
+        final int r = HexGrid.getSwatchR(radius, index);
+        return Math.max(Math.abs(q), Math.max(Math.abs(r), Math.abs(q + r)));
+    }
+
+    /**
+     * Creates an image with the given colors in rows (count pixels of each color).
+     */
+    private static int[] fill(final int width, final int height, final int[] colors, final int[] counts) {
+        final int[] pixels = new int[width * height];
+        int index = 0;
+        for (int i = 0; i < colors.length; i++) {
+            Arrays.fill(pixels, index, index + counts[i], colors[i]);
+            index += counts[i];
+        }
+        return pixels;
+    }
+
+    private static int[] toArray(final List<Integer> list) {
+        final int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+}
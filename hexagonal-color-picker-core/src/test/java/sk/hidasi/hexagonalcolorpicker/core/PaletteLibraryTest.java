@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.core;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Libraries written by {@link PaletteLibraryWriter} and read back by {@link PaletteLibrary},
+ * the lookups are compared to brute force searches.
+ */
+public class PaletteLibraryTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int COLOR_COUNT = 5000;
+    // Name stems with mixed case and non-ASCII letters (only ASCII letters are case insensitive)
+    private static final String[] STEMS = {
+            "Red", "red", "ROSE", "Ros\u00E9", "\u00C4rger", "\u00E4rmel", "\u00C9clair", "\u00E9clair",
+            "\u65E5\u672C", "\u65E5\u306E\u51FA", "Z\u00FCrich", "z\u00DCrich", "Stra\u00DFe", "strasse", "\u03A9", "\u03C9",
+    };
+    private static final String[] PREFIXES = {
+            "", "r", "R", "rE", "ROS", "ros\u00E9", "ROS\u00C9", "\u00E4", "\u00C4", "\u00E9", "\u00C9", "\u00C9cl", "\u65E5", "\u65E5\u672C", "\u65E5\u306E",
+            "z\u00FC", "Z\u00DC", "z\u00DC", "Stra\u00DF", "STRASSE 1", "\u03C9", "\u03A9", "red 12", "Red 1234", "nothing", "\uFFFF",
+    };
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private int[] mColors;
+    private String[] mNames;
+    private PaletteLibrary mLibrary;
+
+    @Before
+    public void setUp() throws IOException {
+        final Random random = new Random(42);
+        mColors = new int[COLOR_COUNT];
+        mNames = new String[COLOR_COUNT];
+        final PaletteLibraryWriter writer = new PaletteLibraryWriter();
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            // some transparent colors (not found by the nearest search) and repeated names
+            mColors[i] = i % 97 == 0 ? random.nextInt() & 0x00FFFFFF : random.nextInt() | 0xFF000000;
+            mNames[i] = STEMS[i % STEMS.length] + " " + (i % 1700);
+            writer.add(mColors[i], mNames[i]);
+        }
+        assertEquals(COLOR_COUNT, writer.size());
+        mLibrary = read(writer);
+    }
+
+    @Test
+    public void colorsAndNamesRoundTrip() {
+        assertEquals(COLOR_COUNT, mLibrary.size());
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            assertEquals(mColors[i], mLibrary.getColor(i));
+            assertEquals(mNames[i], mLibrary.getName(i));
+        }
+    }
+
+    @Test
+    public void openFile() throws IOException {
+        final PaletteLibraryWriter writer = new PaletteLibraryWriter();
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            writer.add(mColors[i], mNames[i]);
+        }
+        final File file = mFolder.newFile("colors.hxpl");
+        writer.write(file);
+        final PaletteLibrary library = PaletteLibrary.open(file);
+        assertEquals(COLOR_COUNT, library.size());
+        assertEquals(mNames[COLOR_COUNT - 1], library.getName(COLOR_COUNT - 1));
+        assertEquals(mLibrary.findByPrefix("Ros\u00E9", new int[0]), library.findByPrefix("Ros\u00E9", new int[0]));
+    }
+
+    @Test
+    public void findByPrefixMatchesBruteForce() {
+        final int[] out = new int[COLOR_COUNT];
+        for (final String prefix : PREFIXES) {
+            final int[] expected = findByPrefixBruteForce(prefix);
+            final int count = mLibrary.findByPrefix(prefix, out);
+            assertEquals(prefix, expected.length, count);
+
+            final int[] found = Arrays.copyOf(out, count);
+            // ordered by the case folded name, then by the library order
+            for (int i = 1; i < count; i++) {
+                final int compare = compareBytes(foldedName(found[i - 1]), foldedName(found[i]));
+                assertTrue(prefix + " order", compare <= 0);
+                if (mNames[found[i - 1]].equals(mNames[found[i]])) {
+                    assertTrue(prefix + " library order", found[i - 1] < found[i]);
+                }
+            }
+            Arrays.sort(found);
+            assertArrayEquals(prefix, expected, found);
+        }
+    }
+
+    @Test
+    public void findByPrefixFoldsOnlyAsciiLetters() {
+        final int[] out = new int[COLOR_COUNT];
+        // Red, red, ROSE, Ros\u00E9
+        assertEquals(stemCount(0) + stemCount(1) + stemCount(2) + stemCount(3), mLibrary.findByPrefix("r", out));
+        assertEquals(stemCount(2) + stemCount(3), mLibrary.findByPrefix("rOs", out));
+        assertEquals(stemCount(3), mLibrary.findByPrefix("ROS\u00E9", out));
+        assertEquals(0, mLibrary.findByPrefix("ROS\u00C9", out));
+        // \u00C4rger, \u00E4rmel
+        assertEquals(stemCount(4), mLibrary.findByPrefix("\u00C4", out));
+        assertEquals(stemCount(5), mLibrary.findByPrefix("\u00E4", out));
+        // Z\u00FCrich, z\u00DCrich
+        assertEquals(stemCount(10), mLibrary.findByPrefix("Z\u00FC", out));
+        assertEquals(stemCount(11), mLibrary.findByPrefix("Z\u00DC", out));
+        assertEquals(stemCount(8), mLibrary.findByPrefix("\u65E5\u672C", out));
+        assertEquals(stemCount(8) + stemCount(9), mLibrary.findByPrefix("\u65E5", out));
+        assertEquals(COLOR_COUNT, mLibrary.findByPrefix("", out));
+    }
+
+    @Test
+    public void findByPrefixTruncatesOutput() {
+        final int[] all = new int[COLOR_COUNT];
+        final int count = mLibrary.findByPrefix("r", all);
+        assertTrue(count > 10);
+
+        final int[] out = new int[10];
+        assertEquals(count, mLibrary.findByPrefix("R", out));
+        assertArrayEquals(Arrays.copyOf(all, 10), out);
+    }
+
+    @Test
+    public void findNearestMatchesBruteForce() {
+        final Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            final int color = random.nextInt();
+            assertEquals(Integer.toHexString(color), findNearestBruteForce(color), mLibrary.findNearest(color));
+        }
+        for (int i = 0; i < COLOR_COUNT; i += 13) {
+            assertEquals(findNearestBruteForce(mColors[i]), mLibrary.findNearest(mColors[i]));
+        }
+    }
+
+    @Test
+    public void createPaletteKeepsLibraryOrder() {
+        final FixedPaletteGenerator palette = mLibrary.createPalette();
+        assertEquals(HexGrid.getRadiusFor(COLOR_COUNT), palette.getRadius());
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            assertEquals(mColors[i], palette.getColor(i));
+        }
+        for (int i = COLOR_COUNT; i < HexGrid.getSwatchCount(palette.getRadius()); i++) {
+            assertTrue(ColorMath.isEmpty(palette.getColor(i)));
+        }
+
+        final int[] indices = {42, 7, 4999};
+        final FixedPaletteGenerator selection = mLibrary.createPalette(indices, indices.length);
+        assertEquals(HexGrid.getRadiusFor(indices.length), selection.getRadius());
+        for (int i = 0; i < indices.length; i++) {
+            assertEquals(mColors[indices[i]], selection.getColor(i));
+        }
+    }
+
+    @Test
+    public void emptyLibrary() throws IOException {
+        final PaletteLibrary library = read(new PaletteLibraryWriter());
+        assertEquals(0, library.size());
+        assertEquals(0, library.findByPrefix("", new int[4]));
+        assertEquals(0, library.findByPrefix("red", new int[4]));
+        assertEquals(-1, library.findNearest(0xFF336699));
+        final FixedPaletteGenerator palette = library.createPalette();
+        for (int i = 0; i < HexGrid.getSwatchCount(palette.getRadius()); i++) {
+            assertTrue(ColorMath.isEmpty(palette.getColor(i)));
+        }
+    }
+
+    @Test
+    public void transparentLibrary() throws IOException {
+        final PaletteLibrary library = read(new PaletteLibraryWriter().add(0x00FF0000, "Clear"));
+        assertEquals(1, library.size());
+        assertEquals(-1, library.findNearest(0xFFFF0000));
+        assertEquals(1, library.findByPrefix("cl", new int[1]));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherData() throws IOException {
+        PaletteLibrary.wrap(ByteBuffer.wrap(new byte[64]));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsInvalidIndex() {
+        mLibrary.getColor(COLOR_COUNT);
+    }
+
+    private static PaletteLibrary read(final PaletteLibraryWriter writer) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(out);
+        return PaletteLibrary.wrap(ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    private int[] findByPrefixBruteForce(final String prefix) {
+        final byte[] key = fold(prefix.getBytes(UTF_8));
+        final List<Integer> matches = new ArrayList<Integer>();
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            final byte[] name = foldedName(i);
+            if (name.length >= key.length && compareBytes(Arrays.copyOf(name, key.length), key) == 0) {
+                matches.add(i);
+            }
+        }
+        final int[] result = new int[matches.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = matches.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Number of colors named after a stem.
+     */
+    private static int stemCount(final int stem) {
+        return (COLOR_COUNT - stem + STEMS.length - 1) / STEMS.length;
+    }
+
+    private int findNearestBruteForce(final int color) {
+        final float[] query = new float[3];
+        final float[] lab = new float[3];
+        Oklab.fromColor(color, query, 0);
+        int best = -1;
+        float bestDistance = Float.MAX_VALUE;
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            if (ColorMath.isEmpty(mColors[i])) {
+                continue;
+            }
+            Oklab.fromColor(mColors[i], lab, 0);
+            final float dl = lab[0] - query[0];
+            final float da = lab[1] - query[1];
+            final float db = lab[2] - query[2];
+            final float distance = dl * dl + da * da + db * db;
+            if (distance < bestDistance) {
+                best = i;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    private byte[] foldedName(final int index) {
+        return fold(mNames[index].getBytes(UTF_8));
+    }
+
+    /**
+     * Lower case ASCII letters, other bytes (including UTF-8 sequences) are kept.
+     */
+    private static byte[] fold(final byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] >= 'A' && bytes[i] <= 'Z') {
+                bytes[i] += 'a' - 'A';
+            }
+        }
+        return bytes;
+    }
+
+    private static int compareBytes(final byte[] first, final byte[] second) {
+        final int common = Math.min(first.length, second.length);
+        for (int i = 0; i < common; i++) {
+            final int difference = (first[i] & 0xFF) - (second[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return first.length - second.length;
+    }
+}
@@ -50,8 +50,26 @@ public class MainActivity extends AppCompatActivity implements OnColorSelectedLi
 
         bindControls(seekPaletteRadius, editPaletteRadius, paletteRadius - SEEK_MINIMUM);
 
-        HexagonalColorPicker colorPicker = findViewById(R.id.hexagonalColorPicker);
+        final HexagonalColorPicker colorPicker = findViewById(R.id.hexagonalColorPicker);
         colorPicker.setAttrs(paletteRadius, Color.WHITE, this);
+
+        // the brightest layer is on the right side of the slider
+        SeekBar seekBrightness = findViewById(R.id.seekBrightness);
+        seekBrightness.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {
+            }
+
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {
+            }
+
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                colorPicker.setValueLayer(colorPicker.getValueLayers() - 1 - progress);
+            }
+        });
     }
 
     private void bindControls(final SeekBar seek, final TextView text, final int initValue) {
@@ -113,6 +131,10 @@ public class MainActivity extends AppCompatActivity implements OnColorSelectedLi
         HexagonalColorPicker colorPicker = findViewById(R.id.hexagonalColorPicker);
         colorPicker.setAttrs(paletteRadius, Color.WHITE, this);
 
+        // white is in the brightest layer
+        SeekBar seekBrightness = findViewById(R.id.seekBrightness);
+        seekBrightness.setProgress(seekBrightness.getMax());
+
         TextView textView = findViewById(R.id.tapToChange);
         textView.setBackgroundColor(Color.TRANSPARENT);
     }
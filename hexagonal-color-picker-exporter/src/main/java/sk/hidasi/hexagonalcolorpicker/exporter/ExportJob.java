@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.exporter;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+import sk.hidasi.hexagonalcolorpicker.core.HexGradient;
+import sk.hidasi.hexagonalcolorpicker.core.HexGrid;
+import sk.hidasi.hexagonalcolorpicker.core.HexPalette;
+import sk.hidasi.hexagonalcolorpicker.core.PaletteGenerator;
+
+/**
+ * Export of one palette to one file. Images are rendered and encoded band by band, swatch files are
+ * written swatch by swatch, so the memory of a job does not grow with the image height or the batch size.
+ */
+final class ExportJob implements Callable<File> {
+
+    static final String FORMAT_PNG = "png";
+    static final String FORMAT_GPL = "gpl";
+    static final String FORMAT_ASE = "ase";
+    static final String FORMAT_JSON = "json";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    // Rows rendered and encoded at once
+    private static final int BAND_ROWS = 64;
+
+    private final PaletteGenerator mGenerator;
+    private final String mPaletteName;
+    private final int mRadius;
+    private final float mValue;
+    private final String mFormat;
+    // Image width (pixels, PNG only)
+    private final int mWidth;
+    private final boolean mGradient;
+    private final int mCompression;
+    private final File mFile;
+
+    /**
+     * Constructor.
+     *
+     * @param generator   Palette generator
+     * @param paletteName Palette name (the prefix of the file name)
+     * @param radius      Palette radius
+     * @param value       Value (brightness) multiplier (0 .. 1)
+     * @param format      Output format (FORMAT_*)
+     * @param width       Image width (pixels, PNG only)
+     * @param gradient    True to render the continuous gradient instead of the swatches (PNG only)
+     * @param compression PNG compression level (0 .. 9)
+     * @param directory   Output directory
+     */
+    ExportJob(final PaletteGenerator generator, final String paletteName, final int radius, final float value,
+              final String format, final int width, final boolean gradient, final int compression, final File directory) {
+        mGenerator = generator;
+        mPaletteName = paletteName;
+        mRadius = radius;
+        mValue = value;
+        mFormat = format;
+        mWidth = width;
+        mGradient = gradient;
+        mCompression = compression;
+        mFile = new File(directory, getFileName());
+    }
+
+    /**
+     * Gets the output file.
+     *
+     * @return Output file
+     */
+    File getFile() {
+        return mFile;
+    }
+
+    private String getFileName() {
+        final StringBuilder name = new StringBuilder(mPaletteName).append("-r").append(mRadius);
+        if (mValue < 1.0f) {
+            name.append("-v").append(Math.round(mValue * 100.0f));
+        }
+        if (FORMAT_PNG.equals(mFormat)) {
+            name.append('-').append(mWidth);
+            if (mGradient) {
+                name.append("-gradient");
+            }
+        }
+        return name.append('.').append(mFormat).toString();
+    }
+
+    @Override
+    public File call() throws IOException {
+        boolean done = false;
+        final OutputStream out = new BufferedOutputStream(new FileOutputStream(mFile), 1 << 16);
+        try {
+            String title = String.format(Locale.US, "%s r%d", mPaletteName, mRadius);
+            if (mValue < 1.0f) {
+                title += " v" + Math.round(mValue * 100.0f);
+            }
+            switch (mFormat) {
+                case FORMAT_PNG:
+                    writePng(out);
+                    break;
+                case FORMAT_GPL:
+                    new SwatchFileWriter(mGenerator, mRadius, mValue).writeGpl(new OutputStreamWriter(out, UTF_8), title);
+                    break;
+                case FORMAT_ASE:
+                    new SwatchFileWriter(mGenerator, mRadius, mValue).writeAse(out, title);
+                    break;
+                case FORMAT_JSON:
+                    new SwatchFileWriter(mGenerator, mRadius, mValue).writeJson(new OutputStreamWriter(out, UTF_8), title);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown format: " + mFormat);
+            }
+            done = true;
+        } finally {
+            out.close();
+            if (!done) {
+                mFile.delete();
+            }
+        }
+        return mFile;
+    }
+
+    private void writePng(final OutputStream out) throws IOException {
+        final int height = ImageLayout.getHeight(mWidth);
+        final ImageLayout layout = new ImageLayout(mWidth, height);
+        HexGradient gradient = null;
+        SwatchRasterizer rasterizer = null;
+        if (mGradient) {
+            gradient = new HexGradient(mGenerator, mRadius, mValue, mWidth, height,
+                    layout.mCenterX, layout.mCenterY, layout.mScaleX, layout.mScaleY);
+        } else {
+            final int count = HexGrid.getSwatchCount(mRadius);
+            final int[] colors = new int[count];
+            HexPalette.fillColors(mGenerator, mRadius, colors);
+            if (mValue < 1.0f) {
+                HexPalette.fillValueLayer(colors, count, mValue, colors);
+            }
+            rasterizer = new SwatchRasterizer(mRadius, colors, layout);
+        }
+
+        final int[] band = new int[mWidth * Math.min(BAND_ROWS, height)];
+        final PngEncoder encoder = new PngEncoder(out, mWidth, height, mCompression);
+        try {
+            for (int row = 0; row < height; row += BAND_ROWS) {
+                final int end = Math.min(row + BAND_ROWS, height);
+                if (gradient != null) {
+                    gradient.fillRows(band, 0, row, end);
+                } else {
+                    rasterizer.fillRows(band, 0, row, end);
+                }
+                encoder.writeRows(band, 0, end - row);
+            }
+            encoder.finish();
+        } catch (IOException | RuntimeException e) {
+            encoder.abort();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.exporter;
+
+/**
+ * Placement of the palette in an exported image, the same as in the picker view without view padding
+ * (the palette is centered and keeps the aspect ratio of the hexagon).
+ */
+final class ImageLayout {
+
+    // Aspect ratio of the palette (the same as HexagonalColorPicker.VIEW_ASPECT_RATIO)
+    static final float ASPECT_RATIO = (float) Math.sqrt(4.0 / 3.0);
+
+    final int mWidth;
+    final int mHeight;
+    // Palette center (pixels)
+    final float mCenterX;
+    final float mCenterY;
+    // Palette size (pixels)
+    final float mScaleX;
+    final float mScaleY;
+
+    /**
+     * Constructor.
+     *
+     * @param width  Image width (pixels)
+     * @param height Image height (pixels)
+     */
+    ImageLayout(final int width, final int height) {
+        mWidth = width;
+        mHeight = height;
+        mCenterX = width / 2.0f;
+        mCenterY = height / 2.0f;
+        // additional padding for swatch stroke
+        final float strokePadding = Math.min(width, height) * 0.05f;
+        float scaleX = width - strokePadding;
+        float scaleY = height - strokePadding;
+        if (width > height * ASPECT_RATIO) {
+            scaleX -= width - height * ASPECT_RATIO;
+        } else if (height > width / ASPECT_RATIO) {
+            scaleY -= height - width / ASPECT_RATIO;
+        }
+        mScaleX = scaleX;
+        mScaleY = scaleY;
+    }
+
+    /**
+     * Calculates the image height which fits the palette for the given width.
+     *
+     * @param width Image width (pixels)
+     * @return Image height (pixels)
+     */
+    static int getHeight(final int width) {
+        return Math.max(1, (int) (width / ASPECT_RATIO));
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.exporter;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import sk.hidasi.hexagonalcolorpicker.core.HexPalette;
+import sk.hidasi.hexagonalcolorpicker.core.HsvPaletteGenerator;
+import sk.hidasi.hexagonalcolorpicker.core.OklchPaletteGenerator;
+import sk.hidasi.hexagonalcolorpicker.core.PaletteGenerator;
+
+/**
+ * Command line exporter of palettes: PNG images (swatches or the continuous gradient) and GPL, ASE and JSON
+ * swatch files for every combination of the given palettes, radii, value layers, image widths and formats.
+ * The jobs run in parallel (one job per thread), every job streams its file to disk.
+ * <p>
+ * Example: {@code --palette hsv,oklch --radius 3-6,10 --size 512,2048 --format png,gpl,ase,json --out palettes}
+ */
+public final class PaletteExporter {
+
+    private static final String USAGE = "Usage: PaletteExporter [options]\n"
+            + "  --palette <names>     hsv, oklch (default hsv)\n"
+            + "  --radius <list>       palette radii, e.g. 0-3,5 (0 is a single swatch, default 3)\n"
+            + "  --layers <count>      number of value (brightness) layers (default 1)\n"
+            + "  --format <list>       png, gpl, ase, json (default png)\n"
+            + "  --size <list>         PNG widths in pixels, the height keeps the palette aspect ratio (default 1024)\n"
+            + "  --gradient            render PNG images as the continuous gradient instead of swatches\n"
+            + "  --compression <level> PNG compression level 0 .. 9 (default 6)\n"
+            + "  --jobs <count>        parallel jobs (default: number of cores)\n"
+            + "  --out <directory>     output directory (default palettes)\n";
+
+    private PaletteExporter() {
+    }
+
+    public static void main(final String[] args) throws InterruptedException {
+        final List<ExportJob> jobs;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try {
+            final List<String> palettes = new ArrayList<String>();
+            final List<Integer> radii = new ArrayList<Integer>();
+            final List<String> formats = new ArrayList<String>();
+            final List<Integer> sizes = new ArrayList<Integer>();
+            int layers = 1;
+            boolean gradient = false;
+            int compression = 6;
+            File directory = new File("palettes");
+            for (int i = 0; i < args.length; i++) {
+                final String option = args[i];
+                if ("--gradient".equals(option)) {
+                    gradient = true;
+                    continue;
+                }
+                if ("--help".equals(option)) {
+                    System.out.print(USAGE);
+                    return;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value of " + option);
+                }
+                final String value = args[++i];
+                switch (option) {
+                    case "--palette":
+                        for (String name : value.split(",")) {
+                            getGenerator(name.trim());
+                            palettes.add(name.trim());
+                        }
+                        break;
+                    case "--radius":
+                        parseRanges(value, 0, radii);
+                        break;
+                    case "--layers":
+                        layers = parseNumber(value, 1);
+                        break;
+                    case "--format":
+                        for (String format : value.split(",")) {
+                            formats.add(parseFormat(format.trim()));
+                        }
+                        break;
+                    case "--size":
+                        parseRanges(value, 1, sizes);
+                        break;
+                    case "--compression":
+                        compression = Integer.parseInt(value);
+                        if (compression < 0 || compression > 9) {
+                            throw new IllegalArgumentException("Compression level must be 0 .. 9: " + value);
+                        }
+                        break;
+                    case "--jobs":
+                        threads = parseNumber(value, 1);
+                        break;
+                    case "--out":
+                        directory = new File(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + option);
+                }
+            }
+            if (palettes.isEmpty()) {
+                palettes.add("hsv");
+            }
+            if (radii.isEmpty()) {
+                radii.add(3);
+            }
+            if (formats.isEmpty()) {
+                formats.add(ExportJob.FORMAT_PNG);
+            }
+            if (sizes.isEmpty()) {
+                sizes.add(1024);
+            }
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IllegalArgumentException("Cannot create the output directory: " + directory);
+            }
+            jobs = createJobs(palettes, radii, layers, formats, sizes, gradient, compression, directory);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        final int failures = run(jobs, threads);
+        if (failures > 0) {
+            System.err.println(failures + " of " + jobs.size() + " exports failed.");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the jobs on a fixed thread pool. At most two jobs per thread are queued,
+     * results are reported (and released) as soon as they are done.
+     *
+     * @param jobs    Export jobs
+     * @param threads Number of threads
+     * @return Number of failed jobs
+     * @throws InterruptedException if interrupted while waiting
+     */
+    static int run(final List<ExportJob> jobs, final int threads) throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final ExecutorCompletionService<File> completion = new ExecutorCompletionService<File>(executor);
+        int failures = 0;
+        try {
+            final Iterator<ExportJob> pending = jobs.iterator();
+            int running = 0;
+            while (pending.hasNext() || running > 0) {
+                while (pending.hasNext() && running < threads * 2) {
+                    completion.submit(pending.next());
+                    running++;
+                }
+                try {
+                    System.out.println(completion.take().get().getPath());
+                } catch (ExecutionException e) {
+                    System.err.println("Export failed: " + e.getCause());
+                    failures++;
+                }
+                running--;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return failures;
+    }
+
+    private static List<ExportJob> createJobs(final List<String> palettes, final List<Integer> radii, final int layers,
+                                              final List<String> formats, final List<Integer> sizes, final boolean gradient,
+                                              final int compression, final File directory) {
+        final List<ExportJob> jobs = new ArrayList<ExportJob>();
+        for (String palette : palettes) {
+            final PaletteGenerator generator = getGenerator(palette);
+            for (int radius : radii) {
+                for (int layer = 0; layer < layers; layer++) {
+                    final float value = HexPalette.getLayerValue(layer, layers);
+                    for (String format : formats) {
+                        if (ExportJob.FORMAT_PNG.equals(format)) {
+                            for (int size : sizes) {
+                                jobs.add(new ExportJob(generator, palette, radius, value, format, size, gradient, compression, directory));
+                            }
+                        } else {
+                            jobs.add(new ExportJob(generator, palette, radius, value, format, 0, false, compression, directory));
+                        }
+                    }
+                }
+            }
+        }
+        return jobs;
+    }
+
+    private static PaletteGenerator getGenerator(final String name) {
+        switch (name) {
+            case "hsv":
+                return HsvPaletteGenerator.INSTANCE;
+            case "oklch":
+                return OklchPaletteGenerator.INSTANCE;
+            default:
+                throw new IllegalArgumentException("Unknown palette: " + name);
+        }
+    }
+
+    private static String parseFormat(final String format) {
+        switch (format) {
+            case ExportJob.FORMAT_PNG:
+            case ExportJob.FORMAT_GPL:
+            case ExportJob.FORMAT_ASE:
+            case ExportJob.FORMAT_JSON:
+                return format;
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+
+    /**
+     * Parses a list of numbers and ranges, e.g. "3,5,8-10".
+     *
+     * @param text    List
+     * @param minimum Minimal number (e.g. 0 for radii, 1 for sizes)
+     * @param out     Output numbers
+     */
+    static void parseRanges(final String text, final int minimum, final List<Integer> out) {
+        for (String item : text.split(",")) {
+            final int dash = item.indexOf('-');
+            if (dash > 0) {
+                final int from = parseNumber(item.substring(0, dash), minimum);
+                final int to = parseNumber(item.substring(dash + 1), minimum);
+                for (int i = from; i <= to; i++) {
+                    out.add(i);
+                }
+            } else {
+                out.add(parseNumber(item, minimum));
+            }
+        }
+    }
+
+    /**
+     * Parses a number.
+     *
+     * @param text    Number
+     * @param minimum Minimal number
+     * @return Number
+     */
+    static int parseNumber(final String text, final int minimum) {
+        final int value;
+        try {
+            value = Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + text);
+        }
+        if (value < minimum) {
+            throw new IllegalArgumentException(minimum == 1 ? "Must be positive: " + text
+                    : "Must be at least " + minimum + ": " + text);
+        }
+        return value;
+    }
+}
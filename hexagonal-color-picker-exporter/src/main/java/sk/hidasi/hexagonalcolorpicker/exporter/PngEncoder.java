@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.exporter;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Streaming PNG encoder (8 bit RGBA, non-interlaced).
+ * Rows are filtered and compressed as they are written, so only the current band of rows
+ * has to be in memory. Every row uses the "up" filter: the swatches and the gradient change little
+ * from row to row, which leaves mostly zeros for the compressor.
+ */
+final class PngEncoder {
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final int IHDR = 0x49484452;
+    private static final int IDAT = 0x49444154;
+    private static final int IEND = 0x49454E44;
+    // Maximal size of an IDAT chunk
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int FILTER_UP = 2;
+
+    private final DataOutputStream mOut;
+    private final int mWidth;
+    private final int mHeight;
+    private final Deflater mDeflater;
+    private final ChunkOutputStream mChunks;
+    private final DeflaterOutputStream mData;
+    // Current and previous row (RGBA bytes)
+    private byte[] mRow;
+    private byte[] mPreviousRow;
+    // Filtered row (filter type byte and the differences)
+    private final byte[] mFiltered;
+    private int mRowCount;
+
+    /**
+     * Constructor, writes the PNG header.
+     *
+     * @param out    Output stream (not closed by the encoder)
+     * @param width  Image width (pixels)
+     * @param height Image height (pixels)
+     * @param level  Compression level (0 .. 9)
+     * @throws IOException if writing fails
+     */
+    PngEncoder(final OutputStream out, final int width, final int height, final int level) throws IOException {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Image size must be positive.");
+        }
+        mOut = new DataOutputStream(out);
+        mWidth = width;
+        mHeight = height;
+        mRow = new byte[width * 4];
+        mPreviousRow = new byte[width * 4];
+        mFiltered = new byte[width * 4 + 1];
+        mFiltered[0] = FILTER_UP;
+
+        mOut.write(SIGNATURE);
+        final byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8;      // bit depth
+        header[9] = 6;      // color type: RGBA
+        header[10] = 0;     // deflate
+        header[11] = 0;     // adaptive filtering
+        header[12] = 0;     // no interlace
+        writeChunk(IHDR, header, header.length);
+
+        mDeflater = new Deflater(level);
+        mChunks = new ChunkOutputStream();
+        mData = new DeflaterOutputStream(mChunks, mDeflater, CHUNK_SIZE);
+    }
+
+    /**
+     * Writes rows of ARGB pixels.
+     *
+     * @param pixels ARGB pixels (row by row)
+     * @param offset Offset of the first row
+     * @param rows   Number of rows
+     * @throws IOException if writing fails
+     */
+    void writeRows(final int[] pixels, final int offset, final int rows) throws IOException {
+        if (mRowCount + rows > mHeight) {
+            throw new IllegalStateException("Too many rows: " + (mRowCount + rows) + " > " + mHeight);
+        }
+        final int length = mWidth * 4;
+        for (int row = 0; row < rows; row++) {
+            final byte[] bytes = mRow;
+            int index = offset + row * mWidth;
+            for (int i = 0; i < length; i += 4, index++) {
+                final int color = pixels[index];
+                bytes[i] = (byte) (color >> 16);
+                bytes[i + 1] = (byte) (color >> 8);
+                bytes[i + 2] = (byte) color;
+                bytes[i + 3] = (byte) (color >>> 24);
+            }
+            final byte[] previous = mPreviousRow;
+            final byte[] filtered = mFiltered;
+            for (int i = 0; i < length; i++) {
+                filtered[i + 1] = (byte) (bytes[i] - previous[i]);
+            }
+            mData.write(filtered, 0, length + 1);
+            mRow = previous;
+            mPreviousRow = bytes;
+        }
+        mRowCount += rows;
+    }
+
+    /**
+     * Finishes the image (all rows must have been written).
+     *
+     * @throws IOException if writing fails
+     */
+    void finish() throws IOException {
+        if (mRowCount != mHeight) {
+            throw new IllegalStateException("Missing rows: " + mRowCount + " < " + mHeight);
+        }
+        mData.finish();
+        mChunks.flush();
+        mDeflater.end();
+        writeChunk(IEND, new byte[0], 0);
+        mOut.flush();
+    }
+
+    /**
+     * Releases the compressor when the image is not finished (e.g. on a failure).
+     */
+    void abort() {
+        mDeflater.end();
+    }
+
+    private void writeChunk(final int type, final byte[] data, final int length) throws IOException {
+        final CRC32 crc = new CRC32();
+        final byte[] typeBytes = new byte[4];
+        putInt(typeBytes, 0, type);
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        mOut.writeInt(length);
+        mOut.write(typeBytes);
+        mOut.write(data, 0, length);
+        mOut.writeInt((int) crc.getValue());
+    }
+
+    private static void putInt(final byte[] bytes, final int offset, final int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Splits the compressed data into IDAT chunks.
+     */
+    private final class ChunkOutputStream extends OutputStream {
+
+        private final byte[] mBuffer = new byte[CHUNK_SIZE];
+        private int mSize;
+
+        @Override
+        public void write(final int b) throws IOException {
+            mBuffer[mSize++] = (byte) b;
+            if (mSize == CHUNK_SIZE) {
+                flushChunk();
+            }
+        }
+
+        @Override
+        public void write(final byte[] b, int offset, int length) throws IOException {
+            while (length > 0) {
+                final int count = Math.min(length, CHUNK_SIZE - mSize);
+                System.arraycopy(b, offset, mBuffer, mSize, count);
+                mSize += count;
+                offset += count;
+                length -= count;
+                if (mSize == CHUNK_SIZE) {
+                    flushChunk();
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushChunk();
+        }
+
+        private void flushChunk() throws IOException {
+            if (mSize > 0) {
+                writeChunk(IDAT, mBuffer, mSize);
+                mSize = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.exporter;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Locale;
+
+import sk.hidasi.hexagonalcolorpicker.core.ColorMath;
+import sk.hidasi.hexagonalcolorpicker.core.HexGrid;
+import sk.hidasi.hexagonalcolorpicker.core.PaletteGenerator;
+
+/**
+ * Writers of swatch files: GIMP palettes (GPL), Adobe swatch exchange (ASE) and JSON.
+ * Swatches are written in swatch index order (row by row) as they are generated, so no color array is kept.
+ * Empty swatches are left out.
+ */
+final class SwatchFileWriter {
+
+    // ASE block types and color mode
+    private static final int ASE_COLOR_ENTRY = 0x0001;
+    private static final int ASE_GROUP_START = 0xC001;
+    private static final int ASE_GROUP_END = 0xC002;
+    private static final int ASE_COLOR_NORMAL = 2;
+
+    private final PaletteGenerator mGenerator;
+    private final int mRadius;
+    private final float mValue;
+    private final float[] mHsv = new float[3];
+
+    /**
+     * Constructor.
+     *
+     * @param generator Palette generator
+     * @param radius    Palette radius
+     * @param value     Value (brightness) multiplier of the colors (0 .. 1)
+     */
+    SwatchFileWriter(final PaletteGenerator generator, final int radius, final float value) {
+        mGenerator = generator;
+        mRadius = radius;
+        mValue = value;
+    }
+
+    /**
+     * Writes a GIMP palette.
+     *
+     * @param out  Output writer
+     * @param name Palette name
+     * @throws IOException if writing fails
+     */
+    void writeGpl(final Writer out, final String name) throws IOException {
+        out.write("GIMP Palette\n");
+        out.write("Name: " + name + "\n");
+        out.write("Columns: " + (mRadius * 2 + 1) + "\n");
+        out.write("#\n");
+        for (int r = -mRadius; r <= mRadius; r++) {
+            final int minQ = HexGrid.getRowMinQ(mRadius, r);
+            final int rowSize = HexGrid.getRowSize(mRadius, r);
+            for (int q = minQ; q < minQ + rowSize; q++) {
+                final int color = getColor(q, r);
+                if (!ColorMath.isEmpty(color)) {
+                    out.write(String.format(Locale.US, "%3d %3d %3d\t%s\n",
+                            (color >> 16) & 0xFF, (color >> 8) & 0xFF, color & 0xFF, toHex(color)));
+                }
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes an Adobe swatch exchange file (one group of RGB colors named by their hex codes).
+     *
+     * @param stream Output stream
+     * @param name   Palette (group) name
+     * @throws IOException if writing fails
+     */
+    void writeAse(final OutputStream stream, final String name) throws IOException {
+        // the header holds the block count, so the empty swatches are counted first
+        int count = 0;
+        for (int r = -mRadius; r <= mRadius; r++) {
+            final int minQ = HexGrid.getRowMinQ(mRadius, r);
+            final int rowSize = HexGrid.getRowSize(mRadius, r);
+            for (int q = minQ; q < minQ + rowSize; q++) {
+                if (!ColorMath.isEmpty(getColor(q, r))) {
+                    count++;
+                }
+            }
+        }
+
+        final DataOutputStream out = new DataOutputStream(stream);
+        out.writeBytes("ASEF");
+        out.writeShort(1);
+        out.writeShort(0);
+        out.writeInt(count + 2);
+        out.writeShort(ASE_GROUP_START);
+        out.writeInt(2 + (name.length() + 1) * 2);
+        writeAseName(out, name);
+        for (int r = -mRadius; r <= mRadius; r++) {
+            final int minQ = HexGrid.getRowMinQ(mRadius, r);
+            final int rowSize = HexGrid.getRowSize(mRadius, r);
+            for (int q = minQ; q < minQ + rowSize; q++) {
+                final int color = getColor(q, r);
+                if (ColorMath.isEmpty(color)) {
+                    continue;
+                }
+                final String colorName = toHex(color);
+                out.writeShort(ASE_COLOR_ENTRY);
+                out.writeInt(2 + (colorName.length() + 1) * 2 + 4 + 3 * 4 + 2);
+                writeAseName(out, colorName);
+                out.writeBytes("RGB ");
+                out.writeFloat(((color >> 16) & 0xFF) / 255.0f);
+                out.writeFloat(((color >> 8) & 0xFF) / 255.0f);
+                out.writeFloat((color & 0xFF) / 255.0f);
+                out.writeShort(ASE_COLOR_NORMAL);
+            }
+        }
+        out.writeShort(ASE_GROUP_END);
+        out.writeInt(0);
+        out.flush();
+    }
+
+    /**
+     * Writes a JSON document with the palette and its swatches (swatch index, axial coordinates and color).
+     *
+     * @param out  Output writer
+     * @param name Palette name
+     * @throws IOException if writing fails
+     */
+    void writeJson(final Writer out, final String name) throws IOException {
+        out.write("{\n");
+        out.write("  \"name\": \"" + escapeJson(name) + "\",\n");
+        out.write("  \"radius\": " + mRadius + ",\n");
+        out.write("  \"value\": " + mValue + ",\n");
+        out.write("  \"swatches\": [");
+        boolean first = true;
+        int index = 0;
+        for (int r = -mRadius; r <= mRadius; r++) {
+            final int minQ = HexGrid.getRowMinQ(mRadius, r);
+            final int rowSize = HexGrid.getRowSize(mRadius, r);
+            for (int q = minQ; q < minQ + rowSize; q++, index++) {
+                final int color = getColor(q, r);
+                if (ColorMath.isEmpty(color)) {
+                    continue;
+                }
+                out.write(first ? "\n" : ",\n");
+                out.write("    {\"index\": " + index + ", \"q\": " + q + ", \"r\": " + r
+                        + ", \"color\": \"" + toHex(color) + "\"}");
+                first = false;
+            }
+        }
+        out.write(first ? "]\n" : "\n  ]\n");
+        out.write("}\n");
+        out.flush();
+    }
+
+    /**
+     * Calculates the color of a swatch (layout coordinates are doubled: x = 2q + r, y = 2r).
+     */
+    private int getColor(final int q, final int r) {
+        final int color = mGenerator.calculateColor(mRadius, 2 * q + r, 2 * r);
+        if (mValue >= 1.0f || ColorMath.isEmpty(color)) {
+            return color;
+        }
+        ColorMath.colorToHsv(color, mHsv);
+        return ColorMath.hsvToColor(color >>> 24, mHsv[0], mHsv[1], mHsv[2] * mValue);
+    }
+
+    private static void writeAseName(final DataOutputStream out, final String name) throws IOException {
+        out.writeShort(name.length() + 1);
+        out.writeChars(name);
+        out.writeShort(0);
+    }
+
+    private static String toHex(final int color) {
+        return String.format(Locale.US, "#%06X", color & 0xFFFFFF);
+    }
+
+    private static String escapeJson(final String text) {
+        final StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format(Locale.US, "\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
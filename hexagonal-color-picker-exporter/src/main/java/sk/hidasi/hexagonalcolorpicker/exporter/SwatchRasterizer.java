@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.exporter;
+
+import java.util.Arrays;
+
+import sk.hidasi.hexagonalcolorpicker.core.ColorMath;
+import sk.hidasi.hexagonalcolorpicker.core.HexGrid;
+
+/**
+ * Anti-aliased software rasterizer of the swatches (shadow, fill and stroke ovals of the canvas mode).
+ * The swatch sizes and positions are calculated the same way as in the picker. Rows are rendered in bands,
+ * only the swatch rows which intersect the band are visited.
+ */
+final class SwatchRasterizer {
+
+    private static final int SHADOW_COLOR = 0x40000000;
+
+    private final int mRadius;
+    private final int[] mColors;
+    private final int mWidth;
+    // Swatch bounds (top left corners) and sizes (pixels)
+    private final int[] mLeft;
+    private final int[] mTop;
+    private final int mSwatchSize;
+    private final int mContentSize;
+    private final int mStrokeWidth;
+
+    /**
+     * Constructor.
+     *
+     * @param radius Palette radius
+     * @param colors Swatch colors (empty swatches are not drawn)
+     * @param layout Image layout
+     */
+    SwatchRasterizer(final int radius, final int[] colors, final ImageLayout layout) {
+        mRadius = radius;
+        mColors = colors;
+        mWidth = layout.mWidth;
+        final float swatchRadius = HexGrid.getSwatchRadius(radius, layout.mScaleX);
+        final int padding = (int) (0.075f * swatchRadius);
+        mStrokeWidth = (int) (0.05f * swatchRadius);
+        mSwatchSize = (int) (swatchRadius - mStrokeWidth) * 2;
+        mContentSize = mSwatchSize - padding;
+        final int count = HexGrid.getSwatchCount(radius);
+        mLeft = new int[count];
+        mTop = new int[count];
+        HexGrid.fillPixelPositions(radius, layout.mCenterX, layout.mCenterY, layout.mScaleX, layout.mScaleY, mLeft, mTop);
+    }
+
+    /**
+     * Renders a range of rows into a buffer which holds only these rows.
+     *
+     * @param pixels  Output ARGB pixels (row by row)
+     * @param offset  Offset of the first row in the buffer
+     * @param rowFrom First row
+     * @param rowTo   End of the row range (exclusive)
+     */
+    void fillRows(final int[] pixels, final int offset, final int rowFrom, final int rowTo) {
+        Arrays.fill(pixels, offset, offset + (rowTo - rowFrom) * mWidth, 0);
+        for (int r = -mRadius; r <= mRadius; r++) {
+            final int start = HexGrid.getRowStart(mRadius, r);
+            // all swatches of a row have the same top
+            final int top = mTop[start];
+            if (top >= rowTo || top + mSwatchSize <= rowFrom) {
+                continue;
+            }
+            final int end = start + HexGrid.getRowSize(mRadius, r);
+            for (int i = start; i < end; i++) {
+                if (!ColorMath.isEmpty(mColors[i])) {
+                    drawSwatch(pixels, offset, rowFrom, rowTo, i);
+                }
+            }
+        }
+    }
+
+    private void drawSwatch(final int[] pixels, final int offset, final int rowFrom, final int rowTo, final int index) {
+        final int left = mLeft[index];
+        final int top = mTop[index];
+        final int color = mColors[index];
+        final int strokeColor = ColorMath.strokeColor(color);
+        // the shadow fills the swatch bounds, the fill and the stroke are shifted up left by the padding
+        final float shadowRadius = mSwatchSize * 0.5f;
+        final float shadowX = left + shadowRadius;
+        final float shadowY = top + shadowRadius;
+        final float outerRadius = mContentSize * 0.5f;
+        final float fillRadius = outerRadius - mStrokeWidth * 0.5f;
+        final float innerRadius = outerRadius - mStrokeWidth;
+        final float centerX = left + outerRadius;
+        final float centerY = top + outerRadius;
+
+        final int fromY = Math.max(top, rowFrom);
+        final int toY = Math.min(top + mSwatchSize, rowTo);
+        final int fromX = Math.max(left, 0);
+        final int toX = Math.min(left + mSwatchSize, mWidth);
+        for (int py = fromY; py < toY; py++) {
+            int pixel = offset + (py - rowFrom) * mWidth + fromX;
+            for (int px = fromX; px < toX; px++, pixel++) {
+                final float x = px + 0.5f;
+                final float y = py + 0.5f;
+                final float shadowDistance = distance(x - shadowX, y - shadowY);
+                final float distance = distance(x - centerX, y - centerY);
+                int result = blend(pixels[pixel], SHADOW_COLOR, coverage(shadowDistance, shadowRadius));
+                result = blend(result, color, coverage(distance, fillRadius));
+                if (mStrokeWidth > 0) {
+                    result = blend(result, strokeColor,
+                            coverage(distance, outerRadius) - coverage(distance, innerRadius));
+                }
+                pixels[pixel] = result;
+            }
+        }
+    }
+
+    private static float distance(final float dx, final float dy) {
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Calculates the pixel coverage of a circle (one pixel wide edge ramp).
+     */
+    private static float coverage(final float distance, final float radius) {
+        return Math.max(0.0f, Math.min(radius - distance + 0.5f, 1.0f));
+    }
+
+    /**
+     * Blends a color over a (non premultiplied) ARGB pixel.
+     */
+    private static int blend(final int destination, final int color, final float coverage) {
+        final float sourceAlpha = (color >>> 24) / 255.0f * coverage;
+        if (sourceAlpha <= 0.0f) {
+            return destination;
+        }
+        final float destinationAlpha = (destination >>> 24) / 255.0f * (1.0f - sourceAlpha);
+        final float alpha = sourceAlpha + destinationAlpha;
+        final int red = blendChannel((color >> 16) & 0xFF, (destination >> 16) & 0xFF, sourceAlpha, destinationAlpha, alpha);
+        final int green = blendChannel((color >> 8) & 0xFF, (destination >> 8) & 0xFF, sourceAlpha, destinationAlpha, alpha);
+        final int blue = blendChannel(color & 0xFF, destination & 0xFF, sourceAlpha, destinationAlpha, alpha);
+        return (Math.round(alpha * 255.0f) << 24) | (red << 16) | (green << 8) | blue;
+    }
+
+    private static int blendChannel(final int source, final int destination, final float sourceAlpha,
+                                    final float destinationAlpha, final float alpha) {
+        return Math.min(255, Math.round((source * sourceAlpha + destination * destinationAlpha) / alpha));
+    }
+}
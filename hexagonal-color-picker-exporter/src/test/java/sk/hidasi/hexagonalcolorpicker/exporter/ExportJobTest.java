@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.exporter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import sk.hidasi.hexagonalcolorpicker.core.HsvPaletteGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExportJobTest {
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void fileNames() throws IOException {
+        final File directory = mFolder.getRoot();
+        assertEquals("hsv-r3-512.png", createJob(3, 1.0f, ExportJob.FORMAT_PNG, 512, false).getFile().getName());
+        assertEquals("hsv-r0-v50-64-gradient.png", createJob(0, 0.5f, ExportJob.FORMAT_PNG, 64, true).getFile().getName());
+        assertEquals("hsv-r2-v25.json", createJob(2, 0.25f, ExportJob.FORMAT_JSON, 0, false).getFile().getName());
+        assertEquals(directory, createJob(2, 1.0f, ExportJob.FORMAT_ASE, 0, false).getFile().getParentFile());
+    }
+
+    @Test
+    public void pngImages() throws Exception {
+        for (final int radius : new int[]{0, 1, 5}) {
+            for (final boolean gradient : new boolean[]{false, true}) {
+                final File file = createJob(radius, 1.0f, ExportJob.FORMAT_PNG, 200, gradient).call();
+                final BufferedImage image = ImageIO.read(file);
+                assertEquals(200, image.getWidth());
+                assertEquals(ImageLayout.getHeight(200), image.getHeight());
+                // the center of the palette is white (interpolated in the gradient)
+                final int center = image.getRGB(100, image.getHeight() / 2);
+                if (gradient) {
+                    for (int shift = 0; shift < 32; shift += 8) {
+                        assertTrue(Integer.toHexString(center), (center >>> shift & 0xFF) >= 0xF0);
+                    }
+                } else {
+                    assertEquals(0xFFFFFFFF, center);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void swatchFiles() throws Exception {
+        for (final String format : new String[]{ExportJob.FORMAT_GPL, ExportJob.FORMAT_ASE, ExportJob.FORMAT_JSON}) {
+            final File file = createJob(0, 1.0f, format, 0, false).call();
+            assertTrue(file.getName(), file.length() > 0);
+        }
+    }
+
+    private ExportJob createJob(final int radius, final float value, final String format, final int width, final boolean gradient) {
+        return new ExportJob(HsvPaletteGenerator.INSTANCE, "hsv", radius, value, format, width, gradient, 6, mFolder.getRoot());
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.exporter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class PaletteExporterTest {
+
+    @Test
+    public void parseRanges() {
+        final List<Integer> out = new ArrayList<Integer>();
+        PaletteExporter.parseRanges("0-3, 5,8-8", 0, out);
+        assertEquals(6, out.size());
+        assertEquals("[0, 1, 2, 3, 5, 8]", out.toString());
+    }
+
+    @Test
+    public void radiusZero() {
+        final List<Integer> out = new ArrayList<Integer>();
+        PaletteExporter.parseRanges("0", 0, out);
+        assertEquals(0, (int) out.get(0));
+        assertEquals(0, PaletteExporter.parseNumber(" 0 ", 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegative() {
+        PaletteExporter.parseRanges("-1", 0, new ArrayList<Integer>());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroSize() {
+        PaletteExporter.parseRanges("0-512", 1, new ArrayList<Integer>());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsText() {
+        PaletteExporter.parseNumber("three", 1);
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.exporter;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The encoded images are decoded by hand (chunks, CRCs, filters) and by ImageIO.
+ */
+public class PngEncoderTest {
+
+    private static final int IHDR = 0x49484452;
+    private static final int IDAT = 0x49444154;
+    private static final int IEND = 0x49454E44;
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    @Test
+    public void decodedByHand() throws IOException, DataFormatException {
+        final int width = 150;
+        final int height = 130;
+        final int[] pixels = createPixels(width, height);
+        // no compression => several IDAT chunks
+        final byte[] png = encode(pixels, width, height, 0, 17);
+
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(png));
+        final byte[] signature = new byte[8];
+        in.readFully(signature);
+        assertArrayEquals(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}, signature);
+
+        final byte[] header = readChunk(in, IHDR);
+        assertEquals(13, header.length);
+        final DataInputStream headerIn = new DataInputStream(new ByteArrayInputStream(header));
+        assertEquals(width, headerIn.readInt());
+        assertEquals(height, headerIn.readInt());
+        assertEquals(8, headerIn.readByte());   // bit depth
+        assertEquals(6, headerIn.readByte());   // RGBA
+        assertEquals(0, headerIn.readByte());   // deflate
+        assertEquals(0, headerIn.readByte());   // adaptive filtering
+        assertEquals(0, headerIn.readByte());   // no interlace
+
+        // IDAT chunks are full except for the last one
+        final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int chunks = 0;
+        byte[] chunk = readChunk(in, IDAT);
+        while (chunk != null) {
+            data.write(chunk);
+            chunks++;
+            final byte[] next = readChunk(in, IDAT);
+            assertTrue(next == null ? chunk.length <= CHUNK_SIZE : chunk.length == CHUNK_SIZE);
+            chunk = next;
+        }
+        assertTrue("IDAT chunks: " + chunks, chunks > 1);
+        assertEquals(0, readChunk(in, IEND).length);
+        assertEquals(-1, in.read());
+
+        // every row uses the up filter
+        final int rowLength = width * 4 + 1;
+        final byte[] raw = inflate(data.toByteArray(), rowLength * height);
+        final byte[] previous = new byte[width * 4];
+        for (int y = 0; y < height; y++) {
+            assertEquals("filter of row " + y, 2, raw[y * rowLength]);
+            for (int x = 0; x < width; x++) {
+                final int[] argb = new int[4];
+                for (int c = 0; c < 4; c++) {
+                    final int i = x * 4 + c;
+                    previous[i] = (byte) (previous[i] + raw[y * rowLength + 1 + i]);
+                    argb[c] = previous[i] & 0xFF;
+                }
+                assertEquals(pixels[y * width + x], argb[3] << 24 | argb[0] << 16 | argb[1] << 8 | argb[2]);
+            }
+        }
+    }
+
+    @Test
+    public void decodedByImageIo() throws IOException {
+        final int width = 97;
+        final int height = 61;
+        final int[] pixels = createPixels(width, height);
+        for (final int level : new int[]{0, 6, 9}) {
+            final BufferedImage image = ImageIO.read(new ByteArrayInputStream(encode(pixels, width, height, level, 64)));
+            assertEquals(width, image.getWidth());
+            assertEquals(height, image.getHeight());
+            assertArrayEquals(pixels, image.getRGB(0, 0, width, height, null, 0, width));
+        }
+    }
+
+    @Test
+    public void singlePixel() throws IOException {
+        final int[] pixels = {0x80402010};
+        final BufferedImage image = ImageIO.read(new ByteArrayInputStream(encode(pixels, 1, 1, 6, 1)));
+        assertEquals(0x80402010, image.getRGB(0, 0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsTooManyRows() throws IOException {
+        final PngEncoder encoder = new PngEncoder(new ByteArrayOutputStream(), 2, 2, 6);
+        try {
+            encoder.writeRows(new int[6], 0, 3);
+        } finally {
+            encoder.abort();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsMissingRows() throws IOException {
+        final PngEncoder encoder = new PngEncoder(new ByteArrayOutputStream(), 2, 2, 6);
+        try {
+            encoder.writeRows(new int[2], 0, 1);
+            encoder.finish();
+        } finally {
+            encoder.abort();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyImage() throws IOException {
+        new PngEncoder(new ByteArrayOutputStream(), 0, 1, 6);
+    }
+
+    /**
+     * Encodes an image in bands of rows.
+     */
+    private static byte[] encode(final int[] pixels, final int width, final int height, final int level, final int bandRows)
+            throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PngEncoder encoder = new PngEncoder(out, width, height, level);
+        for (int row = 0; row < height; row += bandRows) {
+            final int rows = Math.min(bandRows, height - row);
+            // the band is copied to check the offset handling
+            final int[] band = new int[width * (rows + 1)];
+            System.arraycopy(pixels, row * width, band, width, width * rows);
+            encoder.writeRows(band, width, rows);
+        }
+        encoder.finish();
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads a chunk and checks its type and CRC.
+     *
+     * @return Chunk data, null if the chunk has another type (and it was not read)
+     */
+    private static byte[] readChunk(final DataInputStream in, final int type) throws IOException {
+        in.mark(8);
+        final int length = in.readInt();
+        final byte[] typeBytes = new byte[4];
+        in.readFully(typeBytes);
+        if (new DataInputStream(new ByteArrayInputStream(typeBytes)).readInt() != type) {
+            in.reset();
+            return null;
+        }
+        final byte[] data = new byte[length];
+        in.readFully(data);
+        final CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        assertEquals("CRC", (int) crc.getValue(), in.readInt());
+        return data;
+    }
+
+    private static byte[] inflate(final byte[] data, final int length) throws DataFormatException {
+        final Inflater inflater = new Inflater();
+        inflater.setInput(data);
+        final byte[] raw = new byte[length + 1];
+        int size = 0;
+        while (!inflater.finished()) {
+            final int count = inflater.inflate(raw, size, raw.length - size);
+            assertTrue(count > 0 || inflater.finished());
+            size += count;
+        }
+        inflater.end();
+        assertEquals(length, size);
+        return Arrays.copyOf(raw, length);
+    }
+
+    /**
+     * Noise (incompressible) with a few smooth rows and transparent pixels.
+     */
+    private static int[] createPixels(final int width, final int height) {
+        final Random random = new Random(11);
+        final int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            final int y = i / width;
+            pixels[i] = y % 10 == 0 ? 0xFF000000 | (i % width) * 0x010101 : random.nextInt();
+        }
+        return pixels;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker.exporter;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import sk.hidasi.hexagonalcolorpicker.core.ColorMath;
+import sk.hidasi.hexagonalcolorpicker.core.FixedPaletteGenerator;
+import sk.hidasi.hexagonalcolorpicker.core.HexGrid;
+import sk.hidasi.hexagonalcolorpicker.core.HexPalette;
+import sk.hidasi.hexagonalcolorpicker.core.HsvPaletteGenerator;
+import sk.hidasi.hexagonalcolorpicker.core.OklchPaletteGenerator;
+import sk.hidasi.hexagonalcolorpicker.core.PaletteGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The swatch files are parsed back and compared to the palette colors (in swatch index order, without empty swatches).
+ */
+public class SwatchFileWriterTest {
+
+    private static final Pattern GPL_COLOR = Pattern.compile("( {0,2}\\d{1,3}) ( {0,2}\\d{1,3}) ( {0,2}\\d{1,3})\t#([0-9A-F]{6})");
+    private static final Pattern JSON_SWATCH = Pattern.compile(
+            " {4}\\{\"index\": (\\d+), \"q\": (-?\\d+), \"r\": (-?\\d+), \"color\": \"#([0-9A-F]{6})\"}");
+
+    @Test
+    public void gpl() throws IOException {
+        for (int radius = 0; radius <= 4; radius++) {
+            for (final float value : new float[]{1.0f, 0.5f}) {
+                final StringWriter out = new StringWriter();
+                new SwatchFileWriter(OklchPaletteGenerator.INSTANCE, radius, value).writeGpl(out, "oklch");
+                final String[] lines = out.toString().split("\n", -1);
+                assertEquals("GIMP Palette", lines[0]);
+                assertEquals("Name: oklch", lines[1]);
+                assertEquals("Columns: " + (radius * 2 + 1), lines[2]);
+                assertEquals("#", lines[3]);
+
+                final List<Integer> colors = getColors(OklchPaletteGenerator.INSTANCE, radius, value);
+                assertEquals(colors.size() + 5, lines.length);
+                for (int i = 0; i < colors.size(); i++) {
+                    final Matcher matcher = GPL_COLOR.matcher(lines[4 + i]);
+                    assertTrue(lines[4 + i], matcher.matches());
+                    final int rgb = Integer.parseInt(matcher.group(4), 16);
+                    assertEquals(colors.get(i) & 0xFFFFFF, rgb);
+                    assertEquals((rgb >> 16) & 0xFF, Integer.parseInt(matcher.group(1).trim()));
+                    assertEquals((rgb >> 8) & 0xFF, Integer.parseInt(matcher.group(2).trim()));
+                    assertEquals(rgb & 0xFF, Integer.parseInt(matcher.group(3).trim()));
+                }
+                assertEquals("", lines[lines.length - 1]);
+            }
+        }
+    }
+
+    @Test
+    public void ase() throws IOException {
+        for (int radius = 0; radius <= 4; radius++) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            new SwatchFileWriter(HsvPaletteGenerator.INSTANCE, radius, 1.0f).writeAse(out, "hsv r" + radius);
+            final DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+            assertEquals(0x41534546, in.readInt());     // "ASEF"
+            assertEquals(1, in.readShort());
+            assertEquals(0, in.readShort());
+
+            final List<Integer> colors = getColors(HsvPaletteGenerator.INSTANCE, radius, 1.0f);
+            assertEquals(colors.size() + 2, in.readInt());
+            assertEquals(0xC001, in.readUnsignedShort());
+            final int groupLength = in.readInt();
+            assertEquals("hsv r" + radius, readAseName(in));
+            assertEquals(2 + ("hsv r" + radius).length() * 2 + 2, groupLength);
+
+            for (final int color : colors) {
+                assertEquals(0x0001, in.readUnsignedShort());
+                final int length = in.readInt();
+                in.mark(length);
+                final String name = String.format(Locale.US, "#%06X", color & 0xFFFFFF);
+                assertEquals(name, readAseName(in));
+                assertEquals(0x52474220, in.readInt());     // "RGB "
+                assertEquals((color >> 16) & 0xFF, Math.round(in.readFloat() * 255.0f));
+                assertEquals((color >> 8) & 0xFF, Math.round(in.readFloat() * 255.0f));
+                assertEquals(color & 0xFF, Math.round(in.readFloat() * 255.0f));
+                assertEquals(2, in.readShort());            // normal color
+                in.reset();
+                assertEquals(length, in.skip(length));
+            }
+            assertEquals(0xC002, in.readUnsignedShort());
+            assertEquals(0, in.readInt());
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void json() throws IOException {
+        for (int radius = 0; radius <= 4; radius++) {
+            final StringWriter out = new StringWriter();
+            new SwatchFileWriter(HsvPaletteGenerator.INSTANCE, radius, 0.25f).writeJson(out, "hsv \"quoted\"\t\\");
+            final String[] lines = out.toString().split("\n", -1);
+            assertEquals("{", lines[0]);
+            assertEquals("  \"name\": \"hsv \\\"quoted\\\"\\u0009\\\\\",", lines[1]);
+            assertEquals("  \"radius\": " + radius + ",", lines[2]);
+            assertEquals("  \"value\": 0.25,", lines[3]);
+            assertEquals("  \"swatches\": [", lines[4]);
+
+            final List<Integer> colors = getColors(HsvPaletteGenerator.INSTANCE, radius, 0.25f);
+            for (int i = 0; i < colors.size(); i++) {
+                final String line = lines[5 + i];
+                assertEquals(i < colors.size() - 1, line.endsWith(","));
+                final Matcher matcher = JSON_SWATCH.matcher(i < colors.size() - 1 ? line.substring(0, line.length() - 1) : line);
+                assertTrue(line, matcher.matches());
+                final int index = Integer.parseInt(matcher.group(1));
+                assertEquals(i, index);
+                assertEquals(index, HexGrid.getSwatchIndex(radius, Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3))));
+                assertEquals(colors.get(i) & 0xFFFFFF, Integer.parseInt(matcher.group(4), 16));
+            }
+            assertEquals("  ]", lines[5 + colors.size()]);
+            assertEquals("}", lines[6 + colors.size()]);
+        }
+    }
+
+    /**
+     * Empty swatches are left out, the swatch indices of the others are kept.
+     */
+    @Test
+    public void emptySwatchesLeftOut() throws IOException {
+        final int[] colors = new int[HexGrid.getSwatchCount(1)];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = i % 2 == 0 ? 0xFF000000 | i * 0x111111 : 0;
+        }
+        final PaletteGenerator generator = new FixedPaletteGenerator(1, colors);
+
+        final StringWriter json = new StringWriter();
+        new SwatchFileWriter(generator, 1, 1.0f).writeJson(json, "fixed");
+        final Matcher matcher = JSON_SWATCH.matcher(json.toString());
+        int count = 0;
+        while (matcher.find()) {
+            final int index = Integer.parseInt(matcher.group(1));
+            assertEquals(count * 2, index);
+            assertEquals(colors[index] & 0xFFFFFF, Integer.parseInt(matcher.group(4), 16));
+            count++;
+        }
+        assertEquals(4, count);
+
+        final ByteArrayOutputStream ase = new ByteArrayOutputStream();
+        new SwatchFileWriter(generator, 1, 1.0f).writeAse(ase, "fixed");
+        assertEquals(4 + 2, new DataInputStream(new ByteArrayInputStream(ase.toByteArray(), 8, 4)).readInt());
+
+        final StringWriter gpl = new StringWriter();
+        new SwatchFileWriter(generator, 1, 1.0f).writeGpl(gpl, "fixed");
+        assertEquals(4 + 4, gpl.toString().split("\n").length);
+    }
+
+    @Test
+    public void emptyPalette() throws IOException {
+        final PaletteGenerator generator = new FixedPaletteGenerator(0, new int[1]);
+        final StringWriter json = new StringWriter();
+        new SwatchFileWriter(generator, 0, 1.0f).writeJson(json, "empty");
+        assertTrue(json.toString().endsWith("  \"swatches\": []\n}\n"));
+    }
+
+    /**
+     * Palette colors in swatch index order (the value layer like in the picker), without empty swatches.
+     */
+    private static List<Integer> getColors(final PaletteGenerator generator, final int radius, final float value) {
+        final int count = HexGrid.getSwatchCount(radius);
+        final int[] colors = new int[count];
+        HexPalette.fillColors(generator, radius, colors);
+        if (value < 1.0f) {
+            HexPalette.fillValueLayer(colors, count, value, colors);
+        }
+        final List<Integer> list = new ArrayList<Integer>();
+        for (int i = 0; i < count; i++) {
+            if (!ColorMath.isEmpty(colors[i])) {
+                list.add(colors[i]);
+            }
+        }
+        return list;
+    }
+
+    private static String readAseName(final DataInputStream in) throws IOException {
+        final int length = in.readUnsignedShort();
+        final StringBuilder name = new StringBuilder();
+        for (int i = 0; i < length - 1; i++) {
+            name.append(in.readChar());
+        }
+        assertEquals(0, in.readChar());
+        return name.toString();
+    }
+}
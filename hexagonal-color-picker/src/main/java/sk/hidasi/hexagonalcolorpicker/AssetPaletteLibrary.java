@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import sk.hidasi.hexagonalcolorpicker.core.PaletteLibrary;
+
+/**
+ * Opens palette libraries (see {@link PaletteLibrary}) shipped as application assets.
+ * The asset is memory mapped directly from the APK, so it has to be stored uncompressed
+ * (e.g. {@code aaptOptions { noCompress 'hxpl' }} in build.gradle).
+ */
+public final class AssetPaletteLibrary {
+
+    private AssetPaletteLibrary() {
+    }
+
+    /**
+     * Opens a palette library asset.
+     *
+     * @param context   Context
+     * @param assetName Asset path
+     * @return Palette library
+     * @throws IOException if the asset is missing, compressed or it is not a palette library
+     */
+    public static PaletteLibrary open(final Context context, final String assetName) throws IOException {
+        final AssetFileDescriptor descriptor = context.getAssets().openFd(assetName);
+        try {
+            final FileInputStream input = descriptor.createInputStream();
+            try {
+                // the mapping stays valid after the descriptor is closed
+                return PaletteLibrary.open(input.getChannel(), descriptor.getStartOffset(), descriptor.getLength());
+            } finally {
+                input.close();
+            }
+        } finally {
+            descriptor.close();
+        }
+    }
+}
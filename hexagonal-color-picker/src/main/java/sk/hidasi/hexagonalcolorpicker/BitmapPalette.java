@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+
+import sk.hidasi.hexagonalcolorpicker.core.FixedPaletteGenerator;
+import sk.hidasi.hexagonalcolorpicker.core.ImagePalette;
+
+/**
+ * Palette of the dominant colors of a photo (see {@link ImagePalette}).
+ * Large bitmaps are downscaled natively before their pixels are read, so only the sampled pixels
+ * are copied to the Java heap. The histogram is built on all cores (API 21+).
+ * The methods may be called from any thread, prefer a background one for large photos.
+ * <p>
+ * Usage: {@code picker.setPaletteGenerator(palette); picker.setAttrs(palette.getRadius(), color, listener);}
+ */
+public final class BitmapPalette {
+
+    // Default number of colors (palette radius 3).
+    public static final int DEFAULT_MAX_COLORS = 37;
+
+    private BitmapPalette() {
+    }
+
+    /**
+     * Creates a palette of the dominant colors of a bitmap (at most {@link #DEFAULT_MAX_COLORS}).
+     *
+     * @param bitmap Software bitmap
+     * @return Palette generator, its radius is the radius of the palette
+     */
+    public static FixedPaletteGenerator createPalette(final Bitmap bitmap) {
+        return createPalette(bitmap, DEFAULT_MAX_COLORS);
+    }
+
+    /**
+     * Creates a palette of the dominant colors of a bitmap.
+     *
+     * @param bitmap    Software bitmap
+     * @param maxColors Maximal number of colors (e.g. the swatch count of the wanted palette radius)
+     * @return Palette generator, its radius is the radius of the palette
+     */
+    public static FixedPaletteGenerator createPalette(final Bitmap bitmap, final int maxColors) {
+        return ImagePalette.createPalette(extractColors(bitmap, maxColors));
+    }
+
+    /**
+     * Creates a palette of the dominant colors of ARGB pixels.
+     *
+     * @param pixels    ARGB pixels (row by row)
+     * @param width     Image width
+     * @param height    Image height
+     * @param maxColors Maximal number of colors
+     * @return Palette generator, its radius is the radius of the palette
+     */
+    public static FixedPaletteGenerator createPalette(final int[] pixels, final int width, final int height, final int maxColors) {
+        return ImagePalette.createPalette(extractColors(pixels, width, height, maxColors));
+    }
+
+    /**
+     * Extracts dominant colors of a bitmap.
+     *
+     * @param bitmap    Software bitmap
+     * @param maxColors Maximal number of colors
+     * @return Colors ordered by dominance
+     */
+    public static int[] extractColors(final Bitmap bitmap, final int maxColors) {
+        final int step = ImagePalette.getSampleStep(bitmap.getWidth(), bitmap.getHeight());
+        Bitmap sampled = bitmap;
+        if (step > 1) {
+            // nearest neighbour scaling is the same sampling as the core would do
+            sampled = Bitmap.createScaledBitmap(bitmap, (bitmap.getWidth() + step - 1) / step,
+                    (bitmap.getHeight() + step - 1) / step, false);
+        }
+        final int width = sampled.getWidth();
+        final int height = sampled.getHeight();
+        final int[] pixels = new int[width * height];
+        sampled.getPixels(pixels, 0, width, 0, 0, width, height);
+        if (sampled != bitmap) {
+            sampled.recycle();
+        }
+        return extractColors(pixels, width, height, maxColors);
+    }
+
+    /**
+     * Extracts dominant colors of ARGB pixels.
+     *
+     * @param pixels    ARGB pixels (row by row)
+     * @param width     Image width
+     * @param height    Image height
+     * @param maxColors Maximal number of colors
+     * @return Colors ordered by dominance
+     */
+    public static int[] extractColors(final int[] pixels, final int width, final int height, final int maxColors) {
+        if (maxColors < 1) {
+            throw new IllegalArgumentException("At least one color is needed: " + maxColors);
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            return ImagePalette.extractColors(pixels, 0, width, width, height, maxColors, SharedForkJoinPool.get());
+        }
+        return ImagePalette.extractColors(pixels, 0, width, width, height, maxColors);
+    }
+}
@@ -16,42 +16,85 @@
 
 package sk.hidasi.hexagonalcolorpicker;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Paint;
 import android.graphics.PointF;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
 import android.graphics.drawable.GradientDrawable;
 import android.util.AttributeSet;
-import android.view.Gravity;
+import android.view.KeyEvent;
 import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
-import android.view.animation.Animation;
-import android.view.animation.Interpolator;
-import android.view.animation.OvershootInterpolator;
-import android.view.animation.ScaleAnimation;
+import android.view.ViewConfiguration;
 import android.widget.FrameLayout;
 import android.widget.ImageView;
 
+import androidx.core.content.ContextCompat;
+import androidx.core.view.ViewCompat;
+
+import java.util.List;
+
+import sk.hidasi.hexagonalcolorpicker.core.ColorMath;
+import sk.hidasi.hexagonalcolorpicker.core.HexGrid;
+import sk.hidasi.hexagonalcolorpicker.core.HexPalette;
+import sk.hidasi.hexagonalcolorpicker.core.HsvPaletteGenerator;
+import sk.hidasi.hexagonalcolorpicker.core.OklchPaletteGenerator;
+import sk.hidasi.hexagonalcolorpicker.core.PaletteGenerator;
+
 /**
  * Hexagonal color picker layout.
  * This is the parent layout which displays a color palette with color swatches.
  * The number of color swatches depends on mPaletteRadius (@link #swatchCount()).
+ * Swatches are either child views ({@link #RENDER_MODE_VIEWS}) or they are drawn
+ * directly on the picker canvas ({@link #RENDER_MODE_CANVAS}). In both modes they are
+ * exposed to accessibility services as virtual views (see SwatchAccessibilityHelper).
+ * In {@link #RENDER_MODE_GRADIENT} a continuous hexagon with the same color mapping is drawn
+ * instead of the swatches and any color of it can be picked.
+ * With zoom enabled (canvas mode) large palettes can be pinch-zoomed and panned, only the swatches
+ * in the view are laid out and drawn (see ZoomViewport).
  */
 public class HexagonalColorPicker extends FrameLayout implements View.OnTouchListener {
 
     // Default palette radius (if not specified).
     public static final int DEFAULT_PALETTE_RADIUS = 3;
+    // Every color swatch is a child view (HexagonalColorSwatch).
+    public static final int RENDER_MODE_VIEWS = 0;
+    // All color swatches are drawn by the picker in a single pass.
+    public static final int RENDER_MODE_CANVAS = 1;
+    // Continuous gradient hexagon (a cached bitmap) instead of the swatches.
+    public static final int RENDER_MODE_GRADIENT = 2;
+    // Classic palette (HSV hue and saturation at full value), see HsvPaletteGenerator.
+    public static final int PALETTE_HSV = 0;
+    // Perceptual palette (OKLCH, equal lightness per ring), see OklchPaletteGenerator.
+    public static final int PALETTE_OKLCH = 1;
+    // Larger palettes are shown without the entrance animation (if not specified).
+    public static final int DEFAULT_MAX_ANIMATED_RADIUS = 10;
     // Aspect ratio of the view (4:3).
     private static final float VIEW_ASPECT_RATIO = (float) Math.sqrt(4.0 / 3.0);
-    // Duration of the animation for the whole view (all swatches).
-    private static final int ANIM_TIME_VIEW = 500;
-    // Duration of the animation for a single swatch.
-    private static final int ANIM_TIME_SWATCH = 200;
     // Shadow color
     private static final int SHADOW_COLOR = Color.argb(64, 0, 0, 0);
+    // Expected frame interval for the dropped frames metric (60 frames per second)
+    private static final long FRAME_INTERVAL_NANOS = 1000000000L / 60;
+    // Smaller swatches are drawn at a coarser level of detail when zoomed out (dp)
+    private static final float LOD_MIN_SWATCH_SIZE_DP = 8.0f;
 
     // Radius of the palette (0 => 1 swatch, 1 => 7 swatches, ...)
     private int mPaletteRadius;
+    // Generator of the swatch colors
+    private PaletteGenerator mPaletteGenerator;
+    // Number of value (brightness) layers and the shown one (0 is the brightest)
+    private int mValueLayers;
+    private int mValueLayer;
+    // Render mode (RENDER_MODE_VIEWS, RENDER_MODE_CANVAS or RENDER_MODE_GRADIENT)
+    private int mRenderMode;
     // Selected color value
     private int mSelectedColor;
     // Swatch views pivot point (pixels)
@@ -60,12 +103,139 @@ public class HexagonalColorPicker extends FrameLayout implements View.OnTouchLis
     private PointF mSwatchScale;
     // Check mark (selected color swatch)
     private ImageView mChecker;
-    // Animation interpolator
-    private final Interpolator mInterpolator = new OvershootInterpolator();
+    // Entrance animation of the swatches
+    private SwatchEntranceAnimator mEntranceAnimator;
+    // Entrance animation is enabled
+    private boolean mEntranceAnimation;
+    // Palettes with larger radius are not animated
+    private int mMaxAnimatedRadius;
+    // Entrance animation is played once the swatches are positioned
+    private boolean mEntrancePending;
     // Selected color listener
     private OnColorSelectedListener mListener;
+    // Live color listener (tracking mode)
+    private OnColorChangingListener mChangingListener;
+    // Selection follows the finger while dragging
+    private boolean mTrackingEnabled;
+    // A live color callback is posted for the next frame
+    private boolean mChangingPending;
+    // Delivers the latest live color once per frame
+    private final Runnable mDispatchChanging = new Runnable() {
+        @Override
+        public void run() {
+            mChangingPending = false;
+            if (mChangingListener != null) {
+                mChangingListener.onColorChanging(mSelectedColor);
+            }
+        }
+    };
     // Shadow color
     private GradientDrawable mShadowDrawable;
+    // Swatches as virtual accessibility views
+    private SwatchAccessibilityHelper mAccessibilityHelper;
+
+    // Metrics listener (nothing is measured without it) and its time source
+    private PickerMetrics mMetrics;
+    private PickerMetrics.Clock mClock = PickerMetrics.SYSTEM_CLOCK;
+    // Start of the first frame measurement (0 => not measured)
+    private long mFirstFrameStart;
+    // Entrance animation frame statistics
+    private long mAnimationStart;
+    private long mLastFrameTime;
+    private int mAnimationFrames;
+    private int mDroppedFrames;
+    // Time of the last touch down
+    private long mTouchDownTime;
+
+    // Shared palette data (colors, stroke colors and color lookup)
+    private PaletteTable mPalette;
+    // Fill and stroke colors of the shown value layer (shared with the palette table)
+    private int[] mLayerColors;
+    private int[] mLayerStrokeColors;
+    // Swatches have to be (re)built before the next measure
+    private boolean mPaletteDirty;
+    // Layout params shared by all swatch views (swatches are placed by onLayout)
+    private final LayoutParams mSwatchLayoutParams = new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
+    // Swatch left/top corners in pixels (not kept while zoomed, only the visible swatches are positioned)
+    private int[] mSwatchLeft;
+    private int[] mSwatchTop;
+    // Swatch size in pixels, padding and stroke width
+    private float mSwatchRadius;
+    private int mSwatchSize;
+    private int mSwatchPadding;
+    private int mStrokeWidth;
+    // Index of the selected swatch or -1
+    private int mSelectedIndex = -1;
+    // Paints and check mark drawable (canvas mode)
+    private final Paint mFillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mStrokePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mShadowPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF mDrawRect = new RectF();
+    private Drawable mCheckerDrawable;
+    // Swatches are blitted from pre-rasterized sprites (canvas mode)
+    private boolean mSpriteAtlasEnabled;
+    // Sprites for the current swatch size (dropped when the size changes)
+    private SwatchSpriteAtlas mSpriteAtlas;
+    private final Paint mSpritePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    // Retained static palette, the check mark is drawn over it (canvas mode)
+    private final PaletteLayer mPaletteLayer = new PaletteLayer(new PaletteLayer.Renderer() {
+        @Override
+        public void drawPalette(final Canvas canvas) {
+            for (int i = 0; i < mLayerColors.length; i++) {
+                drawSwatch(canvas, i, 1.0f);
+            }
+        }
+    });
+    // Rendered gradient for the current palette and size (gradient mode)
+    private PaletteGradient mGradient;
+    // Shows the gradient when its rendering on the background thread is finished
+    private final PaletteGradient.OnGradientReadyListener mGradientListener = new PaletteGradient.OnGradientReadyListener() {
+        @Override
+        public void onGradientReady(final PaletteGradient gradient) {
+            onGradientRendered();
+        }
+    };
+    // Drops the rendered gradients when the memory is low
+    private final ComponentCallbacks2 mTrimCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(final int level) {
+            if (level >= TRIM_MEMORY_RUNNING_LOW) {
+                PaletteGradient.clearCache();
+            }
+            if (level >= TRIM_MEMORY_UI_HIDDEN) {
+                // rendered again when the picker is drawn
+                mGradient = null;
+            }
+        }
+
+        @Override
+        public void onConfigurationChanged(final Configuration configuration) {
+        }
+
+        @Override
+        public void onLowMemory() {
+            PaletteGradient.clearCache();
+        }
+    };
+    // Touched point of the gradient, the check mark is drawn there instead of on the nearest swatch
+    private boolean mGradientPointSelected;
+    private float mGradientX;
+    private float mGradientY;
+    // Pinch zoom and pan of the palette (canvas mode)
+    private boolean mZoomEnabled;
+    private ZoomViewport mZoomViewport;
+    private ScaleGestureDetector mScaleDetector;
+    private int mTouchSlop;
+    // Current gesture: touch down point, last point, and whether it has panned or zoomed (no selection then)
+    private float mTouchDownX;
+    private float mTouchDownY;
+    private float mLastTouchX;
+    private float mLastTouchY;
+    private boolean mPanning;
+    private boolean mGestureZoomed;
+    // Focus of the pinch in the previous scale event
+    private float mLastFocusX;
+    private float mLastFocusY;
 
 
     /**
@@ -80,6 +250,19 @@ public class HexagonalColorPicker extends FrameLayout implements View.OnTouchLis
         void onColorSelected(final int color);
     }
 
+    /**
+     * The interface of live color listener (tracking mode).
+     * Calls are coalesced to at most one per display frame and always report the latest color.
+     */
+    public interface OnColorChangingListener {
+        /**
+         * Called while the selection is dragged across the palette.
+         *
+         * @param color Currently selected color
+         */
+        void onColorChanging(final int color);
+    }
+
     /**
      * Constructor.
      */
@@ -116,19 +299,73 @@ public class HexagonalColorPicker extends FrameLayout implements View.OnTouchLis
                 attrs, R.styleable.HexagonalColorPicker, defStyleAttr, defStyleAttr);
 
         mPaletteRadius = a.getInteger(R.styleable.HexagonalColorPicker_paletteRadius, DEFAULT_PALETTE_RADIUS);
+        mRenderMode = a.getInt(R.styleable.HexagonalColorPicker_renderMode, RENDER_MODE_VIEWS);
+        mPaletteGenerator = getPaletteGenerator(a.getInt(R.styleable.HexagonalColorPicker_paletteGenerator, PALETTE_HSV));
+        mValueLayers = Math.max(1, a.getInteger(R.styleable.HexagonalColorPicker_valueLayers, 1));
+        mEntranceAnimation = a.getBoolean(R.styleable.HexagonalColorPicker_entranceAnimation, true);
+        mMaxAnimatedRadius = a.getInteger(R.styleable.HexagonalColorPicker_maxAnimatedRadius, DEFAULT_MAX_ANIMATED_RADIUS);
+        mTrackingEnabled = a.getBoolean(R.styleable.HexagonalColorPicker_trackingEnabled, false);
+        mSpriteAtlasEnabled = a.getBoolean(R.styleable.HexagonalColorPicker_spriteAtlas, false);
+        mZoomEnabled = a.getBoolean(R.styleable.HexagonalColorPicker_zoomEnabled, false);
         a.recycle();
 
+        mZoomViewport = new ZoomViewport(LOD_MIN_SWATCH_SIZE_DP * getResources().getDisplayMetrics().density);
+        mTouchSlop = ViewConfiguration.get(getContext()).getScaledTouchSlop();
+        mScaleDetector = new ScaleGestureDetector(getContext(), new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScaleBegin(ScaleGestureDetector detector) {
+                mGestureZoomed = true;
+                mLastFocusX = detector.getFocusX();
+                mLastFocusY = detector.getFocusY();
+                cancelColorChanging();
+                return true;
+            }
+
+            @Override
+            public boolean onScale(ScaleGestureDetector detector) {
+                // the palette point under the fingers follows them
+                boolean changed = mZoomViewport.zoomBy(detector.getScaleFactor(), detector.getFocusX(), detector.getFocusY());
+                changed |= mZoomViewport.panBy(detector.getFocusX() - mLastFocusX, detector.getFocusY() - mLastFocusY);
+                mLastFocusX = detector.getFocusX();
+                mLastFocusY = detector.getFocusY();
+                if (changed) {
+                    onZoomChanged();
+                }
+                return true;
+            }
+        });
+
         mShadowDrawable = new GradientDrawable();
         mShadowDrawable.setShape(GradientDrawable.OVAL);
         mShadowDrawable.setColor(SHADOW_COLOR);
 
         mChecker = new ImageView(getContext());
         mChecker.setImageResource(R.drawable.ic_colorpicker_swatch_selected);
+        mChecker.setImportantForAccessibility(IMPORTANT_FOR_ACCESSIBILITY_NO);
+
+        mAccessibilityHelper = new SwatchAccessibilityHelper(this);
+        ViewCompat.setAccessibilityDelegate(this, mAccessibilityHelper);
+
+        mFillPaint.setStyle(Paint.Style.FILL);
+        mStrokePaint.setStyle(Paint.Style.STROKE);
+        mShadowPaint.setStyle(Paint.Style.FILL);
+        mShadowPaint.setColor(SHADOW_COLOR);
+
+        mEntranceAnimator = new SwatchEntranceAnimator(new SwatchEntranceAnimator.Callback() {
+            @Override
+            public void onSwatchesAnimated(final int from, final int to) {
+                applySwatchScale(from, to);
+                if (mMetrics != null) {
+                    traceAnimationFrame();
+                }
+            }
+        });
 
         mSelectedColor = Color.TRANSPARENT;
         mListener = null;
 
-        initSwatches();
+        // the swatches are built on the first measure
+        invalidatePalette();
     }
 
     /**
@@ -140,259 +377,1545 @@ public class HexagonalColorPicker extends FrameLayout implements View.OnTouchLis
      */
     public void setAttrs(final int paletteRadius, final int selectedColor, final OnColorSelectedListener listener) {
 
-        mPaletteRadius = paletteRadius;
-        mSelectedColor = selectedColor;
         mListener = listener;
+        if (mPaletteRadius != paletteRadius) {
+            mPaletteRadius = paletteRadius;
+            invalidatePalette();
+        }
+        setSelectedColor(selectedColor);
+    }
 
-        initSwatches();
+    /**
+     * Gets one of the built-in palette generators.
+     *
+     * @param palette {@link #PALETTE_HSV} or {@link #PALETTE_OKLCH}
+     * @return Palette generator
+     */
+    public static PaletteGenerator getPaletteGenerator(final int palette) {
+        switch (palette) {
+            case PALETTE_HSV:
+                return HsvPaletteGenerator.INSTANCE;
+            case PALETTE_OKLCH:
+                return OklchPaletteGenerator.INSTANCE;
+            default:
+                throw new IllegalArgumentException("Unknown palette: " + palette);
+        }
     }
 
     /**
-     * Initialize color swatches (child views).
+     * Sets palette generator (the swatches are recolored before the next layout).
+     *
+     * @param generator Palette generator (e.g. {@link #getPaletteGenerator(int)})
      */
-    private void initSwatches() {
+    public void setPaletteGenerator(final PaletteGenerator generator) {
+        if (generator == null) {
+            throw new IllegalArgumentException("Palette generator must not be null.");
+        }
+        if (mPaletteGenerator != generator) {
+            mPaletteGenerator = generator;
+            invalidatePalette();
+        }
+    }
 
-        removeAllViews();
-        final int swatchCount = getSwatchCount(mPaletteRadius);
+    /**
+     * Gets palette generator.
+     *
+     * @return Palette generator
+     */
+    public PaletteGenerator getPaletteGenerator() {
+        return mPaletteGenerator;
+    }
 
-        int index = 0;
-        for (int y = -mPaletteRadius * 2; y <= mPaletteRadius * 2; y += 2) {
-            final int rowSize = mPaletteRadius * 2 - Math.abs(y / 2);
-            for (int x = -rowSize; x <= rowSize; x += 2) {
-                final PointF position = new PointF((float) x / (mPaletteRadius * 2 + 1), (float) y / (mPaletteRadius * 2 + 1));
-                final int color = calculateColor(x, y);
-                final int animDelay = (ANIM_TIME_VIEW - ANIM_TIME_SWATCH) * index++ / swatchCount;
-                HexagonalColorSwatch swatch = new HexagonalColorSwatch(getContext(), color, position, animDelay, mShadowDrawable);
-                addView(swatch);
-                swatch.setOnTouchListener(this);
-            }
+    /**
+     * Sets a prepared palette (e.g. from {@link PaletteTable#obtainAsync}),
+     * its generator and radius become the palette generator and radius.
+     *
+     * @param palette Palette table
+     */
+    public void setPalette(final PaletteTable palette) {
+        mPaletteGenerator = palette.mGenerator;
+        mPaletteRadius = palette.mRadius;
+        if (mPalette != palette) {
+            mPalette = palette;
+            invalidatePalette();
         }
+    }
 
-        if (index != swatchCount) {
-            throw new IllegalStateException("The number of color swatches and palette radius are inconsistent.");
+    /**
+     * Sets selected color (moves the check mark, the palette is not rebuilt).
+     *
+     * @param selectedColor Selected color
+     */
+    public void setSelectedColor(final int selectedColor) {
+        mSelectedColor = selectedColor;
+        mGradientPointSelected = false;
+        if (mPaletteDirty || mPalette == null) {
+            // the selected swatch is found when the palette is built
+            return;
+        }
+        final int oldIndex = mSelectedIndex;
+        final int layer = findValueLayer(selectedColor);
+        mSelectedIndex = findSelectedIndex(selectedColor);
+        if (layer != mValueLayer) {
+            mValueLayer = layer;
+            loadLayerColors();
+            recolorSwatches();
+        } else if (mRenderMode != RENDER_MODE_VIEWS) {
+            invalidateSelection(oldIndex);
+        }
+        if (mRenderMode == RENDER_MODE_VIEWS) {
+            updateCheckerPosition();
         }
+        invalidateAccessibleSelection(oldIndex);
+    }
 
-        addView(mChecker);
+    /**
+     * Finds the value layer of a color (its brightness). Empty colors keep the current layer,
+     * so a picker without a preset color opens on the brightest one.
+     *
+     * @param color Color
+     * @return Layer index
+     */
+    private int findValueLayer(final int color) {
+        if (mValueLayers <= 1) {
+            return 0;
+        }
+        if (ColorMath.isEmpty(color)) {
+            return Math.min(mValueLayer, mValueLayers - 1);
+        }
+        return HexPalette.findValueLayer(color, mValueLayers);
+    }
 
-        updateSwatchesPosition();
+    /**
+     * Finds the swatch of a color (in the layer given by {@link #findValueLayer(int)}).
+     * Empty colors (e.g. the default {@link Color#TRANSPARENT}) mean no selection.
+     *
+     * @param color Color
+     * @return Swatch index or -1
+     */
+    private int findSelectedIndex(final int color) {
+        if (ColorMath.isEmpty(color)) {
+            return -1;
+        }
+        if (mValueLayers <= 1) {
+            return mPalette.findNearestColor(color);
+        }
+        // the brightness selects the layer, the swatch is found in the full brightness layer
+        return mPalette.findNearestColor(ColorMath.hsvToColor(color >>> 24,
+                ColorMath.hue(color), ColorMath.saturation(color), 1.0f));
     }
 
     /**
-     * Sets color change listener.
+     * Sets the number of value (brightness) layers, the brightest layer is shown.
      *
-     * @param listener New listener
+     * @param layerCount Number of layers (1 => no darker layers)
      */
-    public void setListener(final OnColorSelectedListener listener) {
-        mListener = listener;
+    public void setValueLayers(final int layerCount) {
+        if (layerCount < 1) {
+            throw new IllegalArgumentException("Number of value layers must be positive: " + layerCount);
+        }
+        if (mValueLayers != layerCount) {
+            mValueLayers = layerCount;
+            mValueLayer = 0;
+            showValueLayer();
+        }
     }
 
     /**
-     * Gets selected color.
+     * Gets the number of value layers.
      *
-     * @return Selected color
+     * @return Number of layers
      */
-    public int getSelectedColor() {
-        return mSelectedColor;
+    public int getValueLayers() {
+        return mValueLayers;
     }
 
-    @Override
-    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
-        super.onLayout(changed, left, top, right, bottom);
-        if (changed) {
-            updateSwatchesPosition();
+    /**
+     * Shows a value (brightness) layer. The swatches are only recolored, so this is cheap enough
+     * to be called from a slider or during a drag. The selected swatch keeps its position
+     * and the selected color changes to its color in the new layer (reported as a live color).
+     *
+     * @param layer Layer index (0 is the brightest one)
+     */
+    public void setValueLayer(final int layer) {
+        if (layer < 0 || layer >= mValueLayers) {
+            throw new IllegalArgumentException("Value layer out of range: " + layer);
+        }
+        if (mValueLayer != layer) {
+            mValueLayer = layer;
+            showValueLayer();
         }
     }
 
     /**
-     * Updates the position of check mark.
-     * Call when selected color is changed.
+     * Gets the shown value layer.
      *
-     * @param item New selected color swatch
+     * @return Layer index (0 is the brightest one)
      */
-    private void updateCheckerPosition(final HexagonalColorSwatch item) {
-        mChecker.setLayoutParams(item.getLayoutParams());
-        mChecker.setPadding(item.getPaddingLeft(), item.getPaddingTop(), item.getPaddingRight(), item.getPaddingBottom());
+    public int getValueLayer() {
+        return mValueLayer;
     }
 
     /**
-     * Update position of all color swatches (child views).
-     * Called after layout change.
+     * Recolors the swatches with the current value layer and updates the selected color.
      */
-    private void updateSwatchesPosition() {
-        if (mSwatchScale == null || mSwatchPivot == null) {
+    private void showValueLayer() {
+        if (mPalette == null || mPaletteDirty) {
+            // applied when the palette is built
             return;
         }
+        loadLayerColors();
+        recolorSwatches();
+        // content descriptions contain the colors
+        mAccessibilityHelper.invalidateRoot();
+        if (mGradientPointSelected) {
+            // without the rendered gradient the color is updated when it is ready (see onGradientRendered)
+            final PaletteGradient gradient = obtainGradient();
+            if (gradient != null) {
+                mSelectedColor = gradient.getColorAt((int) mGradientX, (int) mGradientY);
+                postColorChanging();
+            }
+        } else if (mSelectedIndex >= 0) {
+            mSelectedColor = mLayerColors[mSelectedIndex];
+            postColorChanging();
+        }
+    }
 
-        final float swatchRadius = getSwatchRadius();
-        final int padding = (int) (0.075f * swatchRadius);
-        final int strokeWidth = (int) (0.05f * swatchRadius);
+    /**
+     * Gets the fill and stroke colors of the current value layer from the palette table.
+     */
+    private void loadLayerColors() {
+        mLayerColors = mPalette.getLayerColors(mValueLayer, mValueLayers);
+        mLayerStrokeColors = mPalette.getLayerStrokeColors(mValueLayer, mValueLayers);
+    }
 
-        for (int i = 0; i < getChildCount(); i++) {
-            final View childView = getChildAt(i);
-            if (childView instanceof HexagonalColorSwatch) {
-                final HexagonalColorSwatch item = (HexagonalColorSwatch) childView;
-                final int swatchSize = (int) (swatchRadius - strokeWidth) * 2;
-                FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(swatchSize, swatchSize);
-                params.leftMargin = (int) (getItemPositionX(item) - swatchRadius);
-                params.topMargin = (int) (getItemPositionY(item) - swatchRadius);
-                params.gravity = Gravity.TOP | Gravity.LEFT;
-                item.setLayoutParams(params);
-                item.setPadding(0, 0, padding, padding);
-                item.updateStrokeWidth(strokeWidth);
+    /**
+     * Applies the colors of the current value layer to the swatches (no rebuild, no relayout).
+     */
+    private void recolorSwatches() {
+        if (mRenderMode != RENDER_MODE_VIEWS) {
+            mPaletteLayer.invalidate();
+            invalidate();
+            return;
+        }
+        final int swatchCount = Math.min(getChildCount(), mLayerColors.length);
+        for (int i = 0; i < swatchCount; i++) {
+            final View child = getChildAt(i);
+            if (child instanceof HexagonalColorSwatch) {
+                applySwatchColor((HexagonalColorSwatch) child, mLayerColors[i], mLayerStrokeColors[i]);
+            }
+        }
+    }
 
-                final Animation itemAnim = createSwatchAnimation(swatchRadius, item.mAnimDelay);
-                item.startAnimation(itemAnim);
+    /**
+     * Recolors a swatch view, empty swatches (padding of library palettes) are hidden.
+     *
+     * @param swatch      Swatch view
+     * @param color       Fill color of the swatch
+     * @param strokeColor Stroke color of the swatch
+     */
+    private static void applySwatchColor(final HexagonalColorSwatch swatch, final int color, final int strokeColor) {
+        swatch.setColors(color, strokeColor);
+        swatch.setVisibility(ColorMath.isEmpty(color) ? INVISIBLE : VISIBLE);
+    }
 
-                if (item.mColor == mSelectedColor) {
-                    updateCheckerPosition(item);
-                    mChecker.startAnimation(itemAnim);
-                }
-            }
+    /**
+     * Marks the swatches to be rebuilt before the next measure.
+     */
+    private void invalidatePalette() {
+        mPaletteDirty = true;
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Sets render mode.
+     *
+     * @param renderMode {@link #RENDER_MODE_VIEWS}, {@link #RENDER_MODE_CANVAS} or {@link #RENDER_MODE_GRADIENT}
+     */
+    public void setRenderMode(final int renderMode) {
+        if (renderMode != RENDER_MODE_VIEWS && renderMode != RENDER_MODE_CANVAS && renderMode != RENDER_MODE_GRADIENT) {
+            throw new IllegalArgumentException("Unknown render mode: " + renderMode);
+        }
+        if (mRenderMode != renderMode) {
+            mRenderMode = renderMode;
+            mZoomViewport.reset();
+            invalidatePalette();
         }
     }
 
     /**
-     * Creates a animation for swatch item or returns null!
+     * Gets render mode.
      *
-     * @param swatchRadius Radius of the color swatch
-     * @param delay        Animation delay
-     * @return Animation object or null
+     * @return {@link #RENDER_MODE_VIEWS}, {@link #RENDER_MODE_CANVAS} or {@link #RENDER_MODE_GRADIENT}
      */
-    private Animation createSwatchAnimation(final float swatchRadius, final int delay) {
-        ScaleAnimation scaleAnim = new ScaleAnimation(0.0f, 1.0f, 0.0f, 1.0f, swatchRadius, swatchRadius);
-        scaleAnim.setDuration(ANIM_TIME_SWATCH);
-        scaleAnim.setStartOffset(delay);
-        scaleAnim.setInterpolator(mInterpolator);
-        return scaleAnim;
+    public int getRenderMode() {
+        return mRenderMode;
     }
 
     /**
-     * Calculates the count of color swatches per palette radius.
+     * Enables or disables drawing of the swatches from a shared pre-rasterized sprite atlas.
+     * The shadow, fill and stroke shapes are rasterized once per swatch size and tinted per swatch.
+     * Used only in {@link #RENDER_MODE_CANVAS}.
      *
-     * @param radius Palette radius
-     * @return color swatches count
+     * @param enabled True to blit the swatches from the sprite atlas
      */
-    private static int getSwatchCount(final int radius) {
-        return 3 * radius * (radius + 1) + 1;
+    public void setSpriteAtlasEnabled(final boolean enabled) {
+        if (mSpriteAtlasEnabled != enabled) {
+            mSpriteAtlasEnabled = enabled;
+            mSpriteAtlas = null;
+            mPaletteLayer.invalidate();
+            invalidate();
+        }
     }
 
     /**
-     * Calculates the radius of a color swatch.
+     * Enables or disables pinch zoom and pan of the palette, meant for large palette radii.
+     * Only the swatches in the view are laid out and drawn, small swatches are drawn at a coarser
+     * level of detail. Without tracking mode a drag pans and a tap selects the swatch (on release),
+     * with tracking mode one finger selects and two fingers zoom and pan.
+     * Used only in {@link #RENDER_MODE_CANVAS}.
      *
-     * @return Radius of a color swatch.
+     * @param enabled True to enable zoom and pan
      */
-    private float getSwatchRadius() {
-        if (mSwatchScale == null) {
-            return 0.0f;
+    public void setZoomEnabled(final boolean enabled) {
+        if (mZoomEnabled != enabled) {
+            mZoomEnabled = enabled;
+            mZoomViewport.reset();
+            mPaletteLayer.invalidate();
+            updateSwatchesPosition();
         }
-        return 0.5f * mSwatchScale.x / (mPaletteRadius * 2 + 1);
     }
 
     /**
-     * Calculates the X coordinate of a color swatch item.
-     * Item coordinates are relative (from -1.0 to 1.0)
+     * Checks whether zoom and pan are enabled.
      *
-     * @param item Color swatch item
-     * @return X coordinate in pixels
+     * @return True if the palette can be zoomed
+     */
+    public boolean isZoomEnabled() {
+        return mZoomEnabled;
+    }
+
+    /**
+     * Zooms out to the whole palette.
      */
-    private float getItemPositionX(final HexagonalColorSwatch item) {
-        return mSwatchPivot.x + (item.mPosition.x * 0.5f * mSwatchScale.x);
+    public void resetZoom() {
+        mZoomViewport.reset();
+        onZoomChanged();
     }
 
     /**
-     * Calculates the Y coordinate of a color swatch item.
-     * Item coordinates are relative (from -1.0 to 1.0)
+     * Checks whether the palette is zoomed (zoom is enabled and canvas mode is used).
      *
-     * @param item Color swatch item
-     * @return Y coordinate in pixels
+     * @return True if the swatches are laid out and drawn through the zoom viewport
+     */
+    private boolean isZoomActive() {
+        return mZoomEnabled && mRenderMode == RENDER_MODE_CANVAS;
+    }
+
+    /**
+     * Updates the swatch size for the new zoom and redraws the visible swatches.
      */
-    private float getItemPositionY(final HexagonalColorSwatch item) {
-        return mSwatchPivot.y + (item.mPosition.y * 0.5f * mSwatchScale.y);
+    private void onZoomChanged() {
+        if (isZoomActive() && mSwatchScale != null) {
+            updateSwatchSize();
+            invalidate();
+            mAccessibilityHelper.invalidateRoot();
+        }
     }
 
     /**
-     * Calculates the color of a color swatch according to item position.
+     * Enables or disables the entrance animation of the swatches.
      *
-     * @param x X coordinate
-     * @param y Y coordinate
-     * @return Color of the swatch
+     * @param enabled True to animate the swatches when the palette is shown
      */
-    private int calculateColor(final int x, final int y) {
-        if (isInEditMode()) {
-            // the calculation is using native functions and they don't work in edit mode
-            return Color.CYAN;
+    public void setEntranceAnimation(final boolean enabled) {
+        mEntranceAnimation = enabled;
+        if (!enabled) {
+            mEntrancePending = false;
+            mEntranceAnimator.end();
         }
-        final float radius = (float) (mPaletteRadius * 2);
-        final float[] hsv = {
-                360.0f * (float) (0.5 + 0.5 * Math.atan2(y, x) / Math.PI),  // hue
-                (float) Math.sqrt(x * x + y * y) / radius,                  // saturation
-                1.0f                                                        // value
-        };
-        return Color.HSVToColor(hsv);
     }
 
     /**
-     * Calculates the stroke color for a color swatch (slightly darker than color fill).
+     * Sets the maximal palette radius which is animated (larger palettes appear without animation).
      *
-     * @param color Color of the swatch
-     * @return The stroke color
+     * @param radius Maximal animated palette radius
      */
-    public static int calculateStrokeColor(final int color) {
-        return Color.rgb(Color.red(color) / 2, Color.green(color) / 2, Color.blue(color) / 2);
+    public void setMaxAnimatedRadius(final int radius) {
+        mMaxAnimatedRadius = radius;
     }
 
-    @Override
-    public boolean onTouch(View view, MotionEvent motionEvent) {
-        switch (motionEvent.getAction()) {
-            case MotionEvent.ACTION_DOWN:
-                final HexagonalColorSwatch item = (HexagonalColorSwatch) view;
-                mSelectedColor = item.mColor;
-                updateCheckerPosition(item);
-                break;
+    /**
+     * Plays the entrance animation of the swatches (now or as soon as the swatches are positioned).
+     */
+    public void animateEntrance() {
+        mEntrancePending = true;
+        startEntranceAnimation();
+    }
 
-            case MotionEvent.ACTION_UP:
-                mListener.onColorSelected(mSelectedColor);
-                break;
+    /**
+     * Starts the pending entrance animation if the swatches are positioned.
+     */
+    private void startEntranceAnimation() {
+        if (!mEntrancePending || mSwatchSize <= 0) {
+            return;
         }
-        return true;
+        mEntrancePending = false;
+        if (!mEntranceAnimation || mPaletteRadius > mMaxAnimatedRadius || mRenderMode == RENDER_MODE_GRADIENT
+                || isZoomActive() || isInEditMode()) {
+            return;
+        }
+        final int swatchCount = mLayerColors.length;
+        if (mMetrics != null) {
+            mAnimationStart = mClock.nanoTime();
+            mLastFrameTime = mAnimationStart;
+            mAnimationFrames = 0;
+            mDroppedFrames = 0;
+        }
+        mEntranceAnimator.start(swatchCount);
+        applySwatchScale(0, swatchCount);
     }
 
-    protected void onSizeChanged(int w, int h, int oldW, int oldH) {
+    /**
+     * Counts an entrance animation frame and reports the statistics after the last one.
+     */
+    private void traceAnimationFrame() {
+        if (mAnimationStart == 0) {
+            // the animation was started without metrics
+            return;
+        }
+        final long now = mClock.nanoTime();
+        mAnimationFrames++;
+        // a gap of n frame intervals means n - 1 missed frames
+        final long missed = Math.round((double) (now - mLastFrameTime) / FRAME_INTERVAL_NANOS) - 1;
+        if (missed > 0) {
+            mDroppedFrames += (int) missed;
+        }
+        mLastFrameTime = now;
+        if (!mEntranceAnimator.isRunning()) {
+            mMetrics.onEntranceAnimationFinished(mAnimationFrames, mDroppedFrames, now - mAnimationStart);
+            mAnimationStart = 0;
+        }
+    }
 
-        final float width = w - getPaddingLeft() - getPaddingRight();
-        final float height = h - getPaddingTop() - getPaddingBottom();
-        mSwatchPivot = new PointF(width / 2.0f, height / 2.0f);
-        // additional padding for swatch stroke and overshoot animation
-        final float strokePadding = Math.min(w, h) * 0.05f;
-        mSwatchScale = new PointF(width - strokePadding, height - strokePadding);
+    /**
+     * Sets performance metrics listener.
+     *
+     * @param metrics Listener or null (disables the measurements)
+     */
+    public void setMetrics(final PickerMetrics metrics) {
+        mMetrics = metrics;
+        if (metrics == null) {
+            mFirstFrameStart = 0;
+            mAnimationStart = 0;
+        }
+    }
 
-        if (width > height * VIEW_ASPECT_RATIO) {
-            final float diff = width - height * VIEW_ASPECT_RATIO;
-            mSwatchScale.x -= diff;
-        } else if (height > width / VIEW_ASPECT_RATIO) {
-            final float diff = height - width / VIEW_ASPECT_RATIO;
-            mSwatchScale.y -= diff;
+    /**
+     * Sets the time source of the metrics.
+     *
+     * @param clock Clock (e.g. {@link PickerMetrics#SYSTEM_CLOCK})
+     */
+    public void setMetricsClock(final PickerMetrics.Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock must not be null.");
         }
+        mClock = clock;
+    }
 
-        updateSwatchesPosition();
+    /**
+     * Starts the first frame measurement (e.g. when the dialog is shown).
+     *
+     * @param startNanos Start time (of the metrics clock)
+     */
+    void traceFirstFrame(final long startNanos) {
+        if (mMetrics != null) {
+            mFirstFrameStart = startNanos;
+        }
     }
 
-    @Override
-    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+    /**
+     * Applies the current animation scale to the swatches in the given range.
+     *
+     * @param from First swatch index
+     * @param to   End of the range (exclusive)
+     */
+    private void applySwatchScale(final int from, final int to) {
+        if (mRenderMode != RENDER_MODE_VIEWS) {
+            invalidate();
+            return;
+        }
+        final int swatchCount = Math.min(to, getChildCount() - 1);
+        for (int i = from; i < swatchCount; i++) {
+            final float scale = mEntranceAnimator.getScale(i);
+            final View child = getChildAt(i);
+            child.setScaleX(scale);
+            child.setScaleY(scale);
+            if (i == mSelectedIndex) {
+                mChecker.setScaleX(scale);
+                mChecker.setScaleY(scale);
+            }
+        }
+    }
+
+    /**
+     * Initialize color swatches (child views in views mode, primitive arrays in canvas and gradient mode).
+     * Existing swatch views are recolored and reused, only the missing ones are created.
+     */
+    private void initSwatches() {
+
+        final long start = mMetrics != null ? mClock.nanoTime() : 0;
+        mPaletteDirty = false;
+        final int swatchCount = getSwatchCount(mPaletteRadius);
+        final boolean canvasMode = mRenderMode != RENDER_MODE_VIEWS;
 
-        int widthMode = MeasureSpec.getMode(widthMeasureSpec);
-        int widthSize = MeasureSpec.getSize(widthMeasureSpec);
-        int heightMode = MeasureSpec.getMode(heightMeasureSpec);
-        int heightSize = MeasureSpec.getSize(heightMeasureSpec);
+        mEntranceAnimator.end();
+        mEntrancePending = true;
+        if (mPalette == null || mPalette.mRadius != mPaletteRadius || mPalette.mGenerator != mPaletteGenerator) {
+            mPalette = PaletteTable.obtain(mPaletteGenerator, mPaletteRadius);
+        }
+        mSwatchSize = 0;
+        mValueLayer = findValueLayer(mSelectedColor);
+        loadLayerColors();
+        mSelectedIndex = findSelectedIndex(mSelectedColor);
+        mGradientPointSelected = false;
 
-        if (widthMode == MeasureSpec.EXACTLY && heightMode == MeasureSpec.UNSPECIFIED) {
-            heightSize = (int) (widthSize / VIEW_ASPECT_RATIO);
+        if (canvasMode) {
+            removeAllViewsInLayout();
+            if (mCheckerDrawable == null) {
+                mCheckerDrawable = ContextCompat.getDrawable(getContext(), R.drawable.ic_colorpicker_swatch_selected);
+            }
+            setWillNotDraw(false);
+        } else {
+            // all children except of the check mark (the last one) are swatches
+            final int checkerIndex = indexOfChild(mChecker);
+            if (checkerIndex >= 0) {
+                removeViewsInLayout(checkerIndex, 1);
+            }
+            final int reused = Math.min(getChildCount(), swatchCount);
+            if (getChildCount() > swatchCount) {
+                removeViewsInLayout(swatchCount, getChildCount() - swatchCount);
+            }
+            for (int index = 0; index < reused; index++) {
+                applySwatchColor((HexagonalColorSwatch) getChildAt(index), mLayerColors[index], mLayerStrokeColors[index]);
+            }
+            for (int index = reused; index < swatchCount; index++) {
+                final HexagonalColorSwatch swatch = new HexagonalColorSwatch(getContext(), mLayerColors[index],
+                        mLayerStrokeColors[index], mShadowDrawable);
+                // swatches are reported by the accessibility helper
+                swatch.setImportantForAccessibility(IMPORTANT_FOR_ACCESSIBILITY_NO);
+                swatch.setVisibility(ColorMath.isEmpty(mLayerColors[index]) ? INVISIBLE : VISIBLE);
+                addViewInLayout(swatch, -1, mSwatchLayoutParams);
+            }
+            addViewInLayout(mChecker, -1, mSwatchLayoutParams);
+            setWillNotDraw(true);
         }
-        if (widthMode == MeasureSpec.UNSPECIFIED && heightMode == MeasureSpec.EXACTLY) {
-            widthSize = (int) (heightSize * VIEW_ASPECT_RATIO);
+
+        updateSwatchesPosition();
+        mAccessibilityHelper.invalidateRoot();
+        if (mMetrics != null) {
+            mMetrics.onPaletteBuilt(mPaletteRadius, swatchCount, mClock.nanoTime() - start);
         }
+    }
 
-        setMeasuredDimension(widthSize, heightSize);
+    /**
+     * Sets color change listener.
+     *
+     * @param listener New listener
+     */
+    public void setListener(final OnColorSelectedListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Sets live color listener (called at most once per frame while dragging in tracking mode).
+     *
+     * @param listener New listener
+     */
+    public void setOnColorChangingListener(final OnColorChangingListener listener) {
+        mChangingListener = listener;
+    }
+
+    /**
+     * Enables or disables tracking mode (the selection follows the finger while dragging).
+     *
+     * @param enabled True to select swatches on move
+     */
+    public void setTrackingEnabled(final boolean enabled) {
+        mTrackingEnabled = enabled;
+    }
+
+    /**
+     * Checks whether tracking mode is enabled.
+     *
+     * @return True if the selection follows the finger
+     */
+    public boolean isTrackingEnabled() {
+        return mTrackingEnabled;
+    }
+
+    /**
+     * Gets selected color.
+     *
+     * @return Selected color
+     */
+    public int getSelectedColor() {
+        return mSelectedColor;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        final Context application = getContext().getApplicationContext();
+        if (application != null) {
+            application.registerComponentCallbacks(mTrimCallbacks);
+        }
+        if (mMetrics != null && mFirstFrameStart == 0) {
+            mFirstFrameStart = mClock.nanoTime();
+        }
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        super.dispatchDraw(canvas);
+        if (mMetrics != null && mFirstFrameStart != 0 && mSwatchSize > 0) {
+            mMetrics.onFirstFrame(mClock.nanoTime() - mFirstFrameStart);
+            mFirstFrameStart = 0;
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mEntranceAnimator.end();
+        cancelColorChanging();
+        mPaletteLayer.release();
+        final Context application = getContext().getApplicationContext();
+        if (application != null) {
+            application.unregisterComponentCallbacks(mTrimCallbacks);
+        }
+        if (mGradient != null) {
+            PaletteGradient.release(mGradient);
+            mGradient = null;
+        }
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        // children are placed directly from the precomputed offsets (no layout params)
+        if (mRenderMode != RENDER_MODE_VIEWS || mSwatchSize <= 0) {
+            return;
+        }
+        final int swatchCount = mLayerColors.length;
+        for (int i = 0; i < swatchCount; i++) {
+            layoutSwatch(getChildAt(i), i);
+        }
+        updateCheckerPosition();
+    }
+
+    /**
+     * Measures (if needed) and places a child view at the position of a color swatch.
+     *
+     * @param child Child view
+     * @param index Swatch index
+     */
+    private void layoutSwatch(final View child, final int index) {
+        if (child.isLayoutRequested() || child.getMeasuredWidth() != mSwatchSize || child.getMeasuredHeight() != mSwatchSize) {
+            final int sizeSpec = MeasureSpec.makeMeasureSpec(mSwatchSize, MeasureSpec.EXACTLY);
+            child.measure(sizeSpec, sizeSpec);
+        }
+        final int left = mSwatchLeft[index];
+        final int top = mSwatchTop[index];
+        child.layout(left, top, left + mSwatchSize, top + mSwatchSize);
+    }
+
+    /**
+     * Updates the position of check mark (views mode).
+     * Call when selected color is changed.
+     */
+    private void updateCheckerPosition() {
+        if (mSelectedIndex < 0 || mSwatchSize <= 0) {
+            mChecker.setVisibility(INVISIBLE);
+            return;
+        }
+        mChecker.setVisibility(VISIBLE);
+        layoutSwatch(mChecker, mSelectedIndex);
+    }
+
+    /**
+     * Update position of all color swatches (pixel offsets, sizes and stroke widths).
+     * Called when the size or the palette is changed, the swatches are placed by onLayout.
+     */
+    private void updateSwatchesPosition() {
+        if (mSwatchScale == null || mSwatchPivot == null) {
+            return;
+        }
+
+        final long start = mMetrics != null ? mClock.nanoTime() : 0;
+        if (isZoomActive()) {
+            mZoomViewport.setGeometry(mPaletteRadius, getPaddingLeft() + mSwatchPivot.x, getPaddingTop() + mSwatchPivot.y,
+                    mSwatchScale.x, mSwatchScale.y, getWidth(), getHeight());
+        }
+        updateSwatchSize();
+        final float swatchRadius = mSwatchRadius;
+        final int padding = mSwatchPadding;
+        final int strokeWidth = mStrokeWidth;
+
+        // with zoom only the visible swatches are positioned, when they are drawn (see drawVisibleSwatches)
+        int swatchCount = 0;
+        if (isZoomActive()) {
+            mSwatchLeft = null;
+            mSwatchTop = null;
+        } else {
+            swatchCount = getSwatchCount(mPaletteRadius);
+            if (mSwatchLeft == null || mSwatchLeft.length != swatchCount) {
+                mSwatchLeft = new int[swatchCount];
+                mSwatchTop = new int[swatchCount];
+            }
+            HexGrid.fillPixelPositions(mPaletteRadius, mSwatchPivot.x, mSwatchPivot.y,
+                    mSwatchScale.x, mSwatchScale.y, mSwatchLeft, mSwatchTop);
+            final int paddingLeft = getPaddingLeft();
+            final int paddingTop = getPaddingTop();
+            for (int i = 0; i < swatchCount; i++) {
+                mSwatchLeft[i] += paddingLeft;
+                mSwatchTop[i] += paddingTop;
+            }
+        }
+
+        if (mRenderMode != RENDER_MODE_VIEWS) {
+            mPaletteLayer.invalidate();
+            invalidate();
+        } else {
+            // the swatches are scaled around the same pivot as the swatch bounds
+            mChecker.setPadding(0, 0, padding, padding);
+            mChecker.setPivotX(swatchRadius);
+            mChecker.setPivotY(swatchRadius);
+            for (int i = 0; i < swatchCount; i++) {
+                final HexagonalColorSwatch item = (HexagonalColorSwatch) getChildAt(i);
+                item.setPadding(0, 0, padding, padding);
+                item.setPivotX(swatchRadius);
+                item.setPivotY(swatchRadius);
+                item.updateStrokeWidth(strokeWidth);
+            }
+        }
+
+        if (mMetrics != null) {
+            mMetrics.onSwatchesLaidOut(swatchCount, mClock.nanoTime() - start);
+        }
+        startEntranceAnimation();
+    }
+
+    /**
+     * Updates the swatch radius, size, padding and stroke width (for the view size and the zoom).
+     */
+    private void updateSwatchSize() {
+        final float swatchRadius = getSwatchRadius();
+        final int strokeWidth = (int) (0.05f * swatchRadius);
+        mSwatchRadius = swatchRadius;
+        mSwatchSize = (int) (swatchRadius - strokeWidth) * 2;
+        mSwatchPadding = (int) (0.075f * swatchRadius);
+        mStrokeWidth = strokeWidth;
+    }
+
+    /**
+     * Calculates the count of color swatches per palette radius.
+     *
+     * @param radius Palette radius
+     * @return color swatches count
+     */
+    private static int getSwatchCount(final int radius) {
+        return HexGrid.getSwatchCount(radius);
+    }
+
+    /**
+     * Calculates the radius of a color swatch (at the current zoom).
+     *
+     * @return Radius of a color swatch.
+     */
+    private float getSwatchRadius() {
+        if (mSwatchScale == null) {
+            return 0.0f;
+        }
+        return HexGrid.getSwatchRadius(mPaletteRadius, isZoomActive() ? mZoomViewport.getScaleX() : mSwatchScale.x);
+    }
+
+    /**
+     * Calculates the stroke color for a color swatch (slightly darker than color fill).
+     *
+     * @param color Color of the swatch
+     * @return The stroke color
+     */
+    public static int calculateStrokeColor(final int color) {
+        return ColorMath.strokeColor(color);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (mRenderMode == RENDER_MODE_GRADIENT) {
+            final PaletteGradient gradient = obtainGradient();
+            // while another value layer is rendered, the previous gradient of the same size is shown
+            final PaletteGradient shown = gradient != null ? gradient : mGradient;
+            if (shown != null && mSwatchSize > 0
+                    && shown.getBitmap().getWidth() == getWidth() && shown.getBitmap().getHeight() == getHeight()) {
+                canvas.drawBitmap(shown.getBitmap(), 0.0f, 0.0f, null);
+                if (gradient != null) {
+                    drawGradientChecker(canvas);
+                }
+            }
+            return;
+        }
+        if (mRenderMode != RENDER_MODE_CANVAS || mLayerColors == null || mSwatchSize <= 0) {
+            return;
+        }
+
+        mStrokePaint.setStrokeWidth(mStrokeWidth);
+        if (isZoomActive()) {
+            // the swatch size changes with every zoom step, so neither sprites nor the retained layer are used
+            drawVisibleSwatches(canvas);
+            drawChecker(canvas, 1.0f);
+            return;
+        }
+        if (mSpriteAtlasEnabled && (mSpriteAtlas == null || !mSpriteAtlas.matches(mSwatchSize, mSwatchPadding, mStrokeWidth))) {
+            mSpriteAtlas = SwatchSpriteAtlas.obtain(mSwatchSize, mSwatchPadding, mStrokeWidth);
+        }
+
+        if (!mEntranceAnimator.isRunning()) {
+            // the static palette is replayed, only the check mark is drawn on top of it
+            mPaletteLayer.draw(canvas, getWidth(), getHeight());
+            drawChecker(canvas, 1.0f);
+            return;
+        }
+
+        // only the swatches which have already started their animation are drawn
+        final int swatchCount = mLayerColors.length;
+        final int visibleEnd = Math.min(mEntranceAnimator.getVisibleEnd(), swatchCount);
+        final int doneEnd = mEntranceAnimator.getDoneEnd();
+        for (int i = 0; i < visibleEnd; i++) {
+            drawSwatch(canvas, i, i < doneEnd ? 1.0f : mEntranceAnimator.getScale(i));
+        }
+        if (mSelectedIndex >= 0 && mSelectedIndex < visibleEnd) {
+            drawChecker(canvas, mSelectedIndex < doneEnd ? 1.0f : mEntranceAnimator.getScale(mSelectedIndex));
+        }
+    }
+
+    /**
+     * Draws the swatches in the view (zoom enabled). The visible rows and the visible part of every row
+     * are calculated from the view bounds, the swatches are positioned as they are drawn.
+     * Zoomed out, every step-th swatch is drawn as a plain circle covering its neighbours.
+     *
+     * @param canvas Canvas
+     */
+    private void drawVisibleSwatches(final Canvas canvas) {
+        final ZoomViewport viewport = mZoomViewport;
+        final int step = viewport.updateVisibleRange(mSwatchRadius);
+        final float coarseRadius = mSwatchRadius * step;
+        final int rowTo = viewport.getRowTo();
+        for (int r = viewport.getRowFrom(); r <= rowTo; r += step) {
+            final float y = viewport.getSwatchY(r);
+            final int maxQ = viewport.getMaxQ(r);
+            for (int q = viewport.getMinQ(r); q <= maxQ; q += step) {
+                final int index = HexGrid.getSwatchIndex(mPaletteRadius, q, r);
+                final int color = mLayerColors[index];
+                final float x = viewport.getSwatchX(q, r);
+                if (step == 1) {
+                    drawSwatchAt(canvas, index, (int) (x - mSwatchRadius), (int) (y - mSwatchRadius), 1.0f);
+                } else if (!ColorMath.isEmpty(color)) {
+                    mFillPaint.setColor(color);
+                    canvas.drawCircle(x, y, coarseRadius, mFillPaint);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the left of the swatch bounds (calculated from the zoom viewport if zoom is enabled).
+     *
+     * @param index Swatch index
+     * @return Left (pixels)
+     */
+    private int getSwatchLeft(final int index) {
+        if (!isZoomActive()) {
+            return mSwatchLeft[index];
+        }
+        final int r = HexGrid.getSwatchR(mPaletteRadius, index);
+        final int q = HexGrid.getSwatchQ(mPaletteRadius, index);
+        return (int) (mZoomViewport.getSwatchX(q, r) - mSwatchRadius);
+    }
+
+    /**
+     * Gets the top of the swatch bounds (calculated from the zoom viewport if zoom is enabled).
+     *
+     * @param index Swatch index
+     * @return Top (pixels)
+     */
+    private int getSwatchTop(final int index) {
+        if (!isZoomActive()) {
+            return mSwatchTop[index];
+        }
+        return (int) (mZoomViewport.getSwatchY(HexGrid.getSwatchR(mPaletteRadius, index)) - mSwatchRadius);
+    }
+
+    /**
+     * Draws the check mark over the selected swatch (canvas mode).
+     *
+     * @param canvas Canvas
+     * @param scale  Animation scale of the selected swatch
+     */
+    private void drawChecker(final Canvas canvas, final float scale) {
+        if (mSelectedIndex < 0 || mCheckerDrawable == null || scale <= 0.0f) {
+            return;
+        }
+        final int left = getSwatchLeft(mSelectedIndex);
+        final int top = getSwatchTop(mSelectedIndex);
+        final int content = mSwatchSize - mSwatchPadding;
+
+        final int saveCount = canvas.save();
+        if (scale != 1.0f) {
+            canvas.scale(scale, scale, left + mSwatchRadius, top + mSwatchRadius);
+        }
+        mCheckerDrawable.setBounds(left, top, left + content, top + content);
+        mCheckerDrawable.draw(canvas);
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * Draws the check mark centered on the touched point, or over the nearest swatch (gradient mode).
+     *
+     * @param canvas Canvas
+     */
+    private void drawGradientChecker(final Canvas canvas) {
+        if (!mGradientPointSelected) {
+            drawChecker(canvas, 1.0f);
+            return;
+        }
+        if (mCheckerDrawable == null) {
+            return;
+        }
+        final int content = mSwatchSize - mSwatchPadding;
+        final int left = Math.round(mGradientX - 0.5f * content);
+        final int top = Math.round(mGradientY - 0.5f * content);
+        mCheckerDrawable.setBounds(left, top, left + content, top + content);
+        mCheckerDrawable.draw(canvas);
+    }
+
+    /**
+     * Gets the gradient for the current palette, value layer and size. It is rendered on a background
+     * thread on the first use (see {@link #onGradientRendered()}), then reused until any of them changes.
+     *
+     * @return Gradient or null (the view has no size yet or the gradient is being rendered)
+     */
+    private PaletteGradient obtainGradient() {
+        if (mSwatchScale == null || mSwatchPivot == null || getWidth() <= 0 || getHeight() <= 0) {
+            return null;
+        }
+        final float value = HexPalette.getLayerValue(mValueLayer, mValueLayers);
+        final float centerX = getPaddingLeft() + mSwatchPivot.x;
+        final float centerY = getPaddingTop() + mSwatchPivot.y;
+        if (mGradient == null || !mGradient.matches(mPaletteGenerator, mPaletteRadius, value, getWidth(), getHeight(),
+                centerX, centerY, mSwatchScale.x, mSwatchScale.y)) {
+            final PaletteGradient cached = PaletteGradient.peek(mPaletteGenerator, mPaletteRadius, value,
+                    getWidth(), getHeight(), centerX, centerY, mSwatchScale.x, mSwatchScale.y);
+            if (cached == null) {
+                PaletteGradient.obtainAsync(mPaletteGenerator, mPaletteRadius, value, getWidth(), getHeight(),
+                        centerX, centerY, mSwatchScale.x, mSwatchScale.y, mGradientListener);
+                return null;
+            }
+            mGradient = cached;
+        }
+        return mGradient;
+    }
+
+    /**
+     * Shows a rendered gradient and updates the color of the touched point from it.
+     */
+    private void onGradientRendered() {
+        if (mRenderMode != RENDER_MODE_GRADIENT) {
+            return;
+        }
+        final PaletteGradient gradient = obtainGradient();
+        if (gradient == null) {
+            // the palette or the size has changed meanwhile, another gradient is being rendered
+            return;
+        }
+        if (mGradientPointSelected) {
+            final int color = gradient.getColorAt((int) mGradientX, (int) mGradientY);
+            if (color != mSelectedColor) {
+                mSelectedColor = color;
+                postColorChanging();
+            }
+        }
+        invalidate();
+    }
+
+    /**
+     * Reads the color under a point from the gradient bitmap.
+     *
+     * @param x X coordinate in pixels
+     * @param y Y coordinate in pixels
+     * @return Color or {@link Color#TRANSPARENT} (outside of the gradient or not rendered yet)
+     */
+    private int findGradientColorAt(final float x, final float y) {
+        final PaletteGradient gradient = obtainGradient();
+        return gradient != null ? gradient.getColorAt((int) x, (int) y) : Color.TRANSPARENT;
+    }
+
+    /**
+     * Selects a point of the gradient and moves the check mark there.
+     *
+     * @param color Color of the point
+     * @param x     X coordinate in pixels
+     * @param y     Y coordinate in pixels
+     */
+    private void selectGradientPoint(final int color, final float x, final float y) {
+        final int oldIndex = mSelectedIndex;
+        mSelectedColor = color;
+        // the nearest swatch represents the selection for accessibility
+        mSelectedIndex = findSwatchAt(x, y);
+        mGradientPointSelected = true;
+        mGradientX = x;
+        mGradientY = y;
+        invalidate();
+        invalidateAccessibleSelection(oldIndex);
+    }
+
+    /**
+     * Redraws only the regions of the previously and currently selected swatches (canvas mode).
+     *
+     * @param oldIndex Previously selected swatch index or -1
+     */
+    private void invalidateSelection(final int oldIndex) {
+        if (mEntranceAnimator.isRunning() || mRenderMode == RENDER_MODE_GRADIENT || mLayerColors == null || mSwatchSize <= 0) {
+            invalidate();
+            return;
+        }
+        invalidateSwatch(oldIndex);
+        invalidateSwatch(mSelectedIndex);
+    }
+
+    /**
+     * Redraws the region of a swatch.
+     *
+     * @param index Swatch index or -1
+     */
+    private void invalidateSwatch(final int index) {
+        if (index >= 0 && index < mLayerColors.length) {
+            final int left = getSwatchLeft(index);
+            final int top = getSwatchTop(index);
+            invalidate(left, top, left + mSwatchSize, top + mSwatchSize);
+        }
+    }
+
+    /**
+     * Draws a color swatch with its shadow and stroke (canvas mode).
+     *
+     * @param canvas Canvas
+     * @param index  Swatch index
+     * @param scale  Animation scale of the swatch
+     */
+    private void drawSwatch(final Canvas canvas, final int index, final float scale) {
+        drawSwatchAt(canvas, index, mSwatchLeft[index], mSwatchTop[index], scale);
+    }
+
+    /**
+     * Draws a color swatch at the given position (canvas mode).
+     *
+     * @param canvas Canvas
+     * @param index  Swatch index (empty swatches are not drawn)
+     * @param left   Left of the swatch bounds (pixels)
+     * @param top    Top of the swatch bounds (pixels)
+     * @param scale  Animation scale of the swatch
+     */
+    private void drawSwatchAt(final Canvas canvas, final int index, final float left, final float top, final float scale) {
+        final int color = mLayerColors[index];
+        if (scale <= 0.0f || ColorMath.isEmpty(color)) {
+            return;
+        }
+        final float inset = mStrokeWidth * 0.5f;
+        final int content = mSwatchSize - mSwatchPadding;
+
+        final int saveCount = canvas.save();
+        if (scale != 1.0f) {
+            canvas.scale(scale, scale, left + mSwatchRadius, top + mSwatchRadius);
+        }
+        if (mSpriteAtlasEnabled && mSpriteAtlas != null && !isZoomActive()) {
+            mSpritePaint.setColor(SHADOW_COLOR);
+            mSpriteAtlas.drawShadow(canvas, left, top, mSpritePaint);
+            mSpritePaint.setColor(color);
+            mSpriteAtlas.drawFill(canvas, left, top, mSpritePaint);
+            mSpritePaint.setColor(mLayerStrokeColors[index]);
+            mSpriteAtlas.drawStroke(canvas, left, top, mSpritePaint);
+        } else {
+            mDrawRect.set(left, top, left + mSwatchSize, top + mSwatchSize);
+            canvas.drawOval(mDrawRect, mShadowPaint);
+            mDrawRect.set(left + inset, top + inset, left + content - inset, top + content - inset);
+            mFillPaint.setColor(color);
+            canvas.drawOval(mDrawRect, mFillPaint);
+            if (mStrokeWidth > 0) {
+                mStrokePaint.setColor(mLayerStrokeColors[index]);
+                canvas.drawOval(mDrawRect, mStrokePaint);
+            }
+        }
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * Handles a touch event of the picker or of one of its swatch views (in the coordinates of that view).
+     *
+     * @param view        Touched view
+     * @param motionEvent Touch event
+     * @return True if the event was handled
+     * @deprecated The picker handles its touches itself in {@link #onTouchEvent(MotionEvent)}
+     * and swatch views no longer have touch listeners. Kept for compatibility, forwards to onTouchEvent.
+     */
+    @Deprecated
+    @Override
+    public boolean onTouch(View view, MotionEvent motionEvent) {
+        if (view == null || view == this || view.getParent() != this) {
+            return onTouchEvent(motionEvent);
+        }
+        // swatch view coordinates => picker coordinates
+        final float offsetX = view.getLeft();
+        final float offsetY = view.getTop();
+        motionEvent.offsetLocation(offsetX, offsetY);
+        try {
+            return onTouchEvent(motionEvent);
+        } finally {
+            motionEvent.offsetLocation(-offsetX, -offsetY);
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent motionEvent) {
+        if (isZoomActive() && onZoomTouchEvent(motionEvent)) {
+            return true;
+        }
+        switch (motionEvent.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN: {
+                final float x = motionEvent.getX();
+                final float y = motionEvent.getY();
+                final boolean gradient = mRenderMode == RENDER_MODE_GRADIENT;
+                final int index = gradient ? -1 : findSwatchAt(x, y);
+                final int color = gradient ? findGradientColorAt(x, y) : Color.TRANSPARENT;
+                if (gradient ? color == Color.TRANSPARENT : index < 0) {
+                    return false;
+                }
+                if (mMetrics != null) {
+                    mTouchDownTime = mClock.nanoTime();
+                }
+                if (mTrackingEnabled && getParent() != null) {
+                    // keep the gesture while scrubbing inside of scrolling containers
+                    getParent().requestDisallowInterceptTouchEvent(true);
+                }
+                if (gradient) {
+                    selectGradientPoint(color, x, y);
+                } else {
+                    selectSwatch(index);
+                }
+                break;
+            }
+
+            case MotionEvent.ACTION_MOVE: {
+                if (!mTrackingEnabled) {
+                    break;
+                }
+                if (mRenderMode == RENDER_MODE_GRADIENT) {
+                    // the check mark follows the finger inside of the gradient
+                    final int color = findGradientColorAt(motionEvent.getX(), motionEvent.getY());
+                    if (color != Color.TRANSPARENT) {
+                        final boolean changed = color != mSelectedColor;
+                        selectGradientPoint(color, motionEvent.getX(), motionEvent.getY());
+                        if (changed) {
+                            postColorChanging();
+                        }
+                    }
+                    break;
+                }
+                // moving outside of the palette keeps the last swatch selected
+                final int index = findSwatchAt(motionEvent.getX(), motionEvent.getY());
+                if (index >= 0 && index != mSelectedIndex) {
+                    selectSwatch(index);
+                    postColorChanging();
+                }
+                break;
+            }
+
+            case MotionEvent.ACTION_UP:
+                cancelColorChanging();
+                if (mMetrics != null && mTouchDownTime != 0) {
+                    mMetrics.onColorSelected(mSelectedColor, mClock.nanoTime() - mTouchDownTime);
+                    mTouchDownTime = 0;
+                }
+                if (mListener != null) {
+                    mListener.onColorSelected(mSelectedColor);
+                }
+                break;
+
+            case MotionEvent.ACTION_CANCEL:
+                cancelColorChanging();
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * Handles pinch zoom and pan (zoom enabled). Without tracking mode the selection waits for the release,
+     * so a drag pans instead of selecting, with tracking mode only a pinch (two fingers) zooms and pans.
+     *
+     * @param motionEvent Touch event
+     * @return True if the event is consumed, false to handle it as a selection
+     */
+    private boolean onZoomTouchEvent(final MotionEvent motionEvent) {
+        mScaleDetector.onTouchEvent(motionEvent);
+        final float x = motionEvent.getX();
+        final float y = motionEvent.getY();
+        switch (motionEvent.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mGestureZoomed = false;
+                mPanning = false;
+                mTouchDownX = x;
+                mTouchDownY = y;
+                mLastTouchX = x;
+                mLastTouchY = y;
+                if (mTrackingEnabled) {
+                    return false;
+                }
+                if (mMetrics != null) {
+                    mTouchDownTime = mClock.nanoTime();
+                }
+                if (getParent() != null) {
+                    getParent().requestDisallowInterceptTouchEvent(true);
+                }
+                return true;
+
+            case MotionEvent.ACTION_POINTER_DOWN:
+            case MotionEvent.ACTION_POINTER_UP:
+                mGestureZoomed = true;
+                return true;
+
+            case MotionEvent.ACTION_MOVE:
+                if (mGestureZoomed || motionEvent.getPointerCount() > 1) {
+                    // the scale detector zooms and pans
+                    return true;
+                }
+                if (mTrackingEnabled) {
+                    return false;
+                }
+                if (!mPanning && Math.hypot(x - mTouchDownX, y - mTouchDownY) > mTouchSlop) {
+                    mPanning = true;
+                    mLastTouchX = x;
+                    mLastTouchY = y;
+                }
+                if (mPanning) {
+                    if (mZoomViewport.panBy(x - mLastTouchX, y - mLastTouchY)) {
+                        onZoomChanged();
+                    }
+                    mLastTouchX = x;
+                    mLastTouchY = y;
+                }
+                return true;
+
+            case MotionEvent.ACTION_UP:
+                if (mGestureZoomed || mPanning) {
+                    cancelColorChanging();
+                    mTouchDownTime = 0;
+                    return true;
+                }
+                if (!mTrackingEnabled) {
+                    // a tap selects the swatch, the listener is notified as for other touches
+                    final int index = findSwatchAt(x, y);
+                    if (index < 0) {
+                        mTouchDownTime = 0;
+                        return true;
+                    }
+                    selectSwatch(index);
+                }
+                return false;
+
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Selects a swatch and moves the check mark (without relayout of the swatches).
+     *
+     * @param index Swatch index
+     */
+    private void selectSwatch(final int index) {
+        final int oldIndex = mSelectedIndex;
+        mSelectedColor = mLayerColors[index];
+        mSelectedIndex = index;
+        mGradientPointSelected = false;
+        if (mRenderMode != RENDER_MODE_VIEWS) {
+            invalidateSelection(oldIndex);
+        } else {
+            updateCheckerPosition();
+        }
+        invalidateAccessibleSelection(oldIndex);
+    }
+
+    /**
+     * Updates the selected state of the virtual accessibility views.
+     *
+     * @param oldIndex Previously selected swatch index or -1
+     */
+    private void invalidateAccessibleSelection(final int oldIndex) {
+        if (oldIndex == mSelectedIndex) {
+            return;
+        }
+        if (oldIndex >= 0) {
+            mAccessibilityHelper.invalidateVirtualView(oldIndex);
+        }
+        if (mSelectedIndex >= 0) {
+            mAccessibilityHelper.invalidateVirtualView(mSelectedIndex);
+        }
+    }
+
+    /**
+     * Selects a swatch as a click of an accessibility service would do (the listener is notified).
+     *
+     * @param index Swatch index
+     */
+    void performSwatchClick(final int index) {
+        if (mPalette == null || mPaletteDirty || index < 0 || index >= mLayerColors.length) {
+            return;
+        }
+        selectSwatch(index);
+        if (mListener != null) {
+            mListener.onColorSelected(mSelectedColor);
+        }
+    }
+
+    /**
+     * Finds the swatch under a point for accessibility (the same hit test as touches).
+     *
+     * @param x X coordinate in pixels
+     * @param y Y coordinate in pixels
+     * @return Swatch index or -1
+     */
+    int getAccessibleSwatchAt(final float x, final float y) {
+        return getAccessibleSwatchCount() > 0 ? findSwatchAt(x, y) : -1;
+    }
+
+    /**
+     * Gets the number of swatches exposed to accessibility (none until they are laid out).
+     *
+     * @return Swatch count
+     */
+    int getAccessibleSwatchCount() {
+        if (mPalette == null || mPaletteDirty || mSwatchSize <= 0) {
+            return 0;
+        }
+        return mLayerColors.length;
+    }
+
+    /**
+     * Fills the swatches exposed to accessibility: all non-empty swatches, or only the drawn ones
+     * if zoom is enabled (the same visible range and level of detail as the last frame).
+     *
+     * @param indices Output swatch indices
+     */
+    void getAccessibleSwatches(final List<Integer> indices) {
+        final int swatchCount = getAccessibleSwatchCount();
+        if (swatchCount == 0) {
+            return;
+        }
+        if (!isZoomActive()) {
+            for (int i = 0; i < swatchCount; i++) {
+                if (!ColorMath.isEmpty(mLayerColors[i])) {
+                    indices.add(i);
+                }
+            }
+            return;
+        }
+        final ZoomViewport viewport = mZoomViewport;
+        final int step = viewport.updateVisibleRange(mSwatchRadius);
+        final int rowTo = viewport.getRowTo();
+        for (int r = viewport.getRowFrom(); r <= rowTo; r += step) {
+            final int maxQ = viewport.getMaxQ(r);
+            for (int q = viewport.getMinQ(r); q <= maxQ; q += step) {
+                final int index = HexGrid.getSwatchIndex(mPaletteRadius, q, r);
+                if (!ColorMath.isEmpty(mLayerColors[index])) {
+                    indices.add(index);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the bounds of a swatch in the picker coordinates.
+     *
+     * @param index  Swatch index
+     * @param bounds Output bounds
+     * @return False if the swatch is not laid out
+     */
+    boolean getAccessibleSwatchBounds(final int index, final Rect bounds) {
+        if (index < 0 || index >= getAccessibleSwatchCount()) {
+            return false;
+        }
+        final int left = getSwatchLeft(index);
+        final int top = getSwatchTop(index);
+        bounds.set(left, top, left + mSwatchSize, top + mSwatchSize);
+        return true;
+    }
+
+    /**
+     * Gets the shown color of a swatch.
+     *
+     * @param index Swatch index
+     * @return Color or {@link Color#TRANSPARENT} if the swatch is not laid out (e.g. a stale virtual view id)
+     */
+    int getAccessibleSwatchColor(final int index) {
+        if (index < 0 || index >= getAccessibleSwatchCount()) {
+            return Color.TRANSPARENT;
+        }
+        return mLayerColors[index];
+    }
+
+    /**
+     * Gets the selected swatch index.
+     *
+     * @return Swatch index or -1
+     */
+    int getAccessibleSelectedIndex() {
+        return mSelectedIndex;
+    }
+
+    @Override
+    public boolean dispatchHoverEvent(MotionEvent event) {
+        return mAccessibilityHelper.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return mAccessibilityHelper.dispatchKeyEvent(event) || super.dispatchKeyEvent(event);
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction, Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        mAccessibilityHelper.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+    }
+
+    /**
+     * Schedules the live color callback for the next frame (pending callbacks are merged).
+     */
+    private void postColorChanging() {
+        if (mChangingListener == null || mChangingPending) {
+            return;
+        }
+        mChangingPending = true;
+        postOnAnimation(mDispatchChanging);
+    }
+
+    /**
+     * Drops the pending live color callback (the final color is reported by onColorSelected).
+     */
+    private void cancelColorChanging() {
+        if (mChangingPending) {
+            mChangingPending = false;
+            removeCallbacks(mDispatchChanging);
+        }
+    }
+
+    /**
+     * Finds the swatch under the given point.
+     * The point is converted to axial hex coordinates and rounded to the nearest cell,
+     * so the lookup takes constant time and touches between swatches hit the closest one.
+     *
+     * @param x X coordinate in pixels
+     * @param y Y coordinate in pixels
+     * @return Swatch index or -1 (outside of the palette or an empty swatch)
+     */
+    private int findSwatchAt(final float x, final float y) {
+        if (mSwatchScale == null || mSwatchPivot == null || mPalette == null || mLayerColors == null) {
+            return -1;
+        }
+        final int index;
+        if (isZoomActive()) {
+            index = mZoomViewport.findSwatchIndexAt(x, y);
+        } else {
+            final float positionX = (x - getPaddingLeft() - mSwatchPivot.x) / (0.5f * mSwatchScale.x);
+            final float positionY = (y - getPaddingTop() - mSwatchPivot.y) / (0.5f * mSwatchScale.y);
+            index = HexGrid.findSwatchIndexAt(mPalette.mRadius, positionX, positionY);
+        }
+        if (index < 0 || index >= mLayerColors.length || ColorMath.isEmpty(mLayerColors[index])) {
+            return -1;
+        }
+        return index;
+    }
+
+    protected void onSizeChanged(int w, int h, int oldW, int oldH) {
+
+        final float width = w - getPaddingLeft() - getPaddingRight();
+        final float height = h - getPaddingTop() - getPaddingBottom();
+        // the points are reused, layout passes with a size change do not allocate
+        if (mSwatchPivot == null) {
+            mSwatchPivot = new PointF();
+            mSwatchScale = new PointF();
+        }
+        mSwatchPivot.set(width / 2.0f, height / 2.0f);
+        // additional padding for swatch stroke and overshoot animation
+        final float strokePadding = Math.min(w, h) * 0.05f;
+        mSwatchScale.set(width - strokePadding, height - strokePadding);
+
+        if (width > height * VIEW_ASPECT_RATIO) {
+            final float diff = width - height * VIEW_ASPECT_RATIO;
+            mSwatchScale.x -= diff;
+        } else if (height > width / VIEW_ASPECT_RATIO) {
+            final float diff = height - width / VIEW_ASPECT_RATIO;
+            mSwatchScale.y -= diff;
+        }
+
+        // sprites are rasterized again for the new swatch size on the next draw
+        mSpriteAtlas = null;
+        // the gradient is kept if the size is the same (see obtainGradient), a touched point is not
+        if (w != oldW || h != oldH) {
+            mGradientPointSelected = false;
+        }
+        updateSwatchesPosition();
+        mAccessibilityHelper.invalidateRoot();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        // children are measured with the swatch size in onLayout
+        if (mPaletteDirty) {
+            initSwatches();
+        }
+        setMeasuredDimension(measureWidth(widthMeasureSpec, heightMeasureSpec),
+                measureHeight(widthMeasureSpec, heightMeasureSpec));
+    }
+
+    /**
+     * Calculates the width of the picker (also used by the dialog placeholder to keep the same size).
+     *
+     * @param widthMeasureSpec  Width measure spec
+     * @param heightMeasureSpec Height measure spec
+     * @return Measured width
+     */
+    static int measureWidth(final int widthMeasureSpec, final int heightMeasureSpec) {
+        if (MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED
+                && MeasureSpec.getMode(heightMeasureSpec) == MeasureSpec.EXACTLY) {
+            return (int) (MeasureSpec.getSize(heightMeasureSpec) * VIEW_ASPECT_RATIO);
+        }
+        return MeasureSpec.getSize(widthMeasureSpec);
+    }
+
+    /**
+     * Calculates the height of the picker (also used by the dialog placeholder to keep the same size).
+     *
+     * @param widthMeasureSpec  Width measure spec
+     * @param heightMeasureSpec Height measure spec
+     * @return Measured height
+     */
+    static int measureHeight(final int widthMeasureSpec, final int heightMeasureSpec) {
+        if (MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.EXACTLY
+                && MeasureSpec.getMode(heightMeasureSpec) == MeasureSpec.UNSPECIFIED) {
+            return (int) (MeasureSpec.getSize(widthMeasureSpec) / VIEW_ASPECT_RATIO);
+        }
+        return MeasureSpec.getSize(heightMeasureSpec);
     }
 }
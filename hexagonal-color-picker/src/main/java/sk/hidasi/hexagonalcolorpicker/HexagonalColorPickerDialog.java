@@ -21,22 +21,52 @@ import sk.hidasi.hexagonalcolorpicker.HexagonalColorPicker.OnColorSelectedListen
 
 import android.content.Context;
 import android.os.Bundle;
+import android.view.View;
 import androidx.annotation.NonNull;
 
+import sk.hidasi.hexagonalcolorpicker.core.PaletteGenerator;
+
 /**
  * Hexagonal color picker dialog.
+ * The palette is prepared on a background thread from the constructor (in parallel with the inflation),
+ * a placeholder is shown until it is ready.
  */
 public class HexagonalColorPickerDialog extends AlertDialog implements OnColorSelectedListener {
 
     private static final String KEY_SELECTED_COLOR = "selected_color";
     private static final String KEY_PALETTE_RADIUS = "palette_radius";
+    private static final String KEY_PALETTE_GENERATOR = "palette_generator";
     private static final String KEY_TITLE_ID = "title_id";
 
     private final OnColorSelectedListener mListener;
 
     private int mTitleResId;
     private int mPaletteRadius;
+    private int mPaletteGenerator;
     private int mSelectedColor;
+    // Prepared palette or null (still being built)
+    private PaletteTable mPalette;
+    // Metrics listener, its clock and the time of show() (0 => not measured)
+    private PickerMetrics mMetrics;
+    private PickerMetrics.Clock mClock = PickerMetrics.SYSTEM_CLOCK;
+    private long mShowTime;
+    // Palette is being built for this radius and generator
+    private int mPendingRadius = -1;
+    private PaletteGenerator mPendingGenerator;
+
+    private final PaletteTable.OnPaletteReadyListener mPaletteReadyListener = new PaletteTable.OnPaletteReadyListener() {
+        @Override
+        public void onPaletteReady(final PaletteTable table) {
+            if (table.getRadius() != mPaletteRadius || table.getGenerator() != getGenerator()) {
+                // palette has changed since the request (restored state)
+                return;
+            }
+            mPendingRadius = -1;
+            mPendingGenerator = null;
+            mPalette = table;
+            attachPalette();
+        }
+    };
 
     /**
      * Constructor.
@@ -49,11 +79,74 @@ public class HexagonalColorPickerDialog extends AlertDialog implements OnColorSe
      */
     public HexagonalColorPickerDialog(Context context, final int titleResId, final int radius,
                                       final int selectedColor, final OnColorSelectedListener listener) {
+        this(context, titleResId, radius, HexagonalColorPicker.PALETTE_HSV, selectedColor, listener);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param context       Context
+     * @param titleResId    Resource id of the dialog title
+     * @param radius        Palette radius
+     * @param palette       {@link HexagonalColorPicker#PALETTE_HSV} or {@link HexagonalColorPicker#PALETTE_OKLCH}
+     * @param selectedColor Selected color
+     * @param listener      Color change listener
+     */
+    public HexagonalColorPickerDialog(Context context, final int titleResId, final int radius, final int palette,
+                                      final int selectedColor, final OnColorSelectedListener listener) {
         super(context);
         mTitleResId = titleResId;
         mPaletteRadius = radius;
+        mPaletteGenerator = palette;
         mSelectedColor = selectedColor;
         mListener = listener;
+        preparePalette();
+    }
+
+    /**
+     * Starts building the palette for the current radius (unless it is cached or already requested).
+     */
+    private void preparePalette() {
+        final PaletteGenerator generator = getGenerator();
+        if (mPalette != null && mPalette.getRadius() == mPaletteRadius && mPalette.getGenerator() == generator) {
+            return;
+        }
+        mPalette = PaletteTable.peek(generator, mPaletteRadius);
+        if (mPalette == null && (mPendingRadius != mPaletteRadius || mPendingGenerator != generator)) {
+            mPendingRadius = mPaletteRadius;
+            mPendingGenerator = generator;
+            PaletteTable.obtainAsync(generator, mPaletteRadius, mPaletteReadyListener);
+        }
+    }
+
+    private PaletteGenerator getGenerator() {
+        return HexagonalColorPicker.getPaletteGenerator(mPaletteGenerator);
+    }
+
+    /**
+     * Shows the picker with the prepared palette or the placeholder if it is not ready yet.
+     */
+    private void attachPalette() {
+        final HexagonalColorPicker palette = findViewById(R.id.color_picker);
+        final View placeholder = findViewById(R.id.color_picker_placeholder);
+        if (palette == null) {
+            return;
+        }
+        final boolean ready = mPalette != null;
+        if (ready) {
+            palette.setMetricsClock(mClock);
+            palette.setMetrics(mMetrics);
+            if (mShowTime != 0) {
+                palette.traceFirstFrame(mShowTime);
+                mShowTime = 0;
+            }
+            palette.setPalette(mPalette);
+            palette.setAttrs(mPaletteRadius, mSelectedColor, this);
+        }
+        palette.setVisibility(ready ? View.VISIBLE : View.GONE);
+        if (placeholder != null) {
+            placeholder.setVisibility(ready ? View.GONE : View.VISIBLE);
+        }
     }
 
     @Override
@@ -63,15 +156,44 @@ public class HexagonalColorPickerDialog extends AlertDialog implements OnColorSe
         if (savedInstanceState != null) {
             mTitleResId = savedInstanceState.getInt(KEY_TITLE_ID);
             mPaletteRadius = savedInstanceState.getInt(KEY_PALETTE_RADIUS);
+            mPaletteGenerator = savedInstanceState.getInt(KEY_PALETTE_GENERATOR);
             mSelectedColor = savedInstanceState.getInt(KEY_SELECTED_COLOR);
         }
 
+        preparePalette();
         setContentView(R.layout.color_picker_dialog);
         setTitle(mTitleResId);
-        HexagonalColorPicker palette = findViewById(R.id.color_picker);
-        if (palette != null) {
-            palette.setAttrs(mPaletteRadius, mSelectedColor, this);
+        attachPalette();
+    }
+
+    /**
+     * Sets performance metrics listener (passed to the picker, the first frame is measured from {@link #show()}).
+     * Set it before the dialog is shown.
+     *
+     * @param metrics Listener or null
+     */
+    public void setMetrics(final PickerMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    /**
+     * Sets the time source of the metrics.
+     *
+     * @param clock Clock (e.g. {@link PickerMetrics#SYSTEM_CLOCK})
+     */
+    public void setMetricsClock(final PickerMetrics.Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock must not be null.");
+        }
+        mClock = clock;
+    }
+
+    @Override
+    public void show() {
+        if (mMetrics != null) {
+            mShowTime = mClock.nanoTime();
         }
+        super.show();
     }
 
     @Override
@@ -101,6 +223,7 @@ public class HexagonalColorPickerDialog extends AlertDialog implements OnColorSe
         super.onSaveInstanceState();
         outState.putInt(KEY_TITLE_ID, mTitleResId);
         outState.putInt(KEY_PALETTE_RADIUS, mPaletteRadius);
+        outState.putInt(KEY_PALETTE_GENERATOR, mPaletteGenerator);
         outState.putInt(KEY_SELECTED_COLOR, mSelectedColor);
         return outState;
     }
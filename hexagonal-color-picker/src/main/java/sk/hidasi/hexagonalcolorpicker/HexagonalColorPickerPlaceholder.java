@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.widget.FrameLayout;
+
+/**
+ * Placeholder shown by the dialog while the palette is prepared. It is measured exactly like
+ * the picker with the same layout params, so the dialog does not change its size when the picker
+ * replaces it.
+ */
+class HexagonalColorPickerPlaceholder extends FrameLayout {
+
+    public HexagonalColorPickerPlaceholder(Context context) {
+        super(context);
+    }
+
+    public HexagonalColorPickerPlaceholder(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int width = HexagonalColorPicker.measureWidth(widthMeasureSpec, heightMeasureSpec);
+        final int height = HexagonalColorPicker.measureHeight(widthMeasureSpec, heightMeasureSpec);
+        super.onMeasure(MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY),
+                MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY));
+    }
+}
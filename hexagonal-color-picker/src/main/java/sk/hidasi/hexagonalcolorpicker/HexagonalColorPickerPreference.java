@@ -19,14 +19,12 @@ package sk.hidasi.hexagonalcolorpicker;
 import sk.hidasi.hexagonalcolorpicker.HexagonalColorPicker.OnColorSelectedListener;
 
 import android.content.Context;
+import android.content.res.Resources;
 import android.content.res.TypedArray;
-import android.graphics.drawable.GradientDrawable;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceViewHolder;
 import android.util.AttributeSet;
-import android.util.TypedValue;
 import android.view.View;
-import android.widget.ImageView;
 import android.widget.LinearLayout;
 
 /**
@@ -35,8 +33,15 @@ import android.widget.LinearLayout;
 public class HexagonalColorPickerPreference extends Preference implements OnColorSelectedListener {
 
     private int mPaletteRadius;
+    private int mPaletteGenerator;
     private int mValue;
 
+    // Preview dimensions in pixels (resolved again only when the display density changes)
+    private float mPreviewDensity;
+    private int mPreviewSize;
+    private int mPreviewStroke;
+    private int mPreviewPadding;
+
     /**
      * Constructor.
      */
@@ -73,6 +78,7 @@ public class HexagonalColorPickerPreference extends Preference implements OnColo
                 attrs, R.styleable.HexagonalColorPicker, defStyle, defStyle);
 
         mPaletteRadius = a.getInteger(R.styleable.HexagonalColorPicker_paletteRadius, HexagonalColorPicker.DEFAULT_PALETTE_RADIUS);
+        mPaletteGenerator = a.getInt(R.styleable.HexagonalColorPicker_paletteGenerator, HexagonalColorPicker.PALETTE_HSV);
         a.recycle();
     }
 
@@ -94,7 +100,7 @@ public class HexagonalColorPickerPreference extends Preference implements OnColo
     @Override
     protected void onClick() {
         super.onClick();
-        final HexagonalColorPickerDialog dialog = new HexagonalColorPickerDialog(getContext(), R.string.color_picker_default_title, mPaletteRadius, mValue, this);
+        final HexagonalColorPickerDialog dialog = new HexagonalColorPickerDialog(getContext(), R.string.color_picker_default_title, mPaletteRadius, mPaletteGenerator, mValue, this);
         dialog.show();
     }
 
@@ -118,47 +124,62 @@ public class HexagonalColorPickerPreference extends Preference implements OnColo
     }
 
     /**
-     * Creates a color preview and adds this view to widget frame layout.
+     * Shows a color preview in widget frame layout.
+     * The preview view of a recycled item is reused, only its color and stroke are updated.
      *
      * @param view  Preference view holder
      * @param color Selected color value
      */
-    private void setPreviewImage(final PreferenceViewHolder view, final int color) {
+    void setPreviewImage(final PreferenceViewHolder view, final int color) {
 
         if (view == null) return;
         final LinearLayout widgetFrameView = (LinearLayout)view.findViewById(android.R.id.widget_frame);
         if (widgetFrameView == null) return;
+        resolvePreviewDimensions();
+
+        final HexagonalColorSwatch preview;
+        if (widgetFrameView.getChildCount() == 1 && widgetFrameView.getChildAt(0) instanceof HexagonalColorSwatch) {
+            preview = (HexagonalColorSwatch) widgetFrameView.getChildAt(0);
+        } else {
+            // first bind of this item view => replace any other widget
+            widgetFrameView.removeAllViews();
+            preview = new HexagonalColorSwatch(getContext(), color, HexagonalColorPicker.calculateStrokeColor(color), null);
+            preview.setLayoutParams(new LinearLayout.LayoutParams(mPreviewSize, mPreviewSize));
+            widgetFrameView.addView(preview);
+            widgetFrameView.setMinimumWidth(0);
+        }
+
         widgetFrameView.setVisibility(View.VISIBLE);
-        widgetFrameView.setPadding(
-                widgetFrameView.getPaddingLeft(),
-                widgetFrameView.getPaddingTop(),
-                dipToPixels(7),
-                widgetFrameView.getPaddingBottom()
-        );
-        // remove already create preview image
-        final int count = widgetFrameView.getChildCount();
-        if (count > 0) {
-            widgetFrameView.removeViews(0, count);
+        if (widgetFrameView.getPaddingRight() != mPreviewPadding) {
+            widgetFrameView.setPadding(
+                    widgetFrameView.getPaddingLeft(),
+                    widgetFrameView.getPaddingTop(),
+                    mPreviewPadding,
+                    widgetFrameView.getPaddingBottom()
+            );
         }
-        final ImageView iView = new ImageView(getContext());
-        widgetFrameView.addView(iView);
-        widgetFrameView.setMinimumWidth(0);
-        final int size = dipToPixels(40);
-        iView.setLayoutParams(new LinearLayout.LayoutParams(size, size));
-        final GradientDrawable colorChoiceDrawable = new GradientDrawable();
-        colorChoiceDrawable.setShape(GradientDrawable.OVAL);
-        colorChoiceDrawable.setColor(color);
-        colorChoiceDrawable.setStroke(dipToPixels(1), HexagonalColorPicker.calculateStrokeColor(color));
-        iView.setImageDrawable(colorChoiceDrawable);
+        final LinearLayout.LayoutParams params = (LinearLayout.LayoutParams) preview.getLayoutParams();
+        if (params.width != mPreviewSize || params.height != mPreviewSize) {
+            params.width = mPreviewSize;
+            params.height = mPreviewSize;
+            preview.setLayoutParams(params);
+        }
+        preview.updateStrokeWidth(mPreviewStroke);
+        preview.setColors(color, HexagonalColorPicker.calculateStrokeColor(color));
     }
 
     /**
-     * Converts 'dip' to pixels.
-     *
-     * @param dip size in 'dip'
-     * @return size in pixels
+     * Resolves preview dimensions (only once per display density).
      */
-    private int dipToPixels(final float dip) {
-        return (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dip, getContext().getResources().getDisplayMetrics());
+    private void resolvePreviewDimensions() {
+        final Resources resources = getContext().getResources();
+        final float density = resources.getDisplayMetrics().density;
+        if (mPreviewDensity == density) {
+            return;
+        }
+        mPreviewDensity = density;
+        mPreviewSize = resources.getDimensionPixelSize(R.dimen.color_picker_preview_size);
+        mPreviewStroke = resources.getDimensionPixelSize(R.dimen.color_picker_preview_stroke);
+        mPreviewPadding = resources.getDimensionPixelSize(R.dimen.color_picker_preview_padding);
     }
 }
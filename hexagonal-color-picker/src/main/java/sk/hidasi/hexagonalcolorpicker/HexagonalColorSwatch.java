@@ -17,7 +17,6 @@
 package sk.hidasi.hexagonalcolorpicker;
 
 import android.content.Context;
-import android.graphics.PointF;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.GradientDrawable;
 import androidx.appcompat.widget.AppCompatImageView;
@@ -30,46 +29,78 @@ class HexagonalColorSwatch extends AppCompatImageView {
     /**
      * Color of the swatch.
      */
-    final public int mColor;
+    private int mColor;
     /**
-     * Position of the swatch (in relative coordinates from -1.0 to 1.0)
+     * Stroke color of the swatch.
      */
-    final public PointF mPosition;
+    private int mStrokeColor;
     /**
-     * Animation delay of the swatch (in ms).
+     * Stroke width of the swatch.
      */
-    final public int mAnimDelay;
+    private int mStrokeWidth;
+    /**
+     * Oval drawable of the swatch.
+     */
+    private final GradientDrawable mDrawable;
 
 
     /**
      * Instantiates a new color swatch.
      *
-     * @param context    context
-     * @param position   position of the swatch
-     * @param color      color of the swatch
-     * @param animDelay  animation delay
+     * @param context     context
+     * @param color       color of the swatch
+     * @param strokeColor stroke color of the swatch
+     * @param background  shadow drawable
      */
-    public HexagonalColorSwatch(final Context context, final int color, final PointF position, final int animDelay, final Drawable background) {
+    public HexagonalColorSwatch(final Context context, final int color, final int strokeColor, final Drawable background) {
         super(context);
 
         mColor = color;
-        mPosition = position;
-        mAnimDelay = animDelay;
+        mStrokeColor = strokeColor;
 
-        final GradientDrawable drawable = new GradientDrawable();
-        drawable.setShape(GradientDrawable.OVAL);
-        drawable.setColor(mColor);
-        setImageDrawable(drawable);
+        mDrawable = new GradientDrawable();
+        mDrawable.setShape(GradientDrawable.OVAL);
+        mDrawable.setColor(mColor);
+        setImageDrawable(mDrawable);
         setBackground(background);
     }
 
+    /**
+     * Gets color of the swatch.
+     *
+     * @return Color
+     */
+    public int getColor() {
+        return mColor;
+    }
+
+    /**
+     * Recolors the swatch (the view is reused for another palette swatch).
+     *
+     * @param color       the new color
+     * @param strokeColor the new stroke color
+     */
+    public void setColors(final int color, final int strokeColor) {
+        if (mColor != color) {
+            mColor = color;
+            mDrawable.setColor(color);
+        }
+        if (mStrokeColor != strokeColor) {
+            mStrokeColor = strokeColor;
+            mDrawable.setStroke(mStrokeWidth, strokeColor);
+        }
+    }
+
     /**
      * Update stroke width.
      *
      * @param strokeWidth the new stroke width
      */
     public void updateStrokeWidth(final int strokeWidth) {
-        final GradientDrawable drawable = (GradientDrawable) getDrawable();
-        drawable.setStroke(strokeWidth, HexagonalColorPicker.calculateStrokeColor(mColor));
+        if (mStrokeWidth == strokeWidth) {
+            return;
+        }
+        mStrokeWidth = strokeWidth;
+        mDrawable.setStroke(strokeWidth, mStrokeColor);
     }
 }
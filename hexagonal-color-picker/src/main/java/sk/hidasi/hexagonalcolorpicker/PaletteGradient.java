@@ -0,0 +1,320 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import sk.hidasi.hexagonalcolorpicker.core.HexGradient;
+import sk.hidasi.hexagonalcolorpicker.core.PaletteGenerator;
+
+/**
+ * Rendered continuous palette (see {@link HexGradient}) in a bitmap, which is also read for touch
+ * lookups, so the color under the finger is exactly the drawn one. The pixels are filled in row
+ * stripes on all cores (fork/join, API 21+) on a background thread and dropped once the bitmap is
+ * created. Gradients are shared through a small process-wide LRU cache keyed by the palette and the
+ * view geometry, so a relayout with the same size (or another picker of the same size) reuses the
+ * rendered gradient.
+ */
+final class PaletteGradient {
+
+    // Maximum number of cached gradients (they are as large as the view, so only a few are kept).
+    private static final int CACHE_SIZE = 2;
+
+    // Process-wide cache (access ordered => LRU).
+    private static final Map<Key, PaletteGradient> sCache = new LinkedHashMap<Key, PaletteGradient>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, PaletteGradient> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    // Listeners of the gradients being rendered (guarded by sCache).
+    private static final Map<Key, List<OnGradientReadyListener>> sPending = new LinkedHashMap<Key, List<OnGradientReadyListener>>();
+
+    // Background thread which renders gradients (created on the first request).
+    private static final Executor sExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "PaletteGradient");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    // Delivers rendered gradients on the main thread.
+    private static Handler sMainHandler;
+
+    /**
+     * The interface of gradient rendering listener.
+     */
+    interface OnGradientReadyListener {
+        /**
+         * Called on the main thread when the gradient is rendered.
+         *
+         * @param gradient Palette gradient
+         */
+        void onGradientReady(final PaletteGradient gradient);
+    }
+
+    private final Key mKey;
+    private final Bitmap mBitmap;
+
+    /**
+     * Renders the gradient (use {@link #obtainAsync}).
+     *
+     * @param key Palette and geometry
+     */
+    private PaletteGradient(final Key key) {
+        mKey = key;
+        final HexGradient gradient = new HexGradient(key.mGenerator, key.mRadius, key.mValue,
+                key.mWidth, key.mHeight, key.mCenterX, key.mCenterY, key.mScaleX, key.mScaleY);
+        // packed ARGB pixels (row by row), only needed until the bitmap is created
+        final int[] pixels = new int[key.mWidth * key.mHeight];
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            gradient.fill(pixels, SharedForkJoinPool.get());
+        } else {
+            gradient.fill(pixels);
+        }
+        mBitmap = Bitmap.createBitmap(pixels, key.mWidth, key.mHeight, Bitmap.Config.ARGB_8888);
+    }
+
+    /**
+     * Gets the shared gradient for the given palette and geometry if it is already rendered.
+     *
+     * @param generator Palette generator
+     * @param radius    Palette radius
+     * @param value     Value (brightness) multiplier (0 .. 1)
+     * @param width     Bitmap width (pixels)
+     * @param height    Bitmap height (pixels)
+     * @param centerX   Palette center X (pixels)
+     * @param centerY   Palette center Y (pixels)
+     * @param scaleX    Palette width (pixels)
+     * @param scaleY    Palette height (pixels)
+     * @return Palette gradient or null
+     */
+    static PaletteGradient peek(final PaletteGenerator generator, final int radius, final float value,
+                                final int width, final int height, final float centerX, final float centerY,
+                                final float scaleX, final float scaleY) {
+        final Key key = new Key(generator, radius, value, width, height, centerX, centerY, scaleX, scaleY);
+        synchronized (sCache) {
+            return sCache.get(key);
+        }
+    }
+
+    /**
+     * Renders the gradient for the given palette and geometry on a background thread (once for
+     * concurrent requests). The listener is always called on the main thread (later, even if the
+     * gradient is already cached). If the rendering fails, the waiting listeners are not called
+     * and a later request renders the gradient again.
+     *
+     * @param generator Palette generator
+     * @param radius    Palette radius
+     * @param value     Value (brightness) multiplier (0 .. 1)
+     * @param width     Bitmap width (pixels)
+     * @param height    Bitmap height (pixels)
+     * @param centerX   Palette center X (pixels)
+     * @param centerY   Palette center Y (pixels)
+     * @param scaleX    Palette width (pixels)
+     * @param scaleY    Palette height (pixels)
+     * @param listener  Listener
+     */
+    static void obtainAsync(final PaletteGenerator generator, final int radius, final float value,
+                            final int width, final int height, final float centerX, final float centerY,
+                            final float scaleX, final float scaleY, final OnGradientReadyListener listener) {
+        final Key key = new Key(generator, radius, value, width, height, centerX, centerY, scaleX, scaleY);
+        final Handler handler = getMainHandler();
+        synchronized (sCache) {
+            final PaletteGradient cached = sCache.get(key);
+            if (cached != null) {
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onGradientReady(cached);
+                    }
+                });
+                return;
+            }
+            List<OnGradientReadyListener> listeners = sPending.get(key);
+            if (listeners != null) {
+                if (!listeners.contains(listener)) {
+                    listeners.add(listener);
+                }
+                return;
+            }
+            listeners = new ArrayList<OnGradientReadyListener>(1);
+            listeners.add(listener);
+            sPending.put(key, listeners);
+        }
+        sExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                PaletteGradient rendered = null;
+                try {
+                    rendered = new PaletteGradient(key);
+                } finally {
+                    // a failed render (e.g. out of memory) drops its listeners, the next request renders it again
+                    final PaletteGradient gradient = rendered;
+                    final List<OnGradientReadyListener> listeners;
+                    synchronized (sCache) {
+                        if (gradient != null) {
+                            sCache.put(key, gradient);
+                        }
+                        listeners = sPending.remove(key);
+                    }
+                    if (gradient != null) {
+                        handler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                for (final OnGradientReadyListener listener : listeners) {
+                                    listener.onGradientReady(gradient);
+                                }
+                            }
+                        });
+                    }
+                }
+            }
+        });
+    }
+
+    private static synchronized Handler getMainHandler() {
+        if (sMainHandler == null) {
+            sMainHandler = new Handler(Looper.getMainLooper());
+        }
+        return sMainHandler;
+    }
+
+    /**
+     * Removes a gradient from the cache (e.g. when its view is detached).
+     *
+     * @param gradient Palette gradient
+     */
+    static void release(final PaletteGradient gradient) {
+        synchronized (sCache) {
+            if (sCache.get(gradient.mKey) == gradient) {
+                sCache.remove(gradient.mKey);
+            }
+        }
+    }
+
+    /**
+     * Removes all cached gradients (e.g. when the memory is low).
+     */
+    static void clearCache() {
+        synchronized (sCache) {
+            sCache.clear();
+        }
+    }
+
+    /**
+     * Checks whether the gradient matches the given palette and geometry.
+     *
+     * @return True if the gradient can be used
+     */
+    boolean matches(final PaletteGenerator generator, final int radius, final float value,
+                    final int width, final int height, final float centerX, final float centerY,
+                    final float scaleX, final float scaleY) {
+        return mKey.equals(generator, radius, value, width, height, centerX, centerY, scaleX, scaleY);
+    }
+
+    /**
+     * Gets the bitmap of the gradient.
+     *
+     * @return Bitmap (the size of the view)
+     */
+    Bitmap getBitmap() {
+        return mBitmap;
+    }
+
+    /**
+     * Reads a color from the bitmap.
+     *
+     * @param x X coordinate in pixels
+     * @param y Y coordinate in pixels
+     * @return Color or {@link android.graphics.Color#TRANSPARENT} (outside of the palette)
+     */
+    int getColorAt(final int x, final int y) {
+        if (x < 0 || y < 0 || x >= mKey.mWidth || y >= mKey.mHeight) {
+            return 0;
+        }
+        return mBitmap.getPixel(x, y);
+    }
+
+    private static final class Key {
+
+        private final PaletteGenerator mGenerator;
+        private final int mRadius;
+        private final float mValue;
+        private final int mWidth;
+        private final int mHeight;
+        private final float mCenterX;
+        private final float mCenterY;
+        private final float mScaleX;
+        private final float mScaleY;
+
+        Key(final PaletteGenerator generator, final int radius, final float value, final int width, final int height,
+            final float centerX, final float centerY, final float scaleX, final float scaleY) {
+            mGenerator = generator;
+            mRadius = radius;
+            mValue = value;
+            mWidth = width;
+            mHeight = height;
+            mCenterX = centerX;
+            mCenterY = centerY;
+            mScaleX = scaleX;
+            mScaleY = scaleY;
+        }
+
+        boolean equals(final PaletteGenerator generator, final int radius, final float value, final int width, final int height,
+                       final float centerX, final float centerY, final float scaleX, final float scaleY) {
+            return mGenerator == generator && mRadius == radius && mValue == value
+                    && mWidth == width && mHeight == height
+                    && mCenterX == centerX && mCenterY == centerY && mScaleX == scaleX && mScaleY == scaleY;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return key.equals(mGenerator, mRadius, mValue, mWidth, mHeight, mCenterX, mCenterY, mScaleX, mScaleY);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(mGenerator);
+            hash = 31 * hash + mRadius;
+            hash = 31 * hash + Float.floatToIntBits(mValue);
+            hash = 31 * hash + mWidth;
+            hash = 31 * hash + mHeight;
+            hash = 31 * hash + Float.floatToIntBits(mCenterX);
+            hash = 31 * hash + Float.floatToIntBits(mCenterY);
+            hash = 31 * hash + Float.floatToIntBits(mScaleX);
+            return 31 * hash + Float.floatToIntBits(mScaleY);
+        }
+    }
+}
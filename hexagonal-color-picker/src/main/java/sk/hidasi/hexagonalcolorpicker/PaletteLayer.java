@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RenderNode;
+import android.os.Build;
+
+import androidx.annotation.RequiresApi;
+
+/**
+ * Retained rendering of the static palette (all swatches without the check mark).
+ * The palette is recorded once per size and color set into a RenderNode (API 29+, hardware
+ * accelerated canvas) or into a software bitmap, then every frame only replays the recording.
+ */
+final class PaletteLayer {
+
+    /**
+     * Draws the content of the layer.
+     */
+    interface Renderer {
+        /**
+         * Draws the static palette.
+         *
+         * @param canvas Recording canvas
+         */
+        void drawPalette(final Canvas canvas);
+    }
+
+    private final Renderer mRenderer;
+    private final Paint mBitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    // Display list (API 29+, created lazily)
+    private Object mRenderNode;
+    // Software fallback
+    private Bitmap mBitmap;
+    // The recording matches the current palette
+    private boolean mValid;
+
+    /**
+     * Constructor.
+     *
+     * @param renderer Content renderer
+     */
+    PaletteLayer(final Renderer renderer) {
+        mRenderer = renderer;
+    }
+
+    /**
+     * Marks the recording as outdated (size, colors or swatch shapes have changed).
+     */
+    void invalidate() {
+        mValid = false;
+    }
+
+    /**
+     * Releases the recording (e.g. when the view is detached).
+     */
+    void release() {
+        mValid = false;
+        if (mBitmap != null) {
+            mBitmap.recycle();
+            mBitmap = null;
+        }
+        if (mRenderNode != null) {
+            NodeRecorder.discard(mRenderNode);
+        }
+    }
+
+    /**
+     * Draws the palette (records it first if needed).
+     *
+     * @param canvas Target canvas
+     * @param width  Layer width (pixels)
+     * @param height Layer height (pixels)
+     */
+    void draw(final Canvas canvas, final int width, final int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && canvas.isHardwareAccelerated()) {
+            if (mRenderNode == null) {
+                mRenderNode = NodeRecorder.create();
+            }
+            if (!mValid || !NodeRecorder.hasDisplayList(mRenderNode)) {
+                NodeRecorder.record(mRenderNode, mRenderer, width, height);
+                mValid = true;
+            }
+            NodeRecorder.draw(mRenderNode, canvas);
+            return;
+        }
+
+        if (mBitmap == null || mBitmap.getWidth() != width || mBitmap.getHeight() != height) {
+            if (mBitmap != null) {
+                mBitmap.recycle();
+            }
+            mBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mValid = false;
+        }
+        if (!mValid) {
+            mBitmap.eraseColor(0);
+            mRenderer.drawPalette(new Canvas(mBitmap));
+            mValid = true;
+        }
+        canvas.drawBitmap(mBitmap, 0.0f, 0.0f, mBitmapPaint);
+    }
+
+    /**
+     * RenderNode access (kept in a separate class, so the layer loads on API levels without RenderNode).
+     */
+    @RequiresApi(Build.VERSION_CODES.Q)
+    private static final class NodeRecorder {
+
+        static Object create() {
+            return new RenderNode("HexagonalColorPicker");
+        }
+
+        static boolean hasDisplayList(final Object node) {
+            return ((RenderNode) node).hasDisplayList();
+        }
+
+        static void record(final Object node, final Renderer renderer, final int width, final int height) {
+            final RenderNode renderNode = (RenderNode) node;
+            renderNode.setPosition(0, 0, width, height);
+            final Canvas canvas = renderNode.beginRecording(width, height);
+            try {
+                renderer.drawPalette(canvas);
+            } finally {
+                renderNode.endRecording();
+            }
+        }
+
+        static void draw(final Object node, final Canvas canvas) {
+            canvas.drawRenderNode((RenderNode) node);
+        }
+
+        static void discard(final Object node) {
+            ((RenderNode) node).discardDisplayList();
+        }
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import sk.hidasi.hexagonalcolorpicker.core.ColorIndex;
+import sk.hidasi.hexagonalcolorpicker.core.HexGrid;
+import sk.hidasi.hexagonalcolorpicker.core.HexPalette;
+import sk.hidasi.hexagonalcolorpicker.core.HsvPaletteGenerator;
+import sk.hidasi.hexagonalcolorpicker.core.PaletteGenerator;
+
+/**
+ * Immutable table of precomputed palette data (fill colors, stroke colors and color to swatch
+ * index lookup). Darker value layers of the palette (with their stroke colors) are generated
+ * on first use and kept in a small per-table LRU cache.
+ * Tables are shared by all pickers through a small process-wide LRU cache keyed by palette generator
+ * and palette radius.
+ * The arrays are never modified after construction, callers must not modify them either.
+ * Tables can be prepared on a background thread ({@link #obtainAsync(int, OnPaletteReadyListener)}),
+ * so a palette is ready before it is shown.
+ */
+public final class PaletteTable {
+
+    // Maximum number of cached tables (least recently used tables are evicted first).
+    private static final int CACHE_SIZE = 8;
+    // Maximum number of cached value layers per table.
+    private static final int LAYER_CACHE_SIZE = 4;
+
+    // Process-wide cache (access ordered => LRU).
+    private static final Map<Key, PaletteTable> sCache = new LinkedHashMap<Key, PaletteTable>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, PaletteTable> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    // Background thread which builds tables (created on the first request).
+    private static final Executor sExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "PaletteTable");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+
+    // Delivers prepared tables on the main thread.
+    private static Handler sMainHandler;
+
+    /**
+     * The interface of palette preparation listener.
+     */
+    public interface OnPaletteReadyListener {
+        /**
+         * Called on the main thread when the table is ready.
+         *
+         * @param table Palette table
+         */
+        void onPaletteReady(final PaletteTable table);
+    }
+
+    /**
+     * Palette generator.
+     */
+    final PaletteGenerator mGenerator;
+    /**
+     * Palette radius.
+     */
+    final int mRadius;
+    /**
+     * Fill colors of the swatches (index order of the hexagonal layout).
+     */
+    final int[] mColors;
+    /**
+     * Stroke colors of the swatches.
+     */
+    final int[] mStrokeColors;
+    /**
+     * Color to swatch index lookup.
+     */
+    final ColorIndex mColorIndex;
+    /**
+     * The palette itself (value layer 0).
+     */
+    private final Layer mBaseLayer;
+    /**
+     * Darker value layers keyed by layer count and layer index (access ordered => LRU).
+     */
+    private final Map<Integer, Layer> mLayers = new LinkedHashMap<Integer, Layer>(LAYER_CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Layer> eldest) {
+            return size() > LAYER_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Builds the table (use {@link #obtain(PaletteGenerator, int)}).
+     *
+     * @param generator Palette generator
+     * @param radius    Palette radius
+     */
+    private PaletteTable(final PaletteGenerator generator, final int radius) {
+        final int swatchCount = HexGrid.getSwatchCount(radius);
+        mGenerator = generator;
+        mRadius = radius;
+        mColors = new int[swatchCount];
+        mStrokeColors = new int[swatchCount];
+
+        final int colorCount = HexPalette.fillColors(generator, radius, mColors);
+        HexPalette.fillStrokeColors(mColors, mStrokeColors, swatchCount);
+        mColorIndex = new ColorIndex(mColors, swatchCount);
+        mBaseLayer = new Layer(mColors, mStrokeColors);
+
+        if (colorCount != swatchCount) {
+            throw new IllegalStateException("The number of color swatches and palette radius are inconsistent.");
+        }
+    }
+
+    /**
+     * Gets the shared table of the default palette for the given radius (builds it on cache miss).
+     *
+     * @param radius Palette radius
+     * @return Palette table
+     */
+    public static PaletteTable obtain(final int radius) {
+        return obtain(HsvPaletteGenerator.INSTANCE, radius);
+    }
+
+    /**
+     * Gets the shared table for the given palette generator and radius (builds it on cache miss).
+     *
+     * @param generator Palette generator
+     * @param radius    Palette radius
+     * @return Palette table
+     */
+    public static PaletteTable obtain(final PaletteGenerator generator, final int radius) {
+        checkArguments(generator, radius);
+        final Key key = new Key(generator, radius);
+        synchronized (sCache) {
+            final PaletteTable table = sCache.get(key);
+            if (table != null) {
+                return table;
+            }
+        }
+        // built outside of the lock, so a large palette does not block other lookups
+        final PaletteTable table = new PaletteTable(generator, radius);
+        synchronized (sCache) {
+            final PaletteTable cached = sCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            sCache.put(key, table);
+            return table;
+        }
+    }
+
+    /**
+     * Gets the shared table of the default palette for the given radius if it is already built.
+     *
+     * @param radius Palette radius
+     * @return Palette table or null
+     */
+    public static PaletteTable peek(final int radius) {
+        return peek(HsvPaletteGenerator.INSTANCE, radius);
+    }
+
+    /**
+     * Gets the shared table for the given palette generator and radius if it is already built.
+     *
+     * @param generator Palette generator
+     * @param radius    Palette radius
+     * @return Palette table or null
+     */
+    public static PaletteTable peek(final PaletteGenerator generator, final int radius) {
+        synchronized (sCache) {
+            return sCache.get(new Key(generator, radius));
+        }
+    }
+
+    /**
+     * Builds the table of the default palette for the given radius on a background thread.
+     * The listener is always called on the main thread (later, even if the table is already cached).
+     *
+     * @param radius   Palette radius
+     * @param listener Listener or null (only warms up the cache)
+     */
+    public static void obtainAsync(final int radius, final OnPaletteReadyListener listener) {
+        obtainAsync(HsvPaletteGenerator.INSTANCE, radius, listener);
+    }
+
+    /**
+     * Builds the table for the given palette generator and radius on a background thread.
+     * The listener is always called on the main thread (later, even if the table is already cached).
+     *
+     * @param generator Palette generator
+     * @param radius    Palette radius
+     * @param listener  Listener or null (only warms up the cache)
+     */
+    public static void obtainAsync(final PaletteGenerator generator, final int radius, final OnPaletteReadyListener listener) {
+        checkArguments(generator, radius);
+        final Handler handler = getMainHandler();
+        sExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final PaletteTable table = obtain(generator, radius);
+                if (listener != null) {
+                    handler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            listener.onPaletteReady(table);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    private static void checkArguments(final PaletteGenerator generator, final int radius) {
+        if (generator == null) {
+            throw new IllegalArgumentException("Palette generator must not be null.");
+        }
+        if (radius < 0) {
+            throw new IllegalArgumentException("Palette radius must not be negative: " + radius);
+        }
+    }
+
+    private static synchronized Handler getMainHandler() {
+        if (sMainHandler == null) {
+            sMainHandler = new Handler(Looper.getMainLooper());
+        }
+        return sMainHandler;
+    }
+
+    /**
+     * Removes all cached tables.
+     */
+    public static void clearCache() {
+        synchronized (sCache) {
+            sCache.clear();
+        }
+    }
+
+    /**
+     * Gets palette generator.
+     *
+     * @return Palette generator
+     */
+    public PaletteGenerator getGenerator() {
+        return mGenerator;
+    }
+
+    /**
+     * Gets palette radius.
+     *
+     * @return Palette radius
+     */
+    public int getRadius() {
+        return mRadius;
+    }
+
+    /**
+     * Gets the number of swatches.
+     *
+     * @return Swatch count
+     */
+    public int getSwatchCount() {
+        return mColors.length;
+    }
+
+    /**
+     * Gets the fill color of a swatch.
+     *
+     * @param index Swatch index
+     * @return Fill color
+     */
+    public int getColor(final int index) {
+        return mColors[index];
+    }
+
+    /**
+     * Gets the stroke color of a swatch.
+     *
+     * @param index Swatch index
+     * @return Stroke color
+     */
+    public int getStrokeColor(final int index) {
+        return mStrokeColors[index];
+    }
+
+    /**
+     * Finds the swatch with the given color or the perceptually nearest one.
+     *
+     * @param color Color
+     * @return Swatch index or -1 (empty palette)
+     */
+    public int findNearestColor(final int color) {
+        return mColorIndex.findNearest(color);
+    }
+
+    /**
+     * Gets fill colors of a value (brightness) layer, generates them on the first request.
+     * Layer 0 is the palette itself, the layer i has (layerCount - i) / layerCount of its HSV value.
+     * The returned array is shared, callers must not modify it.
+     *
+     * @param layer      Layer index (0 .. layerCount - 1)
+     * @param layerCount Number of layers
+     * @return Fill colors of the layer
+     */
+    public int[] getLayerColors(final int layer, final int layerCount) {
+        return getLayer(layer, layerCount).mColors;
+    }
+
+    /**
+     * Gets stroke colors of a value (brightness) layer, generated together with its fill colors.
+     * The returned array is shared, callers must not modify it.
+     *
+     * @param layer      Layer index (0 .. layerCount - 1)
+     * @param layerCount Number of layers
+     * @return Stroke colors of the layer
+     */
+    public int[] getLayerStrokeColors(final int layer, final int layerCount) {
+        return getLayer(layer, layerCount).mStrokeColors;
+    }
+
+    private Layer getLayer(final int layer, final int layerCount) {
+        if (layer < 0 || layer >= layerCount) {
+            throw new IllegalArgumentException("Value layer out of range: " + layer + " / " + layerCount);
+        }
+        if (layer == 0) {
+            return mBaseLayer;
+        }
+        final Integer key = (layerCount << 16) | layer;
+        synchronized (mLayers) {
+            Layer cached = mLayers.get(key);
+            if (cached == null) {
+                final int[] colors = new int[mColors.length];
+                final int[] strokeColors = new int[mColors.length];
+                HexPalette.fillValueLayer(mColors, mColors.length, HexPalette.getLayerValue(layer, layerCount), colors);
+                HexPalette.fillStrokeColors(colors, strokeColors, colors.length);
+                cached = new Layer(colors, strokeColors);
+                mLayers.put(key, cached);
+            }
+            return cached;
+        }
+    }
+
+    /**
+     * Fill and stroke colors of a value layer.
+     */
+    private static final class Layer {
+
+        final int[] mColors;
+        final int[] mStrokeColors;
+
+        Layer(final int[] colors, final int[] strokeColors) {
+            mColors = colors;
+            mStrokeColors = strokeColors;
+        }
+    }
+
+    /**
+     * Cache key (generator instance and palette radius).
+     */
+    private static final class Key {
+
+        private final PaletteGenerator mGenerator;
+        private final int mRadius;
+
+        Key(final PaletteGenerator generator, final int radius) {
+            mGenerator = generator;
+            mRadius = radius;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return mGenerator == key.mGenerator && mRadius == key.mRadius;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(mGenerator) + mRadius;
+        }
+    }
+}
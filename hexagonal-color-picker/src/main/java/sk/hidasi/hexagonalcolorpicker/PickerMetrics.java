@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.os.Build;
+import android.os.SystemClock;
+
+/**
+ * Performance metrics listener of the picker (see {@link HexagonalColorPicker#setMetrics(PickerMetrics)}).
+ * All callbacks are called on the main thread. Nothing is measured while no listener is set.
+ */
+public interface PickerMetrics {
+
+    /**
+     * Monotonic time source (can be replaced e.g. by a fake clock in tests).
+     */
+    interface Clock {
+        /**
+         * Gets the current time.
+         *
+         * @return Time in nanoseconds
+         */
+        long nanoTime();
+    }
+
+    /**
+     * The default clock (SystemClock.elapsedRealtimeNanos, millisecond resolution before API 17).
+     */
+    Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long nanoTime() {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+                return SystemClock.elapsedRealtimeNanos();
+            }
+            return SystemClock.elapsedRealtime() * 1000000L;
+        }
+    };
+
+    /**
+     * Called when the swatches have been (re)built for a palette.
+     *
+     * @param radius        Palette radius
+     * @param swatchCount   Number of swatches
+     * @param durationNanos Duration of the build
+     */
+    void onPaletteBuilt(final int radius, final int swatchCount, final long durationNanos);
+
+    /**
+     * Called when the swatches have been positioned (size or palette change).
+     *
+     * @param swatchCount   Number of swatches
+     * @param durationNanos Duration of the layout pass
+     */
+    void onSwatchesLaidOut(final int swatchCount, final long durationNanos);
+
+    /**
+     * Called when the palette has been drawn for the first time.
+     *
+     * @param durationNanos Time from showing the dialog (or attaching the picker) to the first frame
+     */
+    void onFirstFrame(final long durationNanos);
+
+    /**
+     * Called when the entrance animation has finished (or has been ended early).
+     *
+     * @param frames        Number of animation frames
+     * @param droppedFrames Number of frames missed between them (assuming 60 frames per second)
+     * @param durationNanos Duration of the animation
+     */
+    void onEntranceAnimationFinished(final int frames, final int droppedFrames, final long durationNanos);
+
+    /**
+     * Called when a color has been selected by touch, right before the selection listener is called.
+     *
+     * @param color        Selected color
+     * @param latencyNanos Time from the touch down
+     */
+    void onColorSelected(final int color, final long latencyNanos);
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.os.Build;
+
+import androidx.annotation.RequiresApi;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Fork/join pool shared by the parallel pixel loops of the library (one worker per core).
+ * ForkJoinPool is available since API 21, callers fall back to the calling thread on older devices.
+ */
+final class SharedForkJoinPool {
+
+    private SharedForkJoinPool() {
+    }
+
+    /**
+     * Gets the pool (created on first use, its worker threads are daemons).
+     *
+     * @return Shared pool
+     */
+    @RequiresApi(Build.VERSION_CODES.LOLLIPOP)
+    static ForkJoinPool get() {
+        return Holder.POOL;
+    }
+
+    private static final class Holder {
+        static final ForkJoinPool POOL = new ForkJoinPool();
+    }
+}
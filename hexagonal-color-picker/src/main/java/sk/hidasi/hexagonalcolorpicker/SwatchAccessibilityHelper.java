@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.graphics.Rect;
+import android.os.Bundle;
+import android.view.accessibility.AccessibilityEvent;
+
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
+import androidx.customview.widget.ExploreByTouchHelper;
+
+import java.util.List;
+import java.util.Locale;
+
+import sk.hidasi.hexagonalcolorpicker.core.ColorMath;
+
+/**
+ * Exposes the color swatches to accessibility services as virtual views (the virtual view id is the swatch index).
+ * Nodes are populated on demand from the swatch geometry of the picker, so the swatches do not need to be
+ * real views and touch exploration resolves swatches with the same constant-time hit test as touches.
+ */
+class SwatchAccessibilityHelper extends ExploreByTouchHelper {
+
+    private final HexagonalColorPicker mPicker;
+    private final Rect mBounds = new Rect();
+
+    /**
+     * Constructor.
+     *
+     * @param picker Host picker
+     */
+    SwatchAccessibilityHelper(final HexagonalColorPicker picker) {
+        super(picker);
+        mPicker = picker;
+    }
+
+    @Override
+    protected int getVirtualViewAt(float x, float y) {
+        final int index = mPicker.getAccessibleSwatchAt(x, y);
+        return index >= 0 ? index : INVALID_ID;
+    }
+
+    @Override
+    protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+        mPicker.getAccessibleSwatches(virtualViewIds);
+    }
+
+    @Override
+    protected void onPopulateNodeForVirtualView(int virtualViewId, AccessibilityNodeInfoCompat node) {
+        final boolean selected = virtualViewId == mPicker.getAccessibleSelectedIndex();
+        node.setContentDescription(getDescription(virtualViewId, selected));
+        node.setCheckable(true);
+        node.setChecked(selected);
+        node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+        if (!mPicker.getAccessibleSwatchBounds(virtualViewId, mBounds)) {
+            // the node must have bounds (the swatch is not laid out yet)
+            mBounds.set(0, 0, 1, 1);
+        }
+        node.setBoundsInParent(mBounds);
+    }
+
+    @Override
+    protected boolean onPerformActionForVirtualView(int virtualViewId, int action, Bundle arguments) {
+        if (action != AccessibilityNodeInfoCompat.ACTION_CLICK) {
+            return false;
+        }
+        mPicker.performSwatchClick(virtualViewId);
+        sendEventForVirtualView(virtualViewId, AccessibilityEvent.TYPE_VIEW_CLICKED);
+        return true;
+    }
+
+    /**
+     * Builds the content description of a swatch (its color as #RRGGBB).
+     *
+     * @param index    Swatch index
+     * @param selected True if it is the selected swatch
+     * @return Content description
+     */
+    private CharSequence getDescription(final int index, final boolean selected) {
+        final int swatchColor = mPicker.getAccessibleSwatchColor(index);
+        if (ColorMath.isEmpty(swatchColor)) {
+            // stale virtual view id (e.g. from a larger palette) or the swatches are not laid out yet
+            return mPicker.getResources().getString(R.string.color_picker_swatch_empty);
+        }
+        final String color = String.format(Locale.US, "#%06X", swatchColor & 0xFFFFFF);
+        final String description = mPicker.getResources().getString(R.string.color_picker_swatch_description, color);
+        if (selected) {
+            return mPicker.getResources().getString(R.string.color_picker_swatch_selected, description);
+        }
+        return description;
+    }
+}
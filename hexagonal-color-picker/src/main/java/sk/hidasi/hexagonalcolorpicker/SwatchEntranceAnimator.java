@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
+import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
+import android.view.animation.OvershootInterpolator;
+
+/**
+ * Staggered entrance animation of the color swatches driven by a single ValueAnimator.
+ * Swatch i starts (ANIM_TIME_VIEW - ANIM_TIME_SWATCH) * i / count ms after the start
+ * and scales up in ANIM_TIME_SWATCH ms, the scale is computed from the index and the global time.
+ * Swatches are started in index order, so the ones that are still animating form a continuous range.
+ */
+class SwatchEntranceAnimator extends AnimatorListenerAdapter implements ValueAnimator.AnimatorUpdateListener {
+
+    // Duration of the animation for the whole view (all swatches).
+    static final int ANIM_TIME_VIEW = 500;
+    // Duration of the animation for a single swatch.
+    static final int ANIM_TIME_SWATCH = 200;
+    // Delay between the first and the last swatch.
+    private static final int ANIM_TIME_STAGGER = ANIM_TIME_VIEW - ANIM_TIME_SWATCH;
+
+    /**
+     * Receives animation frames.
+     */
+    interface Callback {
+        /**
+         * Called when the scale of swatches in [from, to) has changed.
+         * Swatches below 'from' are fully visible, swatches from 'to' are hidden.
+         *
+         * @param from First changed swatch index
+         * @param to   End of the changed range (exclusive)
+         */
+        void onSwatchesAnimated(final int from, final int to);
+    }
+
+    private final Callback mCallback;
+    private final ValueAnimator mAnimator;
+    private final Interpolator mInterpolator = new OvershootInterpolator();
+
+    // Number of animated swatches
+    private int mCount;
+    // Animation time (ms)
+    private long mTime;
+    // Swatches [0, mDoneEnd) are fully visible
+    private int mDoneEnd;
+    // True while the animation is running
+    private boolean mRunning;
+
+    /**
+     * Constructor.
+     *
+     * @param callback Frame callback
+     */
+    SwatchEntranceAnimator(final Callback callback) {
+        mCallback = callback;
+        mAnimator = ValueAnimator.ofFloat(0.0f, 1.0f);
+        mAnimator.setDuration(ANIM_TIME_VIEW);
+        mAnimator.setInterpolator(new LinearInterpolator());
+        mAnimator.addUpdateListener(this);
+        mAnimator.addListener(this);
+    }
+
+    /**
+     * Starts (or restarts) the animation.
+     *
+     * @param count Number of swatches
+     */
+    void start(final int count) {
+        if (mRunning) {
+            mRunning = false;
+            mAnimator.cancel();
+        }
+        mCount = count;
+        mTime = 0;
+        mDoneEnd = 0;
+        mRunning = true;
+        mAnimator.start();
+    }
+
+    /**
+     * Ends the animation (all swatches become fully visible).
+     */
+    void end() {
+        if (mRunning) {
+            mAnimator.end();
+        }
+    }
+
+    /**
+     * Checks whether the animation is running.
+     *
+     * @return True if running
+     */
+    boolean isRunning() {
+        return mRunning;
+    }
+
+    /**
+     * Gets the end of the range of swatches which are (at least partially) visible.
+     *
+     * @return Swatch index (exclusive)
+     */
+    int getVisibleEnd() {
+        return mRunning ? getStartedCount(mTime) : mCount;
+    }
+
+    /**
+     * Gets the end of the range of swatches which are fully visible.
+     *
+     * @return Swatch index (exclusive)
+     */
+    int getDoneEnd() {
+        return mRunning ? mDoneEnd : mCount;
+    }
+
+    /**
+     * Calculates the current scale of a swatch.
+     *
+     * @param index Swatch index
+     * @return Scale of the swatch
+     */
+    float getScale(final int index) {
+        if (!mRunning) {
+            return 1.0f;
+        }
+        final long time = mTime - (long) ANIM_TIME_STAGGER * index / mCount;
+        if (time <= 0) {
+            return 0.0f;
+        }
+        if (time >= ANIM_TIME_SWATCH) {
+            return 1.0f;
+        }
+        return mInterpolator.getInterpolation((float) time / ANIM_TIME_SWATCH);
+    }
+
+    /**
+     * Calculates the number of swatches which have started at the given time.
+     *
+     * @param time Animation time (ms)
+     * @return Number of started swatches
+     */
+    private int getStartedCount(final long time) {
+        if (time < 0) {
+            return 0;
+        }
+        // delay(i) = STAGGER * i / count <= time  <=>  i < (time + 1) * count / STAGGER
+        final long started = ((time + 1) * mCount + ANIM_TIME_STAGGER - 1) / ANIM_TIME_STAGGER;
+        return (int) Math.min(started, mCount);
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator animation) {
+        if (!mRunning) {
+            return;
+        }
+        mTime = (long) (animation.getAnimatedFraction() * ANIM_TIME_VIEW);
+        final int from = mDoneEnd;
+        final int to = getStartedCount(mTime);
+        mDoneEnd = getStartedCount(mTime - ANIM_TIME_SWATCH);
+        mCallback.onSwatchesAnimated(from, to);
+    }
+
+    @Override
+    public void onAnimationEnd(Animator animation) {
+        if (!mRunning) {
+            return;
+        }
+        mRunning = false;
+        mTime = ANIM_TIME_VIEW;
+        final int from = mDoneEnd;
+        mDoneEnd = mCount;
+        mCallback.onSwatchesAnimated(from, mCount);
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pre-rasterized swatch sprites (shadow, fill mask and stroke ring) for one swatch pixel size.
+ * The sprites are stored side by side in a single ALPHA_8 bitmap, they are tinted by the paint color
+ * when blitted, so one atlas serves all swatch colors. Atlases are shared by all pickers through
+ * a small process-wide LRU cache keyed by the swatch geometry.
+ */
+final class SwatchSpriteAtlas {
+
+    // Maximum number of cached atlases (least recently used atlases are evicted first).
+    private static final int CACHE_SIZE = 4;
+
+    // Sprite slots in the atlas bitmap
+    private static final int SPRITE_SHADOW = 0;
+    private static final int SPRITE_FILL = 1;
+    private static final int SPRITE_STROKE = 2;
+    private static final int SPRITE_COUNT = 3;
+
+    // Process-wide cache (access ordered => LRU).
+    private static final Map<Long, SwatchSpriteAtlas> sCache = new LinkedHashMap<Long, SwatchSpriteAtlas>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, SwatchSpriteAtlas> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    // Swatch size, padding and stroke width in pixels
+    private final int mSize;
+    private final int mPadding;
+    private final int mStrokeWidth;
+    // Atlas bitmap (SPRITE_COUNT sprites of mSize x mSize pixels)
+    private final Bitmap mBitmap;
+    // Reused source and destination rectangles (drawing happens on the UI thread only)
+    private final Rect mSrcRect = new Rect();
+    private final RectF mDstRect = new RectF();
+
+    /**
+     * Rasterizes the sprites (use {@link #obtain(int, int, int)}).
+     *
+     * @param size        Swatch size (pixels)
+     * @param padding     Swatch padding (pixels)
+     * @param strokeWidth Stroke width (pixels)
+     */
+    private SwatchSpriteAtlas(final int size, final int padding, final int strokeWidth) {
+        mSize = size;
+        mPadding = padding;
+        mStrokeWidth = strokeWidth;
+        mBitmap = Bitmap.createBitmap(size * SPRITE_COUNT, size, Bitmap.Config.ALPHA_8);
+
+        final Canvas canvas = new Canvas(mBitmap);
+        final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        final RectF rect = new RectF();
+        final float inset = strokeWidth * 0.5f;
+        final int content = size - padding;
+
+        paint.setStyle(Paint.Style.FILL);
+        rect.set(SPRITE_SHADOW * size, 0, SPRITE_SHADOW * size + size, size);
+        canvas.drawOval(rect, paint);
+        rect.set(SPRITE_FILL * size + inset, inset, SPRITE_FILL * size + content - inset, content - inset);
+        canvas.drawOval(rect, paint);
+        if (strokeWidth > 0) {
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setStrokeWidth(strokeWidth);
+            rect.set(SPRITE_STROKE * size + inset, inset, SPRITE_STROKE * size + content - inset, content - inset);
+            canvas.drawOval(rect, paint);
+        }
+    }
+
+    /**
+     * Gets the shared atlas for the given swatch geometry (rasterizes it on cache miss).
+     *
+     * @param size        Swatch size (pixels)
+     * @param padding     Swatch padding (pixels)
+     * @param strokeWidth Stroke width (pixels)
+     * @return Sprite atlas
+     */
+    static SwatchSpriteAtlas obtain(final int size, final int padding, final int strokeWidth) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Swatch size must be positive: " + size);
+        }
+        final long key = ((long) size << 40) | ((long) (padding & 0xFFFFF) << 20) | (strokeWidth & 0xFFFFF);
+        synchronized (sCache) {
+            SwatchSpriteAtlas atlas = sCache.get(key);
+            if (atlas == null) {
+                atlas = new SwatchSpriteAtlas(size, padding, strokeWidth);
+                sCache.put(key, atlas);
+            }
+            return atlas;
+        }
+    }
+
+    /**
+     * Checks whether the atlas matches the given swatch geometry.
+     *
+     * @param size        Swatch size (pixels)
+     * @param padding     Swatch padding (pixels)
+     * @param strokeWidth Stroke width (pixels)
+     * @return True if the atlas can be used
+     */
+    boolean matches(final int size, final int padding, final int strokeWidth) {
+        return mSize == size && mPadding == padding && mStrokeWidth == strokeWidth;
+    }
+
+    /**
+     * Draws the shadow sprite.
+     *
+     * @param canvas Canvas
+     * @param left   Left edge of the swatch
+     * @param top    Top edge of the swatch
+     * @param paint  Paint (its color tints the sprite)
+     */
+    void drawShadow(final Canvas canvas, final float left, final float top, final Paint paint) {
+        drawSprite(canvas, SPRITE_SHADOW, left, top, paint);
+    }
+
+    /**
+     * Draws the fill sprite.
+     *
+     * @param canvas Canvas
+     * @param left   Left edge of the swatch
+     * @param top    Top edge of the swatch
+     * @param paint  Paint (its color tints the sprite)
+     */
+    void drawFill(final Canvas canvas, final float left, final float top, final Paint paint) {
+        drawSprite(canvas, SPRITE_FILL, left, top, paint);
+    }
+
+    /**
+     * Draws the stroke sprite.
+     *
+     * @param canvas Canvas
+     * @param left   Left edge of the swatch
+     * @param top    Top edge of the swatch
+     * @param paint  Paint (its color tints the sprite)
+     */
+    void drawStroke(final Canvas canvas, final float left, final float top, final Paint paint) {
+        if (mStrokeWidth > 0) {
+            drawSprite(canvas, SPRITE_STROKE, left, top, paint);
+        }
+    }
+
+    private void drawSprite(final Canvas canvas, final int sprite, final float left, final float top, final Paint paint) {
+        mSrcRect.set(sprite * mSize, 0, sprite * mSize + mSize, mSize);
+        mDstRect.set(left, top, left + mSize, top + mSize);
+        canvas.drawBitmap(mBitmap, mSrcRect, mDstRect, paint);
+    }
+}
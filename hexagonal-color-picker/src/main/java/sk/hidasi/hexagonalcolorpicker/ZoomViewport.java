@@ -0,0 +1,310 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import sk.hidasi.hexagonalcolorpicker.core.HexGrid;
+
+/**
+ * Zoom and pan of the palette (canvas mode) and the swatches visible in the view.
+ * At zoom 1 the whole palette fits the view as without zooming, the maximal zoom shows the swatches
+ * as large as in the default palette. The visible swatch range is calculated from the view bounds
+ * row by row, so only the visible swatches are visited. When the swatches get smaller than the minimal
+ * size, only every step-th swatch of every step-th row is visited (a coarser hexagonal grid of swatches
+ * step times larger), so the number of visited swatches depends on the view size, not on the palette radius.
+ */
+final class ZoomViewport {
+
+    private final float mMinSwatchSize;
+
+    private int mRadius;
+    // Palette center and size at zoom 1 (pixels)
+    private float mBaseCenterX;
+    private float mBaseCenterY;
+    private float mBaseScaleX;
+    private float mBaseScaleY;
+    // View size (pixels)
+    private int mWidth;
+    private int mHeight;
+    private float mMaxZoom = 1.0f;
+
+    private float mZoom = 1.0f;
+    // Offset of the palette center (pixels)
+    private float mPanX;
+    private float mPanY;
+
+    // Visible range (see updateVisibleRange)
+    private int mStep = 1;
+    private int mRowFrom;
+    private int mRowTo;
+    private float mLeft;
+    private float mRight;
+
+    /**
+     * Constructor.
+     *
+     * @param minSwatchSize Minimal swatch size (pixels), smaller swatches are drawn at a coarser level of detail
+     */
+    ZoomViewport(final float minSwatchSize) {
+        mMinSwatchSize = minSwatchSize;
+    }
+
+    /**
+     * Sets the palette and the view geometry at zoom 1 (the zoom and the pan are kept in range,
+     * they are reset for another palette radius).
+     *
+     * @param radius  Palette radius
+     * @param centerX Palette center X (pixels)
+     * @param centerY Palette center Y (pixels)
+     * @param scaleX  Palette width (pixels)
+     * @param scaleY  Palette height (pixels)
+     * @param width   View width (pixels)
+     * @param height  View height (pixels)
+     */
+    void setGeometry(final int radius, final float centerX, final float centerY, final float scaleX, final float scaleY,
+                     final int width, final int height) {
+        if (mRadius != radius) {
+            reset();
+        }
+        mRadius = radius;
+        mBaseCenterX = centerX;
+        mBaseCenterY = centerY;
+        mBaseScaleX = scaleX;
+        mBaseScaleY = scaleY;
+        mWidth = width;
+        mHeight = height;
+        mMaxZoom = Math.max(1.0f, (radius * 2 + 1) / (float) (HexagonalColorPicker.DEFAULT_PALETTE_RADIUS * 2 + 1));
+        zoomBy(1.0f, centerX, centerY);
+    }
+
+    /**
+     * Resets the zoom and the pan.
+     */
+    void reset() {
+        mZoom = 1.0f;
+        mPanX = 0.0f;
+        mPanY = 0.0f;
+    }
+
+    /**
+     * Gets the zoom factor.
+     *
+     * @return Zoom (1 => the whole palette is shown)
+     */
+    float getZoom() {
+        return mZoom;
+    }
+
+    /**
+     * Zooms around a fixed point (the palette point under it stays there).
+     *
+     * @param factor Zoom factor
+     * @param focusX Focus X (pixels)
+     * @param focusY Focus Y (pixels)
+     * @return True if the zoom or the pan has changed
+     */
+    boolean zoomBy(final float factor, final float focusX, final float focusY) {
+        final float zoom = Math.max(1.0f, Math.min(mZoom * factor, mMaxZoom));
+        final float applied = zoom / mZoom;
+        final float centerX = focusX + (getCenterX() - focusX) * applied;
+        final float centerY = focusY + (getCenterY() - focusY) * applied;
+        final boolean changed = zoom != mZoom;
+        mZoom = zoom;
+        return panBy(centerX - getCenterX(), centerY - getCenterY()) || changed;
+    }
+
+    /**
+     * Moves the palette (the palette keeps covering the area it covers at zoom 1).
+     *
+     * @param dx X offset (pixels)
+     * @param dy Y offset (pixels)
+     * @return True if the pan has changed
+     */
+    boolean panBy(final float dx, final float dy) {
+        final float limitX = 0.5f * mBaseScaleX * (mZoom - 1.0f);
+        final float limitY = 0.5f * mBaseScaleY * (mZoom - 1.0f);
+        final float panX = Math.max(-limitX, Math.min(mPanX + dx, limitX));
+        final float panY = Math.max(-limitY, Math.min(mPanY + dy, limitY));
+        final boolean changed = panX != mPanX || panY != mPanY;
+        mPanX = panX;
+        mPanY = panY;
+        return changed;
+    }
+
+    /**
+     * Gets the palette center X.
+     *
+     * @return Center X (pixels)
+     */
+    float getCenterX() {
+        return mBaseCenterX + mPanX;
+    }
+
+    /**
+     * Gets the palette center Y.
+     *
+     * @return Center Y (pixels)
+     */
+    float getCenterY() {
+        return mBaseCenterY + mPanY;
+    }
+
+    /**
+     * Gets the zoomed palette width.
+     *
+     * @return Width (pixels)
+     */
+    float getScaleX() {
+        return mBaseScaleX * mZoom;
+    }
+
+    /**
+     * Gets the zoomed palette height.
+     *
+     * @return Height (pixels)
+     */
+    float getScaleY() {
+        return mBaseScaleY * mZoom;
+    }
+
+    /**
+     * Calculates the X coordinate of a swatch center.
+     *
+     * @param q Axial q coordinate
+     * @param r Axial r coordinate
+     * @return X (pixels)
+     */
+    float getSwatchX(final int q, final int r) {
+        return getCenterX() + (2 * q + r) * 0.5f * getScaleX() / (mRadius * 2 + 1);
+    }
+
+    /**
+     * Calculates the Y coordinate of a swatch center.
+     *
+     * @param r Axial r coordinate
+     * @return Y (pixels)
+     */
+    float getSwatchY(final int r) {
+        return getCenterY() + 2 * r * 0.5f * getScaleY() / (mRadius * 2 + 1);
+    }
+
+    /**
+     * Finds the swatch under a point. At a coarser level of detail the drawn swatch (every step-th one)
+     * covering the point is found.
+     *
+     * @param x X coordinate (pixels)
+     * @param y Y coordinate (pixels)
+     * @return Swatch index or -1 (outside of the palette)
+     */
+    int findSwatchIndexAt(final float x, final float y) {
+        final int diameter = mRadius * 2 + 1;
+        final float column = (x - getCenterX()) / (0.5f * getScaleX()) * diameter;
+        final float row = (y - getCenterY()) / (0.5f * getScaleY()) * diameter * 0.5f;
+        final float q = 0.5f * (column - row);
+        if (mStep > 1) {
+            // the coarse swatches form a hexagonal grid step times larger
+            final int coarseRadius = mRadius / mStep;
+            final int coarse = HexGrid.findSwatchIndex(coarseRadius, q / mStep, row / mStep);
+            if (coarse >= 0) {
+                return HexGrid.getSwatchIndex(mRadius, HexGrid.getSwatchQ(coarseRadius, coarse) * mStep,
+                        HexGrid.getSwatchR(coarseRadius, coarse) * mStep);
+            }
+        }
+        return HexGrid.findSwatchIndex(mRadius, q, row);
+    }
+
+    /**
+     * Calculates the visible swatch range and the level of detail.
+     *
+     * @param swatchRadius Swatch radius at the current zoom (pixels)
+     * @return Level of detail step (1 => all swatches)
+     */
+    int updateVisibleRange(final float swatchRadius) {
+        int step = 1;
+        while (step < mRadius * 2 + 1 && swatchRadius * 2.0f * step < mMinSwatchSize) {
+            step *= 2;
+        }
+        mStep = step;
+        final int diameter = mRadius * 2 + 1;
+        // a swatch of the coarse grid is visible if its center is closer than its radius to the view
+        final float margin = swatchRadius * step;
+        final float rowHeight = getScaleY() / diameter;
+        mRowFrom = alignUp(Math.max(-mRadius, (int) Math.ceil((-margin - getCenterY()) / rowHeight)), step);
+        mRowTo = Math.min(mRadius, (int) Math.floor((mHeight + margin - getCenterY()) / rowHeight));
+        mLeft = -margin;
+        mRight = mWidth + margin;
+        return step;
+    }
+
+    /**
+     * Gets the level of detail step of the visible range.
+     *
+     * @return Step (1 => all swatches)
+     */
+    int getStep() {
+        return mStep;
+    }
+
+    /**
+     * Gets the first visible row (a multiple of the step).
+     *
+     * @return Axial r coordinate
+     */
+    int getRowFrom() {
+        return mRowFrom;
+    }
+
+    /**
+     * Gets the last visible row.
+     *
+     * @return Axial r coordinate (inclusive)
+     */
+    int getRowTo() {
+        return mRowTo;
+    }
+
+    /**
+     * Gets the first visible swatch of a row (a multiple of the step).
+     *
+     * @param r Axial r coordinate
+     * @return Axial q coordinate
+     */
+    int getMinQ(final int r) {
+        final float unit = 0.5f * getScaleX() / (mRadius * 2 + 1);
+        final int q = (int) Math.ceil(((mLeft - getCenterX()) / unit - r) * 0.5f);
+        return alignUp(Math.max(HexGrid.getRowMinQ(mRadius, r), q), mStep);
+    }
+
+    /**
+     * Gets the last visible swatch of a row.
+     *
+     * @param r Axial r coordinate
+     * @return Axial q coordinate (inclusive)
+     */
+    int getMaxQ(final int r) {
+        final float unit = 0.5f * getScaleX() / (mRadius * 2 + 1);
+        final int q = (int) Math.floor(((mRight - getCenterX()) / unit - r) * 0.5f);
+        return Math.min(HexGrid.getRowMinQ(mRadius, r) + HexGrid.getRowSize(mRadius, r) - 1, q);
+    }
+
+    /**
+     * Rounds up to a multiple of the step.
+     */
+    private static int alignUp(final int value, final int step) {
+        final int remainder = ((value % step) + step) % step;
+        return remainder == 0 ? value : value + step - remainder;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts the bytes allocated by the current thread (HotSpot thread allocation counters).
+ * The cost of reading the counter itself is measured once and subtracted.
+ */
+final class AllocationCounter {
+
+    private final com.sun.management.ThreadMXBean mBean;
+    private final long mThreadId;
+    // Bytes allocated by an empty measurement
+    private final long mOverhead;
+    private long mStart;
+
+    AllocationCounter() {
+        mBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        mBean.setThreadAllocatedMemoryEnabled(true);
+        mThreadId = Thread.currentThread().getId();
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 16; i++) {
+            start();
+            overhead = Math.min(overhead, read() - mStart);
+        }
+        mOverhead = overhead;
+    }
+
+    /**
+     * Starts a measurement.
+     */
+    void start() {
+        mStart = read();
+    }
+
+    /**
+     * Gets the bytes allocated since {@link #start()}.
+     *
+     * @return Allocated bytes
+     */
+    long stop() {
+        return read() - mStart - mOverhead;
+    }
+
+    private long read() {
+        return mBean.getThreadAllocatedBytes(mThreadId);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+/**
+ * Metrics clock controlled by the test. The time changes only by {@link #advance(long)}
+ * and by the step added after every read (0 by default).
+ */
+final class FakeClock implements PickerMetrics.Clock {
+
+    private long mNanos;
+    private long mStep;
+    private int mReads;
+    // One-off advance after the given read (-1 => none)
+    private int mJumpRead = -1;
+    private long mJumpNanos;
+
+    @Override
+    public long nanoTime() {
+        final long nanos = mNanos;
+        mNanos += mStep;
+        if (mReads == mJumpRead) {
+            mNanos += mJumpNanos;
+        }
+        mReads++;
+        return nanos;
+    }
+
+    /**
+     * Advances the time.
+     *
+     * @param nanos Duration
+     */
+    void advance(final long nanos) {
+        mNanos += nanos;
+    }
+
+    /**
+     * Sets the time added after every read.
+     *
+     * @param nanos Step
+     */
+    void setStep(final long nanos) {
+        mStep = nanos;
+    }
+
+    /**
+     * Advances the time once more after the given read (e.g. a frame which came late).
+     *
+     * @param read  Read number (from 0, counted since {@link #resetReads()})
+     * @param nanos Additional duration
+     */
+    void jumpAfterRead(final int read, final long nanos) {
+        mJumpRead = read;
+        mJumpNanos = nanos;
+    }
+
+    /**
+     * Restarts the counting of reads.
+     */
+    void resetReads() {
+        mReads = 0;
+    }
+
+    /**
+     * Gets the current time (without reading the clock).
+     *
+     * @return Time in nanoseconds
+     */
+    long peek() {
+        return mNanos;
+    }
+}
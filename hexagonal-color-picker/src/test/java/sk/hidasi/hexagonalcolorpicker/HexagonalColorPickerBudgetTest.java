@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.view.MotionEvent;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import sk.hidasi.hexagonalcolorpicker.core.HexGrid;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Performance budgets of the picker for palette radii 1 - 30: the picker is built, laid out and
+ * touched, and the number of palette builds and swatch layout passes (reported by the metrics),
+ * the time per operation and the bytes allocated in steady state are checked against the budgets
+ * configured in the build script (see {@link PerfBudgets}).
+ */
+@RunWith(RobolectricTestRunner.class)
+public class HexagonalColorPickerBudgetTest {
+
+    private static final int MAX_RADIUS = 30;
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 940;
+    // Rounds before the allocations are counted (class loading, shadow binding, JIT)
+    private static final int WARM_UP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 20;
+    // Swatches tapped for the allocation budget of the touch handling
+    private static final int MEASURED_TAPS = 64;
+
+    private Context mContext;
+    private AllocationCounter mAllocations;
+    private MotionEvent mDown;
+    private MotionEvent mUp;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mAllocations = new AllocationCounter();
+        mDown = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 0.0f, 0.0f, 0);
+        mUp = MotionEvent.obtain(0, 0, MotionEvent.ACTION_UP, 0.0f, 0.0f, 0);
+    }
+
+    @After
+    public void tearDown() {
+        mDown.recycle();
+        mUp.recycle();
+    }
+
+    @Test
+    public void budgetsOfAllRadii() {
+        // the first picker loads the classes and resources, it is not measured
+        PickerTestUtils.layout(createPicker(HexagonalColorPicker.RENDER_MODE_VIEWS, 1, new RecordingMetrics()), WIDTH, HEIGHT);
+        PickerTestUtils.layout(createPicker(HexagonalColorPicker.RENDER_MODE_CANVAS, 1, new RecordingMetrics()), WIDTH, HEIGHT);
+
+        for (int radius = 1; radius <= MAX_RADIUS; radius++) {
+            final int swatchCount = HexGrid.getSwatchCount(radius);
+            final float[] centerX = new float[swatchCount];
+            final float[] centerY = new float[swatchCount];
+            final int[] colors = new int[swatchCount];
+
+            final RecordingMetrics viewsMetrics = new RecordingMetrics();
+            final HexagonalColorPicker views = createPicker(HexagonalColorPicker.RENDER_MODE_VIEWS, radius, viewsMetrics);
+            checkLayoutBudgets(views, viewsMetrics, "views, radius " + radius);
+            assertEquals("views, radius " + radius + ": swatch views", swatchCount + 1, views.getChildCount());
+            for (int i = 0; i < swatchCount; i++) {
+                final HexagonalColorSwatch swatch = (HexagonalColorSwatch) views.getChildAt(i);
+                centerX[i] = swatch.getLeft() + swatch.getPivotX();
+                centerY[i] = swatch.getTop() + swatch.getPivotY();
+                colors[i] = swatch.getColor();
+            }
+            checkTouch(views, viewsMetrics, "views, radius " + radius, centerX, centerY, colors);
+
+            // the same geometry without child views
+            final RecordingMetrics canvasMetrics = new RecordingMetrics();
+            final HexagonalColorPicker canvas = createPicker(HexagonalColorPicker.RENDER_MODE_CANVAS, radius, canvasMetrics);
+            checkLayoutBudgets(canvas, canvasMetrics, "canvas, radius " + radius);
+            assertEquals("canvas, radius " + radius + ": child views", 0, canvas.getChildCount());
+            checkTouch(canvas, canvasMetrics, "canvas, radius " + radius, centerX, centerY, colors);
+            checkTouchAllocations(canvas, "canvas, radius " + radius, centerX, centerY);
+        }
+    }
+
+    private HexagonalColorPicker createPicker(final int renderMode, final int radius, final RecordingMetrics metrics) {
+        final HexagonalColorPicker picker = new HexagonalColorPicker(mContext);
+        picker.setRenderMode(renderMode);
+        picker.setEntranceAnimation(false);
+        picker.setMetricsClock(new FakeClock());
+        picker.setMetrics(metrics);
+        picker.setAttrs(radius, Color.TRANSPARENT, new CountingListener());
+        return picker;
+    }
+
+    /**
+     * The palette is built and the swatches are positioned once, layout passes with the same size
+     * neither repeat it nor exceed the budgets.
+     */
+    private void checkLayoutBudgets(final HexagonalColorPicker picker, final RecordingMetrics metrics, final String name) {
+        final long buildStart = System.nanoTime();
+        PickerTestUtils.layout(picker, WIDTH, HEIGHT);
+        PerfBudgets.assertNanos(name + ": first layout", "build", new long[]{System.nanoTime() - buildStart});
+        assertEquals(name + ": palette builds", 1, metrics.mPaletteBuilds);
+        assertEquals(name + ": swatch layout passes", 1, metrics.mLayouts);
+
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            PickerTestUtils.relayout(picker);
+        }
+        final long[] nanos = new long[MEASURED_ROUNDS];
+        mAllocations.start();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            final long start = System.nanoTime();
+            PickerTestUtils.relayout(picker);
+            nanos[i] = System.nanoTime() - start;
+        }
+        final long bytes = mAllocations.stop();
+        PerfBudgets.assertBytes(name + ": layout passes", "relayout", MEASURED_ROUNDS, bytes);
+        PerfBudgets.assertNanos(name + ": layout pass", "relayout", nanos);
+        assertEquals(name + ": palette builds after relayout", 1, metrics.mPaletteBuilds);
+        assertEquals(name + ": swatch layout passes after relayout", 1, metrics.mLayouts);
+    }
+
+    /**
+     * Every swatch is selected by a tap on its center, every tap is reported exactly once.
+     */
+    private void checkTouch(final HexagonalColorPicker picker, final RecordingMetrics metrics, final String name,
+                            final float[] centerX, final float[] centerY, final int[] colors) {
+        final CountingListener listener = new CountingListener();
+        picker.setListener(listener);
+        final long[] nanos = new long[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            final long start = System.nanoTime();
+            tap(picker, centerX[i], centerY[i]);
+            nanos[i] = System.nanoTime() - start;
+            assertEquals(name + ": color of swatch " + i, colors[i], listener.mColor);
+        }
+        PerfBudgets.assertNanos(name + ": tap", "tap", nanos);
+        assertEquals(name + ": selections", colors.length, listener.mCount);
+        assertEquals(name + ": reported selections", colors.length, metrics.mSelections);
+        assertEquals(name + ": palette builds after touch", 1, metrics.mPaletteBuilds);
+        assertEquals(name + ": swatch layout passes after touch", 1, metrics.mLayouts);
+    }
+
+    /**
+     * Selecting swatches by touch stays within the allocation budget (canvas mode, views mode moves
+     * the check mark view).
+     */
+    private void checkTouchAllocations(final HexagonalColorPicker picker, final String name,
+                                       final float[] centerX, final float[] centerY) {
+        final int taps = Math.min(MEASURED_TAPS, centerX.length);
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            for (int i = 0; i < taps; i++) {
+                tap(picker, centerX[i], centerY[i]);
+            }
+        }
+        mAllocations.start();
+        for (int i = 0; i < taps; i++) {
+            tap(picker, centerX[i], centerY[i]);
+        }
+        final long bytes = mAllocations.stop();
+        PerfBudgets.assertBytes(name + ": taps", "tap", taps, bytes);
+    }
+
+    private void tap(final HexagonalColorPicker picker, final float x, final float y) {
+        mDown.setLocation(x, y);
+        mUp.setLocation(x, y);
+        picker.onTouchEvent(mDown);
+        picker.onTouchEvent(mUp);
+    }
+
+    private static final class CountingListener implements HexagonalColorPicker.OnColorSelectedListener {
+
+        int mCount;
+        int mColor;
+
+        @Override
+        public void onColorSelected(final int color) {
+            mCount++;
+            mColor = color;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.content.Context;
+import android.graphics.Color;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Steady state layout of the picker (onLayout, onSizeChanged and updateSwatchesPosition)
+ * stays within the time and allocation budgets (see {@link PerfBudgets}), with the same size
+ * and when the size changes.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class HexagonalColorPickerLayoutTest {
+
+    private static final int[] RADII = {1, 3, 10, 30};
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 940;
+    // Another size, e.g. a dialog resized by the keyboard
+    private static final int OTHER_WIDTH = 900;
+    private static final int OTHER_HEIGHT = 780;
+    private static final int WARM_UP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 20;
+
+    private Context mContext;
+    private AllocationCounter mAllocations;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mAllocations = new AllocationCounter();
+    }
+
+    @Test
+    public void relayoutWithSameSize() {
+        for (final int radius : RADII) {
+            for (final int renderMode : new int[]{HexagonalColorPicker.RENDER_MODE_VIEWS, HexagonalColorPicker.RENDER_MODE_CANVAS}) {
+                final String name = "mode " + renderMode + ", radius " + radius;
+                final RecordingMetrics metrics = new RecordingMetrics();
+                final HexagonalColorPicker picker = createPicker(renderMode, radius, metrics);
+                PickerTestUtils.layout(picker, WIDTH, HEIGHT);
+
+                for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+                    PickerTestUtils.relayout(picker);
+                }
+                final long[] nanos = new long[MEASURED_ROUNDS];
+                mAllocations.start();
+                for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                    final long start = System.nanoTime();
+                    PickerTestUtils.relayout(picker);
+                    nanos[i] = System.nanoTime() - start;
+                }
+                final long bytes = mAllocations.stop();
+                PerfBudgets.assertBytes(name + ": layout passes", "relayout", MEASURED_ROUNDS, bytes);
+                PerfBudgets.assertNanos(name + ": layout pass", "relayout", nanos);
+                // the swatches are not positioned again without a size change
+                assertEquals(name + ": swatch layout passes", 1, metrics.mLayouts);
+            }
+        }
+    }
+
+    @Test
+    public void sizeChanges() {
+        for (final int radius : RADII) {
+            final String name = "radius " + radius;
+            final RecordingMetrics metrics = new RecordingMetrics();
+            // canvas mode, in views mode the child views are re-measured by framework code for the new size
+            final HexagonalColorPicker picker = createPicker(HexagonalColorPicker.RENDER_MODE_CANVAS, radius, metrics);
+            PickerTestUtils.layout(picker, WIDTH, HEIGHT);
+
+            for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+                resize(picker, i);
+            }
+            final int layouts = metrics.mLayouts;
+            final long[] nanos = new long[MEASURED_ROUNDS];
+            mAllocations.start();
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                final long start = System.nanoTime();
+                resize(picker, i);
+                nanos[i] = System.nanoTime() - start;
+            }
+            final long bytes = mAllocations.stop();
+            PerfBudgets.assertBytes(name + ": size changes", "resize", MEASURED_ROUNDS, bytes);
+            PerfBudgets.assertNanos(name + ": size change", "resize", nanos);
+            // every size change positions the swatches exactly once
+            assertEquals(name + ": swatch layout passes", layouts + MEASURED_ROUNDS, metrics.mLayouts);
+            assertEquals(name + ": palette builds", 1, metrics.mPaletteBuilds);
+        }
+    }
+
+    private HexagonalColorPicker createPicker(final int renderMode, final int radius, final RecordingMetrics metrics) {
+        final HexagonalColorPicker picker = new HexagonalColorPicker(mContext);
+        picker.setRenderMode(renderMode);
+        picker.setEntranceAnimation(false);
+        picker.setMetricsClock(new FakeClock());
+        picker.setMetrics(metrics);
+        picker.setAttrs(radius, Color.TRANSPARENT, null);
+        return picker;
+    }
+
+    private static void resize(final HexagonalColorPicker picker, final int round) {
+        if (round % 2 == 0) {
+            PickerTestUtils.layout(picker, OTHER_WIDTH, OTHER_HEIGHT);
+        } else {
+            PickerTestUtils.layout(picker, WIDTH, HEIGHT);
+        }
+    }
+}
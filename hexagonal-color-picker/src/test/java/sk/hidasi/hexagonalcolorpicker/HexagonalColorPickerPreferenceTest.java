@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.LinearLayout;
+
+import androidx.preference.PreferenceViewHolder;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Binding the preview of the preference to a recycled item view reuses the preview,
+ * rebinding the same color stays within the budgets (see {@link PerfBudgets}).
+ */
+@RunWith(RobolectricTestRunner.class)
+public class HexagonalColorPickerPreferenceTest {
+
+    private static final int[] COLORS = {0xFF2196F3, 0xFFE91E63};
+    private static final int WARM_UP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 100;
+
+    private Context mContext;
+    private AllocationCounter mAllocations;
+    private HexagonalColorPickerPreference mPreference;
+    private LinearLayout mWidgetFrame;
+    private PreferenceViewHolder mHolder;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mAllocations = new AllocationCounter();
+        mPreference = new HexagonalColorPickerPreference(mContext);
+
+        final LinearLayout item = new LinearLayout(mContext);
+        mWidgetFrame = new LinearLayout(mContext);
+        mWidgetFrame.setId(android.R.id.widget_frame);
+        item.addView(mWidgetFrame);
+        mHolder = PreferenceViewHolder.createInstanceForTests(item);
+    }
+
+    @Test
+    public void bindsReuseThePreview() {
+        mPreference.setPreviewImage(mHolder, COLORS[0]);
+        final View preview = mWidgetFrame.getChildAt(0);
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            mPreference.setPreviewImage(mHolder, COLORS[i % COLORS.length]);
+        }
+        assertEquals("widget frame children", 1, mWidgetFrame.getChildCount());
+        assertSame("preview view", preview, mWidgetFrame.getChildAt(0));
+        assertEquals("preview color", COLORS[(WARM_UP_ROUNDS - 1) % COLORS.length],
+                ((HexagonalColorSwatch) preview).getColor());
+    }
+
+    @Test
+    public void bindsWithTheSameColor() {
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            mPreference.setPreviewImage(mHolder, COLORS[0]);
+        }
+        final long[] nanos = new long[MEASURED_ROUNDS];
+        mAllocations.start();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            final long start = System.nanoTime();
+            mPreference.setPreviewImage(mHolder, COLORS[0]);
+            nanos[i] = System.nanoTime() - start;
+        }
+        final long bytes = mAllocations.stop();
+        PerfBudgets.assertBytes("binds", "previewBind", MEASURED_ROUNDS, bytes);
+        PerfBudgets.assertNanos("bind", "previewBind", nanos);
+    }
+
+    @Test
+    public void previewOfTransparentValueIsVisible() {
+        // empty swatches are hidden by the picker only, the preview shows the value 0 as well
+        mPreference.setPreviewImage(mHolder, COLORS[0]);
+        mPreference.setPreviewImage(mHolder, 0);
+        assertEquals("widget frame visibility", View.VISIBLE, mWidgetFrame.getVisibility());
+        assertEquals("preview visibility", View.VISIBLE, mWidgetFrame.getChildAt(0).getVisibility());
+        assertEquals("preview color", 0, ((HexagonalColorSwatch) mWidgetFrame.getChildAt(0)).getColor());
+    }
+}
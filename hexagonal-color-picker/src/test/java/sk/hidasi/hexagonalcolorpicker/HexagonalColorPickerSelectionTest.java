@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Selected swatch of a preset color.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class HexagonalColorPickerSelectionTest {
+
+    private static final int RADIUS = 3;
+    private static final int WIDTH = 540;
+    private static final int HEIGHT = 470;
+    // Not a swatch of the default palette
+    private static final int OFF_PALETTE_COLOR = 0xFF204060;
+    private static final int VALUE_LAYERS = 4;
+    // HSV value 0.25 => the darkest of 4 layers
+    private static final int DARK_COLOR = 0xFF400000;
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+    }
+
+    @Test
+    public void transparentColorSelectsNothing() {
+        for (final int renderMode : new int[]{HexagonalColorPicker.RENDER_MODE_VIEWS, HexagonalColorPicker.RENDER_MODE_CANVAS}) {
+            final HexagonalColorPicker picker = createPicker(renderMode, Color.TRANSPARENT);
+            assertEquals("mode " + renderMode + ": selected swatch", -1, picker.getAccessibleSelectedIndex());
+            assertEquals("mode " + renderMode + ": selected color", Color.TRANSPARENT, picker.getSelectedColor());
+            if (renderMode == HexagonalColorPicker.RENDER_MODE_VIEWS) {
+                // the check mark is the last child
+                final View checker = picker.getChildAt(picker.getChildCount() - 1);
+                assertEquals("check mark visibility", View.INVISIBLE, checker.getVisibility());
+            }
+        }
+    }
+
+    @Test
+    public void transparentColorClearsSelection() {
+        final HexagonalColorPicker picker = createPicker(HexagonalColorPicker.RENDER_MODE_VIEWS, OFF_PALETTE_COLOR);
+        // colors which are not in the palette select the nearest swatch
+        assertTrue("selected swatch of an off-palette color", picker.getAccessibleSelectedIndex() >= 0);
+
+        picker.setSelectedColor(Color.TRANSPARENT);
+        assertEquals("selected swatch", -1, picker.getAccessibleSelectedIndex());
+        assertEquals("check mark visibility", View.INVISIBLE, picker.getChildAt(picker.getChildCount() - 1).getVisibility());
+    }
+
+    @Test
+    public void transparentColorShowsTheBrightestLayer() {
+        final HexagonalColorPicker picker = createPicker(HexagonalColorPicker.RENDER_MODE_VIEWS, Color.TRANSPARENT, VALUE_LAYERS);
+        assertEquals("value layer", 0, picker.getValueLayer());
+        assertEquals("selected swatch", -1, picker.getAccessibleSelectedIndex());
+    }
+
+    @Test
+    public void colorSelectsItsValueLayer() {
+        final HexagonalColorPicker picker = createPicker(HexagonalColorPicker.RENDER_MODE_VIEWS, DARK_COLOR, VALUE_LAYERS);
+        assertEquals("value layer", VALUE_LAYERS - 1, picker.getValueLayer());
+        assertTrue("selected swatch", picker.getAccessibleSelectedIndex() >= 0);
+
+        // clearing the selection keeps the shown layer
+        picker.setSelectedColor(Color.TRANSPARENT);
+        assertEquals("value layer after clearing", VALUE_LAYERS - 1, picker.getValueLayer());
+        assertEquals("selected swatch after clearing", -1, picker.getAccessibleSelectedIndex());
+
+        picker.setSelectedColor(Color.WHITE);
+        assertEquals("value layer of a white color", 0, picker.getValueLayer());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void deprecatedOnTouchSelectsTheTouchedSwatch() {
+        final HexagonalColorPicker picker = createPicker(HexagonalColorPicker.RENDER_MODE_VIEWS, Color.TRANSPARENT);
+        final int[] selected = {Color.TRANSPARENT};
+        picker.setListener(new HexagonalColorPicker.OnColorSelectedListener() {
+            @Override
+            public void onColorSelected(final int color) {
+                selected[0] = color;
+            }
+        });
+        final int index = 5;
+        final HexagonalColorSwatch swatch = (HexagonalColorSwatch) picker.getChildAt(index);
+
+        // the event is in the coordinates of the swatch view (like the former per-swatch touch listener)
+        final MotionEvent down = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, swatch.getPivotX(), swatch.getPivotY(), 0);
+        final MotionEvent up = MotionEvent.obtain(0, 0, MotionEvent.ACTION_UP, swatch.getPivotX(), swatch.getPivotY(), 0);
+        picker.onTouch(swatch, down);
+        picker.onTouch(swatch, up);
+        assertEquals("selected swatch", index, picker.getAccessibleSelectedIndex());
+        assertEquals("reported color", swatch.getColor(), selected[0]);
+        // the event is given back unchanged
+        assertEquals("event X", swatch.getPivotX(), up.getX(), 0.0f);
+        down.recycle();
+        up.recycle();
+    }
+
+    private HexagonalColorPicker createPicker(final int renderMode, final int color) {
+        return createPicker(renderMode, color, 1);
+    }
+
+    private HexagonalColorPicker createPicker(final int renderMode, final int color, final int valueLayers) {
+        final HexagonalColorPicker picker = new HexagonalColorPicker(mContext);
+        picker.setRenderMode(renderMode);
+        picker.setEntranceAnimation(false);
+        picker.setValueLayers(valueLayers);
+        picker.setAttrs(RADIUS, color, null);
+        PickerTestUtils.layout(picker, WIDTH, HEIGHT);
+        return picker;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.os.Looper;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import sk.hidasi.hexagonalcolorpicker.core.PaletteGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Gradients rendered on the background thread.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class PaletteGradientTest {
+
+    private static final int RADIUS = 2;
+    private static final int SIZE = 64;
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    @Test
+    public void failedRenderIsRenderedAgain() throws InterruptedException {
+        final FailingPaletteGenerator generator = new FailingPaletteGenerator();
+        final RecordingListener failed = new RecordingListener();
+        obtain(generator, failed);
+        waitFor(generator.mFailed);
+
+        // the request after the failure is not merged into the failed one
+        final RecordingListener retried = new RecordingListener();
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (retried.mGradient == null && System.currentTimeMillis() < deadline) {
+            obtain(generator, retried);
+            Thread.sleep(10);
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+        assertNotNull("gradient rendered after a failure", retried.mGradient);
+        assertEquals("listener of the retried request", 1, retried.mCalls);
+        assertEquals("listener of the failed request", 0, failed.mCalls);
+    }
+
+    private static void obtain(final PaletteGenerator generator, final PaletteGradient.OnGradientReadyListener listener) {
+        PaletteGradient.obtainAsync(generator, RADIUS, 1.0f, SIZE, SIZE, SIZE * 0.5f, SIZE * 0.5f, SIZE, SIZE, listener);
+    }
+
+    private static void waitFor(final CountDownLatch latch) throws InterruptedException {
+        assertTrue("render finished in time", latch.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Generator which fails the first rendering (e.g. like an out of memory error).
+     */
+    private static final class FailingPaletteGenerator implements PaletteGenerator {
+
+        final CountDownLatch mFailed = new CountDownLatch(1);
+        private volatile boolean mFail = true;
+
+        @Override
+        public int calculateColor(final int radius, final int x, final int y) {
+            if (mFail) {
+                mFail = false;
+                mFailed.countDown();
+                throw new IllegalStateException("Render failure");
+            }
+            return 0xFF000000 | (x & 0xFF) << 16 | (y & 0xFF) << 8;
+        }
+    }
+
+    private static final class RecordingListener implements PaletteGradient.OnGradientReadyListener {
+
+        int mCalls;
+        PaletteGradient mGradient;
+
+        @Override
+        public void onGradientReady(final PaletteGradient gradient) {
+            mCalls++;
+            mGradient = gradient;
+        }
+    }
+}
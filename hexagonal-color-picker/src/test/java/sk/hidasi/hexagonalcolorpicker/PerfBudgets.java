@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Performance budgets of the tests, configured in the build script of the module (passed to the tests
+ * as the system properties budget.&lt;operation&gt;.maxNanos and budget.&lt;operation&gt;.maxBytes).
+ */
+final class PerfBudgets {
+
+    private PerfBudgets() {
+    }
+
+    /**
+     * Checks the time of an operation.
+     *
+     * @param message   Description of the measurement
+     * @param operation Budget name (e.g. "relayout")
+     * @param samples   Times of the measured runs in nanoseconds (sorted by this method)
+     */
+    static void assertNanos(final String message, final String operation, final long[] samples) {
+        final long max = get(operation + ".maxNanos");
+        Arrays.sort(samples);
+        final long median = samples[samples.length / 2];
+        assertTrue(message + ": " + median + " ns > " + max + " ns (" + operation + ")", median <= max);
+    }
+
+    /**
+     * Checks the allocations of an operation.
+     *
+     * @param message   Description of the measurement
+     * @param operation Budget name (e.g. "relayout")
+     * @param runs      Number of measured runs
+     * @param bytes     Bytes allocated by all runs
+     */
+    static void assertBytes(final String message, final String operation, final int runs, final long bytes) {
+        final long max = get(operation + ".maxBytes");
+        assertTrue(message + ": " + bytes + " bytes in " + runs + " runs > " + max + " bytes per run ("
+                + operation + ")", bytes <= max * runs);
+    }
+
+    private static long get(final String name) {
+        final String value = System.getProperty("budget." + name);
+        if (value == null) {
+            fail("Budget " + name + " is not configured (see the budgets of the build script)");
+        }
+        return Long.parseLong(value);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.Looper;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.time.Duration;
+
+import sk.hidasi.hexagonalcolorpicker.core.HexGrid;
+import sk.hidasi.hexagonalcolorpicker.core.PaletteGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Durations and counts reported by {@link PickerMetrics}, measured with a clock controlled by the test
+ * (the reported values are exact and do not depend on the machine).
+ */
+@RunWith(RobolectricTestRunner.class)
+public class PickerMetricsTest {
+
+    private static final int WIDTH = 540;
+    private static final int HEIGHT = 470;
+    private static final long MILLIS = 1000000L;
+    // The frame interval of the picker (60 fps)
+    private static final long FRAME_NANOS = 1000000000L / 60;
+
+    private Context mContext;
+    private FakeClock mClock;
+    private RecordingMetrics mMetrics;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mClock = new FakeClock();
+        mMetrics = new RecordingMetrics();
+    }
+
+    @Test
+    public void firstFrameDuration() {
+        final HexagonalColorPicker picker = createPicker(3, HexagonalColorPicker.getPaletteGenerator(HexagonalColorPicker.PALETTE_HSV));
+        final Canvas canvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+        mClock.advance(1000 * MILLIS);
+        picker.traceFirstFrame(mClock.peek());
+
+        // nothing is reported before the swatches are positioned
+        picker.draw(canvas);
+        assertEquals("first frames before layout", 0, mMetrics.mFirstFrames);
+
+        PickerTestUtils.layout(picker, WIDTH, HEIGHT);
+        mClock.advance(40 * MILLIS);
+        picker.draw(canvas);
+        assertEquals("first frames", 1, mMetrics.mFirstFrames);
+        assertEquals("first frame duration", 40 * MILLIS, mMetrics.mFirstFrameNanos);
+
+        // only the first frame is reported
+        mClock.advance(16 * MILLIS);
+        picker.draw(canvas);
+        assertEquals("first frames after redraw", 1, mMetrics.mFirstFrames);
+    }
+
+    @Test
+    public void paletteBuildDuration() {
+        final int radius = 5;
+        final int swatchCount = HexGrid.getSwatchCount(radius);
+        // a new generator instance, so the palette table is not cached yet
+        final PaletteGenerator generator = new SlowPaletteGenerator(mClock, MILLIS);
+
+        final HexagonalColorPicker picker = createPicker(radius, generator);
+        PickerTestUtils.layout(picker, WIDTH, HEIGHT);
+        assertEquals("palette builds", 1, mMetrics.mPaletteBuilds);
+        assertEquals("palette radius", radius, mMetrics.mBuildRadius);
+        assertEquals("palette swatches", swatchCount, mMetrics.mBuildSwatchCount);
+        assertEquals("palette build duration", swatchCount * MILLIS, mMetrics.mBuildNanos);
+
+        // the second picker uses the cached palette table, the generator is not called again
+        final HexagonalColorPicker cached = createPicker(radius, generator);
+        PickerTestUtils.layout(cached, WIDTH, HEIGHT);
+        assertEquals("palette builds of the second picker", 2, mMetrics.mPaletteBuilds);
+        assertEquals("palette build duration of the second picker", 0, mMetrics.mBuildNanos);
+    }
+
+    @Test
+    public void entranceAnimationWithoutDroppedFrames() {
+        final RecordingMetrics metrics = animate(-1);
+        assertEquals("animations", 1, metrics.mAnimations);
+        assertEquals("dropped frames", 0, metrics.mDroppedFrames);
+        assertEquals("animation duration", metrics.mAnimationFrames * FRAME_NANOS, metrics.mAnimationNanos);
+    }
+
+    @Test
+    public void entranceAnimationWithDroppedFrames() {
+        // the 4th frame comes 3 frames late
+        final RecordingMetrics metrics = animate(3);
+        assertEquals("animations", 1, metrics.mAnimations);
+        assertTrue("animation frames: " + metrics.mAnimationFrames, metrics.mAnimationFrames > 4);
+        assertEquals("dropped frames", 3, metrics.mDroppedFrames);
+        assertEquals("animation duration", (metrics.mAnimationFrames + 3) * FRAME_NANOS, metrics.mAnimationNanos);
+    }
+
+    /**
+     * Plays the entrance animation, every frame callback comes one frame interval after the previous one.
+     *
+     * @param lateRead Clock read after which 3 frames are missed (0 = animation start, -1 = none)
+     * @return Reported metrics
+     */
+    private RecordingMetrics animate(final int lateRead) {
+        final HexagonalColorPicker picker = createPicker(3, HexagonalColorPicker.getPaletteGenerator(HexagonalColorPicker.PALETTE_HSV));
+        PickerTestUtils.layout(picker, WIDTH, HEIGHT);
+        assertEquals("animations before start", 0, mMetrics.mAnimations);
+
+        mClock.resetReads();
+        mClock.setStep(FRAME_NANOS);
+        mClock.jumpAfterRead(lateRead, 3 * FRAME_NANOS);
+        picker.setEntranceAnimation(true);
+        picker.animateEntrance();
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofSeconds(1));
+        return mMetrics;
+    }
+
+    private HexagonalColorPicker createPicker(final int radius, final PaletteGenerator generator) {
+        final HexagonalColorPicker picker = new HexagonalColorPicker(mContext);
+        picker.setRenderMode(HexagonalColorPicker.RENDER_MODE_VIEWS);
+        picker.setEntranceAnimation(false);
+        picker.setMetricsClock(mClock);
+        picker.setMetrics(mMetrics);
+        picker.setPaletteGenerator(generator);
+        picker.setAttrs(radius, Color.TRANSPARENT, null);
+        return picker;
+    }
+
+    /**
+     * Palette generator which takes a fixed time (of the fake clock) per swatch.
+     */
+    private static final class SlowPaletteGenerator implements PaletteGenerator {
+
+        private final FakeClock mClock;
+        private final long mNanosPerColor;
+
+        SlowPaletteGenerator(final FakeClock clock, final long nanosPerColor) {
+            mClock = clock;
+            mNanosPerColor = nanosPerColor;
+        }
+
+        @Override
+        public int calculateColor(final int radius, final int x, final int y) {
+            mClock.advance(mNanosPerColor);
+            return Color.rgb((x + radius * 2) * 255 / (radius * 4 + 1), (y + radius * 2) * 255 / (radius * 4 + 1), 128);
+        }
+    }
+}
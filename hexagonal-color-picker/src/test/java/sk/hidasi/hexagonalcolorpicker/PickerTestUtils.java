@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.view.View;
+
+/**
+ * Layout helpers shared by the picker tests.
+ */
+final class PickerTestUtils {
+
+    private PickerTestUtils() {
+    }
+
+    /**
+     * Measures and lays out a view with an exact size.
+     *
+     * @param view   View
+     * @param width  Width in pixels
+     * @param height Height in pixels
+     */
+    static void layout(final View view, final int width, final int height) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, width, height);
+    }
+
+    /**
+     * Forces a measure and layout pass with the current size (as a parent requesting layout would).
+     *
+     * @param view View
+     */
+    static void relayout(final View view) {
+        view.requestLayout();
+        layout(view, view.getWidth(), view.getHeight());
+    }
+}
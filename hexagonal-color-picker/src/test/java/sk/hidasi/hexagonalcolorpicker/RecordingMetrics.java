@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+/**
+ * Metrics listener which counts the callbacks and keeps the last reported values.
+ */
+final class RecordingMetrics implements PickerMetrics {
+
+    int mPaletteBuilds;
+    int mBuildRadius;
+    int mBuildSwatchCount;
+    long mBuildNanos;
+
+    int mLayouts;
+    int mLayoutSwatchCount;
+
+    int mFirstFrames;
+    long mFirstFrameNanos;
+
+    int mAnimations;
+    int mAnimationFrames;
+    int mDroppedFrames;
+    long mAnimationNanos;
+
+    int mSelections;
+    int mSelectedColor;
+    long mSelectionNanos;
+
+    @Override
+    public void onPaletteBuilt(final int radius, final int swatchCount, final long durationNanos) {
+        mPaletteBuilds++;
+        mBuildRadius = radius;
+        mBuildSwatchCount = swatchCount;
+        mBuildNanos = durationNanos;
+    }
+
+    @Override
+    public void onSwatchesLaidOut(final int swatchCount, final long durationNanos) {
+        mLayouts++;
+        mLayoutSwatchCount = swatchCount;
+    }
+
+    @Override
+    public void onFirstFrame(final long durationNanos) {
+        mFirstFrames++;
+        mFirstFrameNanos = durationNanos;
+    }
+
+    @Override
+    public void onEntranceAnimationFinished(final int frames, final int droppedFrames, final long durationNanos) {
+        mAnimations++;
+        mAnimationFrames = frames;
+        mDroppedFrames = droppedFrames;
+        mAnimationNanos = durationNanos;
+    }
+
+    @Override
+    public void onColorSelected(final int color, final long latencyNanos) {
+        mSelections++;
+        mSelectedColor = color;
+        mSelectionNanos = latencyNanos;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2015 Robert Hidasi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sk.hidasi.hexagonalcolorpicker;
+
+import android.content.Context;
+import android.graphics.Color;
+
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Locale;
+
+import sk.hidasi.hexagonalcolorpicker.core.HexGrid;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Virtual views of the swatches, including ids which are not (or no longer) valid.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SwatchAccessibilityHelperTest {
+
+    private static final int RADIUS = 2;
+    private static final int WIDTH = 540;
+    private static final int HEIGHT = 470;
+
+    private Context mContext;
+    private HexagonalColorPicker mPicker;
+    private SwatchAccessibilityHelper mHelper;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mPicker = new HexagonalColorPicker(mContext);
+        mPicker.setEntranceAnimation(false);
+        mPicker.setAttrs(RADIUS, Color.TRANSPARENT, null);
+        mHelper = new SwatchAccessibilityHelper(mPicker);
+    }
+
+    @Test
+    public void nodeBeforeLayout() {
+        assertEquals(emptyDescription(), describe(0));
+    }
+
+    @Test
+    public void nodeOfStaleId() {
+        PickerTestUtils.layout(mPicker, WIDTH, HEIGHT);
+        // e.g. an id from a larger palette shown before
+        assertEquals(emptyDescription(), describe(HexGrid.getSwatchCount(RADIUS)));
+        assertEquals(emptyDescription(), describe(-1));
+    }
+
+    @Test
+    public void nodeOfSwatch() {
+        PickerTestUtils.layout(mPicker, WIDTH, HEIGHT);
+        final int color = mPicker.getAccessibleSwatchColor(0);
+        final String expected = mContext.getString(R.string.color_picker_swatch_description,
+                String.format(Locale.US, "#%06X", color & 0xFFFFFF));
+        assertEquals(expected, describe(0));
+    }
+
+    private String describe(final int virtualViewId) {
+        final AccessibilityNodeInfoCompat node = AccessibilityNodeInfoCompat.obtain();
+        try {
+            mHelper.onPopulateNodeForVirtualView(virtualViewId, node);
+            return String.valueOf(node.getContentDescription());
+        } finally {
+            node.recycle();
+        }
+    }
+
+    private String emptyDescription() {
+        return mContext.getString(R.string.color_picker_swatch_empty);
+    }
+}